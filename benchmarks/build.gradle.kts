@@ -0,0 +1,17 @@
+plugins {
+  id("tabtps.base")
+  alias(libs.plugins.jmh)
+}
+
+dependencies {
+  jmhImplementation(projects.tabtpsCommon)
+  jmhImplementation(libs.gson)
+  jmhImplementation(libs.guava)
+  jmhImplementation(libs.slf4jJdk14)
+}
+
+jmh {
+  jmhVersion.set(libs.versions.jmh)
+  profilers.add("gc")
+  resultFormat.set("JSON")
+}
@@ -0,0 +1,190 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.incendo.cloud.CommandManager;
+import org.incendo.cloud.execution.ExecutionCoordinator;
+import org.incendo.cloud.internal.CommandRegistrationHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import xyz.jpenilla.tabtps.common.TabTPS;
+import xyz.jpenilla.tabtps.common.TabTPSPlatform;
+import xyz.jpenilla.tabtps.common.command.Commander;
+import xyz.jpenilla.tabtps.common.service.TickTimeService;
+import xyz.jpenilla.tabtps.common.service.UserService;
+import xyz.jpenilla.tabtps.common.util.TickTimes;
+
+/**
+ * Minimal headless platform, so that benchmarks can exercise the real display and module code
+ * without a server.
+ */
+public final class BenchmarkPlatform implements TabTPSPlatform<Object, BenchmarkUser> {
+  private final Logger logger = LoggerFactory.getLogger("TabTPS-Benchmarks");
+  private final Path dataDirectory;
+  private final BenchmarkUserService userService;
+  private final BenchmarkTickTimeService tickTimeService = new BenchmarkTickTimeService();
+  private final CommandManager<Commander> commandManager;
+  private final TabTPS tabTPS;
+
+  public BenchmarkPlatform() throws IOException {
+    this.dataDirectory = Files.createTempDirectory("tabtps-benchmarks");
+    this.userService = new BenchmarkUserService(this);
+    this.commandManager = new CommandManager<Commander>(
+      ExecutionCoordinator.simpleCoordinator(),
+      CommandRegistrationHandler.nullCommandRegistrationHandler()
+    ) {
+      @Override
+      public boolean hasPermission(final @NonNull Commander sender, final @NonNull String permission) {
+        return true;
+      }
+    };
+    this.tabTPS = new TabTPS(this);
+  }
+
+  public @NonNull BenchmarkUser createUser() {
+    return new BenchmarkUser(this.tabTPS, UUID.randomUUID());
+  }
+
+  @Override
+  public @NonNull UserService<Object, BenchmarkUser> userService() {
+    return this.userService;
+  }
+
+  @Override
+  public @NonNull Path dataDirectory() {
+    return this.dataDirectory;
+  }
+
+  @Override
+  public @NonNull TabTPS tabTPS() {
+    return this.tabTPS;
+  }
+
+  @Override
+  public @NonNull TickTimeService tickTimeService() {
+    return this.tickTimeService;
+  }
+
+  @Override
+  public int maxPlayers() {
+    return 100;
+  }
+
+  @Override
+  public void shutdown() {
+  }
+
+  @Override
+  public void onReload() {
+  }
+
+  @Override
+  public @NonNull Logger logger() {
+    return this.logger;
+  }
+
+  @Override
+  public @Nullable Thread serverThread() {
+    return null;
+  }
+
+  @Override
+  public @NonNull CommandManager<Commander> commandManager() {
+    return this.commandManager;
+  }
+
+  private static final class BenchmarkUserService extends UserService<Object, BenchmarkUser> {
+    BenchmarkUserService(final @NonNull BenchmarkPlatform platform) {
+      super(platform);
+    }
+
+    @Override
+    protected @NonNull UUID uuid(final @NonNull Object base) {
+      throw new UnsupportedOperationException("Benchmark users are not backed by players");
+    }
+
+    @Override
+    protected @NonNull BenchmarkUser create(final @NonNull Object base) {
+      throw new UnsupportedOperationException("Benchmark users are not backed by players");
+    }
+
+    @Override
+    protected @NonNull Collection<Object> platformPlayers() {
+      return Collections.emptyList();
+    }
+  }
+
+  private static final class BenchmarkTickTimeService implements TickTimeService {
+    private final TickTimes tickTimes = new TickTimes(100);
+
+    BenchmarkTickTimeService() {
+      for (int i = 0; i < 100; i++) {
+        this.tickTimes.add(i, 30_000_000L + i * 100_000L);
+      }
+    }
+
+    @Override
+    public double averageMspt() {
+      long total = 0;
+      for (final long time : this.tickTimes.times()) {
+        total += time;
+      }
+      return total / 100.0D / 1.0E6D;
+    }
+
+    @Override
+    public double @NonNull [] recentTps() {
+      return new double[]{19.98D, 19.95D, 19.90D, 19.87D};
+    }
+
+    @Override
+    public double msptPercentile(final double percentile) {
+      return this.tickTimes.percentile(percentile) / 1.0E6D;
+    }
+
+    @Override
+    public double minMspt() {
+      return this.tickTimes.min() / 1.0E6D;
+    }
+
+    @Override
+    public double maxMspt() {
+      return this.tickTimes.max() / 1.0E6D;
+    }
+
+    @Override
+    public @NonNull Map<String, TickTimes> worldTickTimes() {
+      return Collections.singletonMap("minecraft:overworld", this.tickTimes);
+    }
+  }
+}
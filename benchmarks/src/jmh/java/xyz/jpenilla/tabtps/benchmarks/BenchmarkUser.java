@@ -0,0 +1,91 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.benchmarks;
+
+import java.util.Locale;
+import java.util.UUID;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.identity.Identity;
+import net.kyori.adventure.pointer.Pointers;
+import net.kyori.adventure.text.Component;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import xyz.jpenilla.tabtps.common.AbstractUser;
+import xyz.jpenilla.tabtps.common.TabTPS;
+import xyz.jpenilla.tabtps.common.util.TickTimes;
+
+/**
+ * A user which discards everything sent to it.
+ */
+public final class BenchmarkUser extends AbstractUser<Object> {
+  private static final Pointers POINTERS = Pointers.builder()
+    .withStatic(Identity.LOCALE, Locale.ENGLISH)
+    .build();
+  private final @Nullable TickTimes worldTickTimes;
+
+  BenchmarkUser(final @NonNull TabTPS tabTPS, final @NonNull UUID uuid) {
+    super(tabTPS, new Object(), uuid);
+    this.worldTickTimes = tabTPS.platform().tickTimeService().worldTickTimes().get(this.world());
+  }
+
+  @Override
+  public @NonNull Component displayName() {
+    return Component.text("Benchmark");
+  }
+
+  @Override
+  public boolean online() {
+    return true;
+  }
+
+  @Override
+  public int ping() {
+    return 42;
+  }
+
+  @Override
+  public @NonNull String world() {
+    return "minecraft:overworld";
+  }
+
+  @Override
+  public @Nullable TickTimes worldTickTimes() {
+    return this.worldTickTimes;
+  }
+
+  @Override
+  public boolean hasPermission(final @NonNull String permissionString) {
+    return true;
+  }
+
+  @Override
+  public @NonNull Audience audience() {
+    return Audience.empty();
+  }
+
+  @Override
+  public @NonNull Pointers pointers() {
+    return POINTERS;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.benchmarks;
+
+import java.text.DecimalFormat;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import xyz.jpenilla.tabtps.common.util.FixedPointFormat;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class FixedPointFormatBenchmark {
+  private final DecimalFormat decimalFormat = new DecimalFormat("0.00");
+  // Not final, so the JIT cannot constant-fold the inputs
+  private double tps = 19.9734D;
+  private double cpu = 12.34D;
+  private double gibibytes = 6656L / 1024.0D;
+
+  @Benchmark
+  public String decimalFormat() {
+    // One instance per thread, as the shared instance TabTPS used before is not thread-safe
+    return this.decimalFormat.format(this.tps);
+  }
+
+  @Benchmark
+  public CharSequence fixedPointTwoDecimals() {
+    return FixedPointFormat.TWO_DECIMALS.format(this.tps);
+  }
+
+  @Benchmark
+  public String stringFormat() {
+    return String.format("%.1f", this.gibibytes);
+  }
+
+  @Benchmark
+  public CharSequence fixedPointOneDecimal() {
+    return FixedPointFormat.ONE_DECIMAL.format(this.gibibytes);
+  }
+
+  @Benchmark
+  public String doubleToString() {
+    return String.valueOf(this.cpu);
+  }
+
+  @Benchmark
+  public CharSequence fixedPointCompact() {
+    return FixedPointFormat.COMPACT.format(this.cpu);
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.benchmarks;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.translation.GlobalTranslator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import xyz.jpenilla.tabtps.common.config.Theme;
+import xyz.jpenilla.tabtps.common.module.ModuleRenderer;
+
+/**
+ * Renders a single module per invocation, for every {@link xyz.jpenilla.tabtps.common.module.ModuleType},
+ * as well as the default tab display module list.
+ *
+ * <p>The translate benchmarks add the translation a platform applies before sending, either to a
+ * plain render or to one where shared modules were already translated for the viewer's locale.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModuleRendererBenchmark {
+  @Param({"cpu", "memory", "gc", "mspt", "mspt_p99", "world_mspt", "tps", "ping", "players", "tps,mspt,ping,cpu,memory,players"})
+  public String modules;
+
+  private ModuleRenderer renderer;
+  private BenchmarkUser user;
+
+  @Setup
+  public void setup(final TabTPSState state) {
+    this.renderer = ModuleRenderer.builder()
+      .modules(state.tabTPS(), Theme.DEFAULT, state.user(), this.modules)
+      .separator(Component.text(" | "))
+      .moduleRenderFunction(ModuleRenderer.standardRenderFunction(Theme.DEFAULT))
+      .build();
+    this.user = state.user();
+  }
+
+  @Benchmark
+  public Component render() {
+    return this.renderer.render();
+  }
+
+  @Benchmark
+  public Component translate() {
+    return GlobalTranslator.render(this.renderer.render(), Locale.ENGLISH);
+  }
+
+  @Benchmark
+  public Component translatePreTranslated() {
+    return GlobalTranslator.render(this.renderer.render(this.user), Locale.ENGLISH);
+  }
+}
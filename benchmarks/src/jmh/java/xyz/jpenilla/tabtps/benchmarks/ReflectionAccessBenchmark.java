@@ -0,0 +1,159 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the reflective access patterns used by the Spigot platform before and after switching
+ * to typed method handles. The server internals are not available here, so small stand-in
+ * classes with the same shape are used.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReflectionAccessBenchmark {
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  // Before: Field#get and untyped invocation, re-fetching the server every call
+  private static final MethodHandle GET_SERVER;
+  private static final MethodHandle GET_HANDLE;
+  private static final MethodHandle GET_TIMES;
+  private static final Field TICK_TIMES_FIELD;
+  private static final Field LATENCY_FIELD;
+  private static final Field TICK_TIMES_5S_FIELD;
+
+  // After: getters adapted to (Object) -> T once and called with invokeExact
+  private static final MethodHandle TICK_TIMES_GETTER;
+  private static final MethodHandle LATENCY_GETTER;
+  private static final MethodHandle TIMES_5S_GETTER;
+
+  static {
+    try {
+      GET_SERVER = LOOKUP.findStatic(FakeServer.class, "getServer", MethodType.methodType(FakeServer.class));
+      GET_HANDLE = LOOKUP.findVirtual(FakeCraftPlayer.class, "getHandle", MethodType.methodType(FakeServerPlayer.class));
+      GET_TIMES = LOOKUP.findVirtual(FakeTickTimes.class, "getTimes", MethodType.methodType(long[].class));
+      TICK_TIMES_FIELD = FakeServer.class.getDeclaredField("tickTimes");
+      LATENCY_FIELD = FakeServerPlayer.class.getDeclaredField("latency");
+      TICK_TIMES_5S_FIELD = FakeServer.class.getDeclaredField("tickTimes5s");
+
+      TICK_TIMES_GETTER = LOOKUP.unreflectGetter(TICK_TIMES_FIELD)
+        .asType(MethodType.methodType(long[].class, Object.class));
+      LATENCY_GETTER = MethodHandles.filterReturnValue(
+        GET_HANDLE.asType(MethodType.methodType(Object.class, Object.class)),
+        LOOKUP.unreflectGetter(LATENCY_FIELD).asType(MethodType.methodType(int.class, Object.class))
+      );
+      TIMES_5S_GETTER = MethodHandles.filterReturnValue(
+        LOOKUP.unreflectGetter(TICK_TIMES_5S_FIELD).asType(MethodType.methodType(Object.class, Object.class)),
+        GET_TIMES.asType(MethodType.methodType(long[].class, Object.class))
+      );
+    } catch (final ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final Object server = FakeServer.SERVER;
+  private final Object player = new FakeCraftPlayer();
+
+  @Benchmark
+  public long[] tickTimesBefore() throws Throwable {
+    final Object server = GET_SERVER.invoke();
+    return (long[]) TICK_TIMES_FIELD.get(server);
+  }
+
+  @Benchmark
+  public long[] tickTimesAfter() throws Throwable {
+    return (long[]) TICK_TIMES_GETTER.invokeExact(this.server);
+  }
+
+  @Benchmark
+  public int pingBefore() throws Throwable {
+    final Object handle = GET_HANDLE.invokeWithArguments(this.player);
+    return LATENCY_FIELD.getInt(handle);
+  }
+
+  @Benchmark
+  public int pingAfter() throws Throwable {
+    return (int) LATENCY_GETTER.invokeExact(this.player);
+  }
+
+  @Benchmark
+  public long[] paperTickTimesBefore() throws Throwable {
+    final Object server = GET_SERVER.invoke();
+    final Object tickTimes5s = TICK_TIMES_5S_FIELD.get(server);
+    return (long[]) GET_TIMES.bindTo(tickTimes5s).invoke();
+  }
+
+  @Benchmark
+  public long[] paperTickTimesAfter() throws Throwable {
+    return (long[]) TIMES_5S_GETTER.invokeExact(this.server);
+  }
+
+  public static final class FakeServer {
+    static final FakeServer SERVER = new FakeServer();
+
+    private final long[] tickTimes = new long[100];
+    private final FakeTickTimes tickTimes5s = new FakeTickTimes();
+
+    public static FakeServer getServer() {
+      return SERVER;
+    }
+  }
+
+  public static final class FakeTickTimes {
+    private final long[] times = new long[100];
+
+    public long[] getTimes() {
+      return this.times.clone();
+    }
+  }
+
+  public static final class FakeServerPlayer {
+    private int latency = 42;
+  }
+
+  public static final class FakeCraftPlayer {
+    private final FakeServerPlayer handle = new FakeServerPlayer();
+
+    public FakeServerPlayer getHandle() {
+      return this.handle;
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.kyori.adventure.text.Component;
+import org.incendo.cloud.type.tuple.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import xyz.jpenilla.tabtps.common.config.Theme;
+import xyz.jpenilla.tabtps.common.util.TPSUtil;
+import xyz.jpenilla.tabtps.common.util.TickTimes;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TPSUtilBenchmark {
+  private List<Pair<String, TickTimes>> tickTimes;
+  private double tps;
+  private double mspt;
+
+  @Setup
+  public void setup(final TabTPSState state) {
+    this.tickTimes = Arrays.asList(
+      Pair.of("5s", filled(100)),
+      Pair.of("10s", filled(200)),
+      Pair.of("60s", filled(1200))
+    );
+    this.tps = 19.9734D;
+    this.mspt = 31.4159D;
+  }
+
+  private static TickTimes filled(final int length) {
+    final TickTimes tickTimes = new TickTimes(length);
+    for (int i = 0; i < length; i++) {
+      tickTimes.add(i, 20_000_000L + (i * 7919L) % 30_000_000L);
+    }
+    return tickTimes;
+  }
+
+  @Benchmark
+  public List<Component> formatTickTimes() {
+    return TPSUtil.formatTickTimes(this.tickTimes);
+  }
+
+  @Benchmark
+  public Component coloredTps() {
+    return TPSUtil.coloredTps(this.tps, Theme.DEFAULT.colorScheme());
+  }
+
+  @Benchmark
+  public Component coloredMspt() {
+    return TPSUtil.coloredMspt(this.mspt, Theme.DEFAULT.colorScheme());
+  }
+}
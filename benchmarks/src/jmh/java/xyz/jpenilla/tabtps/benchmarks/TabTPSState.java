@@ -0,0 +1,61 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.benchmarks;
+
+import java.io.IOException;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import xyz.jpenilla.tabtps.common.TabTPS;
+
+/**
+ * Shared {@link TabTPS} instance backed by a {@link BenchmarkPlatform}.
+ */
+@State(Scope.Benchmark)
+public class TabTPSState {
+  private BenchmarkPlatform platform;
+  private BenchmarkUser user;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    this.platform = new BenchmarkPlatform();
+    this.user = this.platform.createUser();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    this.platform.tabTPS().shutdown();
+  }
+
+  public @NonNull TabTPS tabTPS() {
+    return this.platform.tabTPS();
+  }
+
+  public @NonNull BenchmarkUser user() {
+    return this.user;
+  }
+}
@@ -32,6 +32,12 @@ dependencies {
   api(libs.adventureTextFeaturePagination)
   api(libs.minimessage)
   api(libs.slf4jApi)
+
+  testImplementation(libs.gson)
+  testImplementation(libs.guava)
+  testImplementation(platform(libs.junitBom))
+  testImplementation(libs.junitJupiter)
+  testRuntimeOnly(libs.junitPlatformLauncher)
 }
 
 sourceSets {
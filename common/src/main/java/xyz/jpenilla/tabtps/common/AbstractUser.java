@@ -29,8 +29,10 @@ import java.util.List;
 import java.util.UUID;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.framework.qual.DefaultQualifier;
+import xyz.jpenilla.tabtps.common.config.DisplayConfig;
 import xyz.jpenilla.tabtps.common.config.PluginSettings;
 import xyz.jpenilla.tabtps.common.display.DisplayHandler;
+import xyz.jpenilla.tabtps.common.display.DisplayMailbox;
 import xyz.jpenilla.tabtps.common.display.task.ActionBarDisplayTask;
 import xyz.jpenilla.tabtps.common.display.task.BossBarDisplayTask;
 import xyz.jpenilla.tabtps.common.display.task.TabDisplayTask;
@@ -66,29 +68,37 @@ public abstract class AbstractUser<P> implements User<P> {
     private final DisplayHandler<TabDisplayTask> tabDisplayHandler;
     private final DisplayHandler<ActionBarDisplayTask> actionBarDisplayHandler;
     private final DisplayHandler<BossBarDisplayTask> bossBarDisplayHandler;
+    private final transient TabTPS tabTPS;
+    private final transient DisplayMailbox mailbox = new DisplayMailbox();
     private transient boolean dirty = false;
 
     private StateImpl(
       final TabTPS tabTPS,
       final User<?> user
     ) {
-      final PluginSettings.UpdateRates rates = tabTPS.configManager().pluginSettings().updateRates();
+      this.tabTPS = tabTPS;
       this.tabDisplayHandler = new DisplayHandler<>(
         tabTPS,
         user,
-        rates.tab(),
+        PluginSettings.UpdateRates::tab,
+        PluginSettings.AdaptiveRefresh::maxTab,
+        DisplayConfig::tabSettings,
         config -> new TabDisplayTask(tabTPS, user, config.tabSettings())
       );
       this.actionBarDisplayHandler = new DisplayHandler<>(
         tabTPS,
         user,
-        rates.actionBar(),
+        PluginSettings.UpdateRates::actionBar,
+        PluginSettings.AdaptiveRefresh::maxActionBar,
+        DisplayConfig::actionBarSettings,
         config -> new ActionBarDisplayTask(tabTPS, user, config.actionBarSettings())
       );
       this.bossBarDisplayHandler = new DisplayHandler<>(
         tabTPS,
         user,
-        rates.bossBar(),
+        PluginSettings.UpdateRates::bossBar,
+        PluginSettings.AdaptiveRefresh::maxBossBar,
+        DisplayConfig::bossBarSettings,
         config -> new BossBarDisplayTask(tabTPS, user, config.bossBarSettings())
       );
     }
@@ -125,6 +135,20 @@ public abstract class AbstractUser<P> implements User<P> {
       ));
     }
 
+    @Override
+    public void updateDisplay(final Object slot, final Runnable update) {
+      if (this.tabTPS.batchDisplayUpdates()) {
+        this.mailbox.post(slot, update);
+      } else {
+        update.run();
+      }
+    }
+
+    @Override
+    public DisplayMailbox mailbox() {
+      return this.mailbox;
+    }
+
     @Override
     public void markDirty() {
       this.dirty = true;
@@ -25,42 +25,87 @@ package xyz.jpenilla.tabtps.common;
 
 import java.io.IOException;
 import java.util.Optional;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.stream.Stream;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import xyz.jpenilla.tabtps.common.command.Commands;
 import xyz.jpenilla.tabtps.common.command.TabTPSCommand;
 import xyz.jpenilla.tabtps.common.command.commands.AboutCommand;
 import xyz.jpenilla.tabtps.common.command.commands.HelpCommand;
 import xyz.jpenilla.tabtps.common.command.commands.MemoryCommand;
 import xyz.jpenilla.tabtps.common.command.commands.PingCommand;
+import xyz.jpenilla.tabtps.common.command.commands.ProfileCommand;
 import xyz.jpenilla.tabtps.common.command.commands.ReloadCommand;
+import xyz.jpenilla.tabtps.common.command.commands.SpikesCommand;
+import xyz.jpenilla.tabtps.common.command.commands.StatsCommand;
 import xyz.jpenilla.tabtps.common.command.commands.ToggleDisplayCommands;
 import xyz.jpenilla.tabtps.common.config.ConfigManager;
 import xyz.jpenilla.tabtps.common.config.DisplayConfig;
+import xyz.jpenilla.tabtps.common.config.PluginSettings;
+import xyz.jpenilla.tabtps.common.display.AdaptiveDisplayScheduler;
+import xyz.jpenilla.tabtps.common.display.BatchedDisplayScheduler;
+import xyz.jpenilla.tabtps.common.display.DisplayScheduler;
+import xyz.jpenilla.tabtps.common.display.PerUserDisplayScheduler;
+import xyz.jpenilla.tabtps.common.display.task.SharedBossBars;
+import xyz.jpenilla.tabtps.common.metrics.MetricsExporter;
+import xyz.jpenilla.tabtps.common.metrics.MetricsHistory;
+import xyz.jpenilla.tabtps.common.module.ModuleRenderCache;
 import xyz.jpenilla.tabtps.common.util.CPUMonitor;
+import xyz.jpenilla.tabtps.common.util.GCMonitor;
+import xyz.jpenilla.tabtps.common.util.InstrumentedExecutor;
+import xyz.jpenilla.tabtps.common.util.LagSpikeWatchdog;
+import xyz.jpenilla.tabtps.common.util.SamplingProfiler;
+import xyz.jpenilla.tabtps.common.util.TickRollups;
 
 public final class TabTPS {
+  private static final String EXECUTOR_NAME = "TabTPS-Worker";
+
   private final TabTPSPlatform<?, ?> platform;
   private final CPUMonitor cpuMonitor;
+  private final GCMonitor gcMonitor;
+  private final LagSpikeWatchdog lagSpikeWatchdog;
+  private final TickRollups tickRollups = new TickRollups();
+  private final SamplingProfiler profiler;
+  private final MetricsExporter metricsExporter;
+  private final @Nullable MetricsHistory history;
   private final ConfigManager configManager;
-  private final ScheduledExecutorService executor;
+  private final ModuleRenderCache moduleRenderCache;
+  private final SharedBossBars sharedBossBars = new SharedBossBars();
+  private final InstrumentedExecutor executor;
+  private volatile DisplayScheduler displayScheduler;
   private final Commands commands;
 
   public TabTPS(final @NonNull TabTPSPlatform<?, ?> platform) {
+    this(platform, null);
+  }
+
+  /**
+   * Create TabTPS, running background work on an executor supplied by the caller instead of
+   * one created from the configured executor backend. A supplied executor is not shut down
+   * with TabTPS.
+   *
+   * @param platform platform
+   * @param executor executor, or {@code null} to create one from the configuration
+   */
+  public TabTPS(final @NonNull TabTPSPlatform<?, ?> platform, final @Nullable ScheduledExecutorService executor) {
     this.platform = platform;
     try {
       Messages.load();
       this.configManager = new ConfigManager(platform.dataDirectory());
       this.configManager.load();
-      final ScheduledThreadPoolExecutor ex = new ScheduledThreadPoolExecutor(4);
-      ex.setRemoveOnCancelPolicy(true);
-      this.executor = Executors.unconfigurableScheduledExecutorService(ex);
+      this.moduleRenderCache = new ModuleRenderCache(this.configManager.pluginSettings().updateRates().fastest());
+      this.executor = this.createExecutor(executor);
+      this.displayScheduler = this.createDisplayScheduler();
       this.commands = new Commands(this, platform.commandManager());
       this.registerCommands();
-      this.cpuMonitor = new CPUMonitor();
+      this.cpuMonitor = new CPUMonitor(platform::serverThread, this.executor);
+      this.gcMonitor = new GCMonitor();
+      this.lagSpikeWatchdog = new LagSpikeWatchdog(platform::serverThread, this.configManager.pluginSettings().lagSpikes());
+      this.profiler = new SamplingProfiler(platform::serverThread);
+      this.metricsExporter = new MetricsExporter(this);
+      this.metricsExporter.configure(this.configManager.pluginSettings().metricsExporter());
+      this.history = this.openHistory();
     } catch (final IOException e) {
       this.platform.shutdown();
       this.shutdown();
@@ -72,22 +117,105 @@ public final class TabTPS {
     if (this.cpuMonitor != null) {
       this.cpuMonitor.shutdown();
     }
+    if (this.gcMonitor != null) {
+      this.gcMonitor.shutdown();
+    }
+    if (this.lagSpikeWatchdog != null) {
+      this.lagSpikeWatchdog.shutdown();
+    }
+    if (this.profiler != null) {
+      this.profiler.shutdown();
+    }
+    if (this.metricsExporter != null) {
+      this.metricsExporter.shutdown();
+    }
+    if (this.history != null) {
+      this.history.shutdown();
+    }
     if (this.executor != null) {
       this.executor.shutdown();
     }
-    this.platform.userService().flush();
+    this.platform.userService().shutdown();
   }
 
   public synchronized void reload() {
+    final PluginSettings previous = this.configManager.pluginSettings();
+    // The mode in effect when the reload starts applies to the whole reload, a change to it takes effect on the next one
+    final boolean incremental = previous.reload().incremental();
     try {
-      this.configManager().load();
+      if (incremental) {
+        this.configManager().loadChanged();
+      } else {
+        this.configManager().load();
+      }
     } catch (final IOException e) {
       throw new IllegalStateException("Failed to reload configs", e);
     }
-    this.platform.userService().reload();
+    final PluginSettings settings = this.configManager.pluginSettings();
+    this.moduleRenderCache.cycleLength(settings.updateRates().fastest());
+    if (incremental) {
+      // Unchanged themes keep their instances, so displays which are not restarted keep sharing renders with new ones
+      this.moduleRenderCache.retainThemes(this.configManager.themes());
+    } else {
+      this.moduleRenderCache.invalidate();
+    }
+    this.lagSpikeWatchdog.configure(settings.lagSpikes());
+    this.metricsExporter.configure(settings.metricsExporter());
+    if (incremental
+      && settings.displayScheduling() == previous.displayScheduling()
+      && settings.sharedBossBars() == previous.sharedBossBars()) {
+      this.platform.userService().reloadChanged(this.executor, settings.reload().restartsPerTick());
+    } else {
+      this.displayScheduler = this.createDisplayScheduler();
+      this.platform.userService().reload();
+    }
     this.platform().onReload();
   }
 
+  private @Nullable MetricsHistory openHistory() {
+    final PluginSettings.History settings = this.configManager.pluginSettings().history();
+    if (!settings.enabled()) {
+      return null;
+    }
+    try {
+      return MetricsHistory.open(this, this.platform.dataDirectory().resolve("history.dat"), settings.retentionHours());
+    } catch (final IOException ex) {
+      this.platform.logger().warn("Failed to open tick history file, history will not be recorded", ex);
+      return null;
+    }
+  }
+
+  private @NonNull InstrumentedExecutor createExecutor(final @Nullable ScheduledExecutorService provided) {
+    final PluginSettings.Executor settings = this.configManager.pluginSettings().executor();
+    if (provided != null) {
+      return InstrumentedExecutor.provided(EXECUTOR_NAME, provided, settings.threads());
+    }
+    if (settings.backend() == PluginSettings.Executor.Backend.VIRTUAL) {
+      final @Nullable InstrumentedExecutor virtual = InstrumentedExecutor.virtualThreads(EXECUTOR_NAME);
+      if (virtual != null) {
+        return virtual;
+      }
+      this.platform.logger().warn("Virtual threads require Java 21, using a pool of {} platform threads instead", settings.threads());
+    }
+    return InstrumentedExecutor.platformThreads(EXECUTOR_NAME, settings.threads());
+  }
+
+  private @NonNull DisplayScheduler createDisplayScheduler() {
+    final PluginSettings.DisplayScheduling mode = this.configManager.pluginSettings().displayScheduling();
+    if (mode == PluginSettings.DisplayScheduling.BATCHED) {
+      return new BatchedDisplayScheduler(this.executor, this.platform.logger(), this.executor.parallelism());
+    }
+    if (mode == PluginSettings.DisplayScheduling.ADAPTIVE) {
+      return new AdaptiveDisplayScheduler(
+        this.executor,
+        this.platform.logger(),
+        () -> this.platform.tickTimeService().averageMspt(),
+        () -> this.configManager.pluginSettings().adaptiveRefresh().overloadMspt()
+      );
+    }
+    return new PerUserDisplayScheduler(this.executor);
+  }
+
   private void registerCommands() {
     Stream.of(
       new HelpCommand(this, this.commands),
@@ -95,7 +223,10 @@ public final class TabTPS {
       new ToggleDisplayCommands(this, this.commands),
       new AboutCommand(this, this.commands),
       new PingCommand(this, this.commands),
-      new MemoryCommand(this, this.commands)
+      new MemoryCommand(this, this.commands),
+      new SpikesCommand(this, this.commands),
+      new StatsCommand(this, this.commands),
+      new ProfileCommand(this, this.commands)
     ).forEach(TabTPSCommand::register);
   }
 
@@ -107,23 +238,69 @@ public final class TabTPS {
     return this.configManager;
   }
 
+  public @NonNull ModuleRenderCache moduleRenderCache() {
+    return this.moduleRenderCache;
+  }
+
+  public @NonNull SharedBossBars sharedBossBars() {
+    return this.sharedBossBars;
+  }
+
+  /**
+   * Check whether display updates should be queued and sent at the end of the tick.
+   *
+   * @return whether display updates are batched
+   */
+  public boolean batchDisplayUpdates() {
+    return this.configManager.pluginSettings().batchDisplayUpdates() && this.platform.userService().batchesDisplayUpdates();
+  }
+
   public @NonNull Optional<DisplayConfig> findDisplayConfig(final @NonNull User<?> player) {
     for (final String permission : this.configManager.pluginSettings().permissionPriorities()) {
       if (player.hasPermission(permission) || permission.isEmpty()) {
-        return Optional.of(this.configManager.displayConfigsByPermission().get(permission));
+        return Optional.ofNullable(this.configManager.displayConfigsByPermission().get(permission));
       }
     }
     return Optional.empty();
   }
 
-  public @NonNull ScheduledExecutorService executor() {
+  public @NonNull InstrumentedExecutor executor() {
     return this.executor;
   }
 
+  public @NonNull DisplayScheduler displayScheduler() {
+    return this.displayScheduler;
+  }
+
   public @NonNull CPUMonitor cpuMonitor() {
     return this.cpuMonitor;
   }
 
+  public @NonNull GCMonitor gcMonitor() {
+    return this.gcMonitor;
+  }
+
+  public @NonNull LagSpikeWatchdog lagSpikeWatchdog() {
+    return this.lagSpikeWatchdog;
+  }
+
+  public @NonNull TickRollups tickRollups() {
+    return this.tickRollups;
+  }
+
+  /**
+   * Get the tick history store.
+   *
+   * @return history, or {@code null} if it is disabled or failed to open
+   */
+  public @Nullable MetricsHistory history() {
+    return this.history;
+  }
+
+  public @NonNull SamplingProfiler profiler() {
+    return this.profiler;
+  }
+
   public @NonNull Commands commands() {
     return this.commands;
   }
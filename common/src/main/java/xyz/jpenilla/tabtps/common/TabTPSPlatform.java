@@ -25,6 +25,7 @@ package xyz.jpenilla.tabtps.common;
 
 import java.nio.file.Path;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.incendo.cloud.CommandManager;
 import org.slf4j.Logger;
 import xyz.jpenilla.tabtps.common.command.Commander;
@@ -48,6 +49,13 @@ public interface TabTPSPlatform<P, U extends User<P>> {
 
   @NonNull Logger logger();
 
+  /**
+   * Get the thread running the server tick loop.
+   *
+   * @return server thread, or {@code null} if the server is not running
+   */
+  @Nullable Thread serverThread();
+
   @NonNull CommandManager<Commander> commandManager();
 
   default Throwable asComponentMessageThrowable(final Throwable thr) {
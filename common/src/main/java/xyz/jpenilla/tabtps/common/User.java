@@ -28,12 +28,15 @@ import java.util.List;
 import java.util.UUID;
 import net.kyori.adventure.text.Component;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.framework.qual.DefaultQualifier;
 import xyz.jpenilla.tabtps.common.command.Commander;
 import xyz.jpenilla.tabtps.common.display.DisplayHandler;
+import xyz.jpenilla.tabtps.common.display.DisplayMailbox;
 import xyz.jpenilla.tabtps.common.display.task.ActionBarDisplayTask;
 import xyz.jpenilla.tabtps.common.display.task.BossBarDisplayTask;
 import xyz.jpenilla.tabtps.common.display.task.TabDisplayTask;
+import xyz.jpenilla.tabtps.common.util.TickTimes;
 
 @DefaultQualifier(NonNull.class)
 public interface User<P> extends Commander {
@@ -47,6 +50,24 @@ public interface User<P> extends Commander {
 
   int ping();
 
+  /**
+   * Get the id of the world this user is in, matching the keys of {@link xyz.jpenilla.tabtps.common.service.TickTimeService#worldTickTimes()}.
+   *
+   * @return world id
+   */
+  String world();
+
+  /**
+   * Get the time spent ticking the world this user is in. Unlike looking the world up in
+   * {@link xyz.jpenilla.tabtps.common.service.TickTimeService#worldTickTimes()}, this does not
+   * iterate the server's worlds, so it is safe and cheap to call off the server thread.
+   *
+   * @return world tick times, or {@code null} when the platform cannot time worlds individually
+   */
+  default @Nullable TickTimes worldTickTimes() {
+    return null;
+  }
+
   P base();
 
   State state();
@@ -67,6 +88,17 @@ public interface User<P> extends Commander {
     return this.state().displays();
   }
 
+  /**
+   * Apply a display update now, or queue it in this user's {@link DisplayMailbox} when display
+   * updates are batched. A queued update replaces any update still pending for the same slot.
+   *
+   * @param slot   what the update changes, such as the action bar or a boss bar
+   * @param update update
+   */
+  default void updateDisplay(final Object slot, final Runnable update) {
+    this.state().updateDisplay(slot, update);
+  }
+
   default void markDirty() {
     this.state().markDirty();
   }
@@ -86,6 +118,10 @@ public interface User<P> extends Commander {
 
     List<DisplayHandler<?>> displays();
 
+    void updateDisplay(Object slot, Runnable update);
+
+    DisplayMailbox mailbox();
+
     void markDirty();
 
     boolean shouldSave();
@@ -70,6 +70,11 @@ public final class DelegateUser<U, C> implements User<U> {
     return this.user.ping();
   }
 
+  @Override
+  public @NonNull String world() {
+    return this.user.world();
+  }
+
   @Override
   public @NonNull U base() {
     return this.user.base();
@@ -0,0 +1,192 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.command.commands;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import net.kyori.adventure.text.Component;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.incendo.cloud.component.DefaultValue;
+import org.incendo.cloud.context.CommandContext;
+import org.incendo.cloud.type.tuple.Pair;
+import xyz.jpenilla.tabtps.common.Messages;
+import xyz.jpenilla.tabtps.common.TabTPS;
+import xyz.jpenilla.tabtps.common.User;
+import xyz.jpenilla.tabtps.common.command.Commander;
+import xyz.jpenilla.tabtps.common.command.Commands;
+import xyz.jpenilla.tabtps.common.command.TabTPSCommand;
+import xyz.jpenilla.tabtps.common.util.Components;
+import xyz.jpenilla.tabtps.common.util.Constants;
+import xyz.jpenilla.tabtps.common.util.SamplingProfiler;
+import xyz.jpenilla.tabtps.common.util.StackTrie;
+
+import static net.kyori.adventure.text.Component.empty;
+import static net.kyori.adventure.text.Component.space;
+import static net.kyori.adventure.text.Component.text;
+import static net.kyori.adventure.text.format.NamedTextColor.GRAY;
+import static net.kyori.adventure.text.format.NamedTextColor.GREEN;
+import static net.kyori.adventure.text.format.NamedTextColor.RED;
+import static net.kyori.adventure.text.format.NamedTextColor.WHITE;
+import static net.kyori.adventure.text.format.TextDecoration.ITALIC;
+import static org.incendo.cloud.minecraft.extras.RichDescription.richDescription;
+import static org.incendo.cloud.parser.standard.IntegerParser.integerParser;
+
+public final class ProfileCommand extends TabTPSCommand {
+  private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH.mm.ss");
+  private static final int TOP_METHODS = 10;
+
+  // Keyed so a player who both starts and stops a profile only receives the results once
+  private final Map<Object, Commander> recipients = new LinkedHashMap<>();
+
+  public ProfileCommand(final @NonNull TabTPS tabTPS, final @NonNull Commands commands) {
+    super(tabTPS, commands);
+  }
+
+  @Override
+  public void register() {
+    this.commands.registerSubcommand(builder -> builder.literal("profile")
+      .literal("start")
+      .optional("interval", integerParser(1, 100), DefaultValue.constant(5), richDescription(Messages.COMMAND_PROFILE_ARGUMENTS_INTERVAL))
+      .optional("duration", integerParser(1, 3600), DefaultValue.constant(30), richDescription(Messages.COMMAND_PROFILE_ARGUMENTS_DURATION))
+      .permission(Constants.PERMISSION_COMMAND_PROFILE)
+      .commandDescription(richDescription(Messages.COMMAND_PROFILE_START_DESCRIPTION.plain()))
+      .handler(this::executeStart));
+    this.commands.registerSubcommand(builder -> builder.literal("profile")
+      .literal("stop")
+      .permission(Constants.PERMISSION_COMMAND_PROFILE)
+      .commandDescription(richDescription(Messages.COMMAND_PROFILE_STOP_DESCRIPTION.plain()))
+      .handler(this::executeStop));
+  }
+
+  private void executeStart(final @NonNull CommandContext<Commander> ctx) {
+    final int interval = ctx.get("interval");
+    final int duration = ctx.get("duration");
+    final SamplingProfiler profiler = this.tabTPS.profiler();
+    final CompletableFuture<SamplingProfiler.Profile> future;
+    synchronized (this.recipients) {
+      if (profiler.running()) {
+        ctx.sender().sendMessage(prefixed(Messages.COMMAND_PROFILE_TEXT_ALREADY_RUNNING.styled(RED)));
+        return;
+      }
+      try {
+        future = profiler.start(interval, duration);
+      } catch (final IllegalStateException ex) {
+        ctx.sender().sendMessage(prefixed(Messages.COMMAND_PROFILE_TEXT_UNAVAILABLE.styled(RED)));
+        return;
+      }
+      this.recipients.clear();
+      this.addRecipient(ctx.sender());
+    }
+    ctx.sender().sendMessage(prefixed(Messages.COMMAND_PROFILE_TEXT_STARTED.styled(GREEN, text(interval), text(duration))));
+    future.whenComplete(this::completed);
+  }
+
+  private void executeStop(final @NonNull CommandContext<Commander> ctx) {
+    synchronized (this.recipients) {
+      final @Nullable CompletableFuture<SamplingProfiler.Profile> future = this.tabTPS.profiler().stop();
+      if (future == null) {
+        ctx.sender().sendMessage(prefixed(Messages.COMMAND_PROFILE_TEXT_NOT_RUNNING.styled(RED)));
+        return;
+      }
+      this.addRecipient(ctx.sender());
+    }
+    ctx.sender().sendMessage(prefixed(Messages.COMMAND_PROFILE_TEXT_STOPPING.styled(GRAY, ITALIC)));
+  }
+
+  private void addRecipient(final @NonNull Commander commander) {
+    final Object key = commander instanceof User ? ((User<?>) commander).uuid() : commander.getClass();
+    this.recipients.put(key, commander);
+  }
+
+  private void completed(final SamplingProfiler.@Nullable Profile profile, final @Nullable Throwable thr) {
+    final List<Commander> recipients;
+    synchronized (this.recipients) {
+      recipients = new ArrayList<>(this.recipients.values());
+      this.recipients.clear();
+    }
+    if (profile == null) {
+      this.tabTPS.platform().logger().warn("Profiling the server thread failed", thr);
+      recipients.forEach(recipient -> recipient.sendMessage(prefixed(Messages.COMMAND_PROFILE_TEXT_FAILED.styled(RED))));
+      return;
+    }
+    final List<Component> messages = this.summary(profile);
+    recipients.forEach(recipient -> messages.forEach(recipient::sendMessage));
+    // Writing the stacks can take a while for long profiles, keep it off the profiler thread
+    this.tabTPS.executor().execute(() -> {
+      final Component result = this.save(profile.samples());
+      recipients.forEach(recipient -> recipient.sendMessage(result));
+    });
+  }
+
+  private @NonNull List<Component> summary(final SamplingProfiler.@NonNull Profile profile) {
+    final StackTrie samples = profile.samples();
+    final List<Component> messages = new ArrayList<>();
+    messages.add(empty());
+    messages.add(prefixed(Messages.COMMAND_PROFILE_TEXT_HEADER.styled(
+      GRAY,
+      ITALIC,
+      text(samples.samples()),
+      text(TimeUnit.NANOSECONDS.toSeconds(profile.durationNanos()))
+    )));
+    for (final Pair<String, Integer> frame : samples.topSelfFrames(TOP_METHODS)) {
+      messages.add(Components.ofChildren(
+        text(" " + Math.round(frame.second() * 100.0D / samples.samples()) + "%", GRAY),
+        space(),
+        text(frame.first(), WHITE)
+      ));
+    }
+    return messages;
+  }
+
+  private @NonNull Component save(final @NonNull StackTrie samples) {
+    final Path directory = this.tabTPS.platform().dataDirectory().resolve("profiles");
+    final Path file = directory.resolve("profile-" + FILE_NAME_FORMAT.format(LocalDateTime.now()) + ".folded");
+    try {
+      Files.createDirectories(directory);
+      try (final Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+        samples.writeCollapsed(writer);
+      }
+    } catch (final IOException ex) {
+      this.tabTPS.platform().logger().warn("Failed to write collapsed stacks to {}", file, ex);
+      return prefixed(Messages.COMMAND_PROFILE_TEXT_SAVE_FAILED.styled(RED));
+    }
+    return prefixed(Messages.COMMAND_PROFILE_TEXT_SAVED.styled(GRAY, text(file.toString(), WHITE)));
+  }
+
+  private static @NonNull Component prefixed(final @NonNull Component message) {
+    return Components.ofChildren(Constants.PREFIX, space(), message);
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.command.commands;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.incendo.cloud.context.CommandContext;
+import org.incendo.cloud.type.tuple.Pair;
+import xyz.jpenilla.tabtps.common.Messages;
+import xyz.jpenilla.tabtps.common.TabTPS;
+import xyz.jpenilla.tabtps.common.command.Commander;
+import xyz.jpenilla.tabtps.common.command.Commands;
+import xyz.jpenilla.tabtps.common.command.TabTPSCommand;
+import xyz.jpenilla.tabtps.common.config.Theme;
+import xyz.jpenilla.tabtps.common.util.Components;
+import xyz.jpenilla.tabtps.common.util.Constants;
+import xyz.jpenilla.tabtps.common.util.LagSpikeWatchdog;
+import xyz.jpenilla.tabtps.common.util.StackTrie;
+import xyz.jpenilla.tabtps.common.util.TPSUtil;
+
+import static net.kyori.adventure.text.Component.empty;
+import static net.kyori.adventure.text.Component.newline;
+import static net.kyori.adventure.text.Component.space;
+import static net.kyori.adventure.text.Component.text;
+import static net.kyori.adventure.text.format.NamedTextColor.GRAY;
+import static net.kyori.adventure.text.format.NamedTextColor.WHITE;
+import static net.kyori.adventure.text.format.TextDecoration.ITALIC;
+import static org.incendo.cloud.minecraft.extras.RichDescription.richDescription;
+
+public final class SpikesCommand extends TabTPSCommand {
+  private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+  private static final int HOVER_FRAMES = 20;
+
+  public SpikesCommand(final @NonNull TabTPS tabTPS, final @NonNull Commands commands) {
+    super(tabTPS, commands);
+  }
+
+  @Override
+  public void register() {
+    this.commands.registerSubcommand(builder -> builder.literal("spikes")
+      .permission(Constants.PERMISSION_COMMAND_SPIKES)
+      .commandDescription(richDescription(Messages.COMMAND_SPIKES_DESCRIPTION.plain()))
+      .handler(this::executeSpikes));
+  }
+
+  private void executeSpikes(final @NonNull CommandContext<Commander> ctx) {
+    final List<Component> messages = new ArrayList<>();
+    messages.add(empty());
+    messages.add(Components.ofChildren(
+      Constants.PREFIX,
+      space(),
+      Messages.COMMAND_SPIKES_TEXT_HEADER.styled(GRAY, ITALIC)
+    ));
+    final List<LagSpikeWatchdog.Report> reports = this.tabTPS.lagSpikeWatchdog().reports();
+    if (reports.isEmpty()) {
+      messages.add(Messages.COMMAND_SPIKES_TEXT_NONE.styled(GRAY, ITALIC));
+    }
+    for (final LagSpikeWatchdog.Report report : reports) {
+      messages.addAll(this.formatReport(report));
+    }
+    messages.forEach(ctx.sender()::sendMessage);
+  }
+
+  private @NonNull List<Component> formatReport(final LagSpikeWatchdog.@NonNull Report report) {
+    final StackTrie samples = report.samples();
+    final Component header = Components.ofChildren(
+      text("#" + report.id(), WHITE),
+      text(" - ", GRAY),
+      text(TIME_FORMAT.format(Instant.ofEpochMilli(report.timestamp())), GRAY),
+      text(" - ", GRAY),
+      TPSUtil.coloredMspt(TPSUtil.toMilliseconds(report.durationNanos()), Theme.DEFAULT.colorScheme()),
+      Messages.LABEL_MILLISECONDS_SHORT.styled(GRAY),
+      space(),
+      text("(", GRAY, ITALIC),
+      Messages.COMMAND_SPIKES_TEXT_SAMPLES.styled(GRAY, ITALIC, text(samples.samples())),
+      text(")", GRAY, ITALIC)
+    ).hoverEvent(this.stackHover(samples));
+
+    final List<Pair<String, Integer>> top = samples.topSelfFrames(1);
+    if (top.isEmpty()) {
+      return Collections.singletonList(header);
+    }
+    final Pair<String, Integer> frame = top.get(0);
+    final List<Component> lines = new ArrayList<>();
+    lines.add(header);
+    lines.add(Components.ofChildren(
+      space(),
+      text("└─", WHITE),
+      space(),
+      Messages.COMMAND_SPIKES_TEXT_MOST_SAMPLED.styled(GRAY, text(frame.first(), WHITE)),
+      space(),
+      text(percent(frame.second(), samples.samples()), GRAY)
+    ));
+    return lines;
+  }
+
+  private @NonNull Component stackHover(final @NonNull StackTrie samples) {
+    final List<Pair<String, Integer>> path = samples.hottestPath();
+    final TextComponent.Builder hover = text()
+      .append(Messages.COMMAND_SPIKES_TEXT_STACK_HOVER.styled(GRAY, ITALIC));
+    for (int i = Math.max(0, path.size() - HOVER_FRAMES); i < path.size(); i++) {
+      final Pair<String, Integer> frame = path.get(i);
+      hover.append(newline())
+        .append(text(percent(frame.second(), samples.samples()), GRAY))
+        .append(space())
+        .append(text(frame.first(), WHITE));
+    }
+    return hover.build();
+  }
+
+  private static @NonNull String percent(final int part, final int total) {
+    return Math.round(part * 100.0D / total) + "%";
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.command.commands;
+
+import java.util.ArrayList;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.function.Function;
+import net.kyori.adventure.text.Component;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.incendo.cloud.context.CommandContext;
+import xyz.jpenilla.tabtps.common.Messages;
+import xyz.jpenilla.tabtps.common.TabTPS;
+import xyz.jpenilla.tabtps.common.User;
+import xyz.jpenilla.tabtps.common.command.Commander;
+import xyz.jpenilla.tabtps.common.command.Commands;
+import xyz.jpenilla.tabtps.common.command.TabTPSCommand;
+import xyz.jpenilla.tabtps.common.config.PluginSettings;
+import xyz.jpenilla.tabtps.common.config.Theme;
+import xyz.jpenilla.tabtps.common.display.DisplayHandler;
+import xyz.jpenilla.tabtps.common.util.Components;
+import xyz.jpenilla.tabtps.common.util.Constants;
+import xyz.jpenilla.tabtps.common.util.FixedPointFormat;
+import xyz.jpenilla.tabtps.common.util.InstrumentedExecutor;
+import xyz.jpenilla.tabtps.common.util.TPSUtil;
+import xyz.jpenilla.tabtps.common.util.TranslatableProvider;
+
+import static net.kyori.adventure.text.Component.empty;
+import static net.kyori.adventure.text.Component.space;
+import static net.kyori.adventure.text.Component.text;
+import static net.kyori.adventure.text.format.NamedTextColor.GRAY;
+import static net.kyori.adventure.text.format.NamedTextColor.WHITE;
+import static net.kyori.adventure.text.format.TextDecoration.ITALIC;
+import static org.incendo.cloud.minecraft.extras.RichDescription.richDescription;
+
+public final class StatsCommand extends TabTPSCommand {
+  public StatsCommand(final @NonNull TabTPS tabTPS, final @NonNull Commands commands) {
+    super(tabTPS, commands);
+  }
+
+  @Override
+  public void register() {
+    this.commands.registerSubcommand(builder -> builder.literal("stats")
+      .permission(Constants.PERMISSION_COMMAND_STATS)
+      .commandDescription(richDescription(Messages.COMMAND_STATS_DESCRIPTION.plain()))
+      .handler(this::executeStats));
+  }
+
+  private void executeStats(final @NonNull CommandContext<Commander> ctx) {
+    final PluginSettings settings = this.tabTPS.configManager().pluginSettings();
+    final List<Component> messages = new ArrayList<>();
+    messages.add(empty());
+    messages.add(Components.ofChildren(
+      Constants.PREFIX,
+      space(),
+      Messages.COMMAND_STATS_TEXT_HEADER.styled(GRAY, ITALIC)
+    ));
+    messages.add(Messages.COMMAND_STATS_TEXT_SCHEDULING.styled(GRAY, text(settings.displayScheduling().name(), WHITE)));
+    if (settings.displayScheduling() == PluginSettings.DisplayScheduling.ADAPTIVE) {
+      final Theme.Colors colors = Theme.DEFAULT.colorScheme();
+      messages.add(Messages.COMMAND_STATS_TEXT_OVERLOAD.styled(
+        GRAY,
+        TPSUtil.coloredMspt(settings.adaptiveRefresh().overloadMspt(), colors),
+        TPSUtil.coloredMspt(this.tabTPS.platform().tickTimeService().averageMspt(), colors)
+      ));
+    }
+    messages.add(this.displayStats(Messages.COMMAND_STATS_TEXT_TAB, User::tab));
+    messages.add(this.displayStats(Messages.COMMAND_STATS_TEXT_ACTIONBAR, User::actionBar));
+    messages.add(this.displayStats(Messages.COMMAND_STATS_TEXT_BOSSBAR, User::bossBar));
+    if (settings.sharedBossBars()) {
+      messages.add(Messages.COMMAND_STATS_TEXT_SHARED_BOSSBARS.styled(GRAY, text(this.tabTPS.sharedBossBars().size(), WHITE)));
+    }
+    messages.addAll(this.executorStats());
+    messages.forEach(ctx.sender()::sendMessage);
+  }
+
+  private @NonNull List<Component> executorStats() {
+    final InstrumentedExecutor executor = this.tabTPS.executor();
+    final long finished = executor.completedTasks() + executor.failedTasks();
+    final int queued = executor.queuedTasks();
+    final Component hover = Messages.COMMAND_STATS_TEXT_EXECUTOR_HOVER.styled(GRAY);
+    final List<Component> lines = new ArrayList<>();
+    lines.add(Messages.COMMAND_STATS_TEXT_EXECUTOR.styled(
+      GRAY,
+      text(executor.name(), WHITE),
+      text(executor.backend(), WHITE),
+      text(executor.parallelism(), WHITE)
+    ).hoverEvent(hover));
+    lines.add(Messages.COMMAND_STATS_TEXT_EXECUTOR_TASKS.styled(
+      GRAY,
+      text(executor.activeTasks(), WHITE),
+      text(queued >= 0 ? String.valueOf(queued) : "?", WHITE),
+      text(finished, WHITE)
+    ).hoverEvent(hover));
+    if (finished > 0) {
+      lines.add(Messages.COMMAND_STATS_TEXT_EXECUTOR_TIMING.styled(
+        GRAY,
+        text(FixedPointFormat.TWO_DECIMALS.format(TPSUtil.toMilliseconds(executor.totalLatencyNanos() / finished)).toString(), WHITE),
+        text(FixedPointFormat.TWO_DECIMALS.format(TPSUtil.toMilliseconds(executor.totalRunNanos() / finished)).toString(), WHITE)
+      ).hoverEvent(hover));
+    }
+    return lines;
+  }
+
+  private @NonNull Component displayStats(
+    final @NonNull TranslatableProvider label,
+    final @NonNull Function<User<?>, DisplayHandler<?>> handler
+  ) {
+    final IntSummaryStatistics intervals = new IntSummaryStatistics();
+    double updatesPerSecond = 0.0D;
+    for (final User<?> user : this.tabTPS.platform().userService().onlineUsers()) {
+      final OptionalInt interval = handler.apply(user).effectiveUpdateRate();
+      if (interval.isPresent()) {
+        intervals.accept(interval.getAsInt());
+        updatesPerSecond += 1000.0D / Math.max(1, interval.getAsInt());
+      }
+    }
+    final Component name = Components.ofChildren(label.styled(WHITE), text(": ", GRAY));
+    if (intervals.getCount() == 0) {
+      return Components.ofChildren(name, Messages.COMMAND_STATS_TEXT_NONE.styled(GRAY, ITALIC));
+    }
+    return Components.ofChildren(
+      name,
+      Messages.COMMAND_STATS_TEXT_DISPLAYS.styled(
+        GRAY,
+        text(intervals.getCount(), WHITE),
+        text(Math.round(intervals.getAverage()), WHITE),
+        text(FixedPointFormat.ONE_DECIMAL.format(updatesPerSecond).toString(), WHITE)
+      )
+    ).hoverEvent(Messages.COMMAND_STATS_TEXT_INTERVAL_HOVER.styled(
+      GRAY,
+      text(intervals.getMin(), WHITE),
+      text(intervals.getMax(), WHITE)
+    ));
+  }
+}
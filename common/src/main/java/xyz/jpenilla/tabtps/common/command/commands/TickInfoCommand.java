@@ -24,6 +24,7 @@
 package xyz.jpenilla.tabtps.common.command.commands;
 
 import java.lang.management.ManagementFactory;
+import java.time.Duration;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -31,10 +32,14 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.ComponentLike;
 import net.kyori.adventure.text.TextComponent;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.incendo.cloud.Command;
 import org.incendo.cloud.context.CommandContext;
 import xyz.jpenilla.tabtps.common.Messages;
 import xyz.jpenilla.tabtps.common.TabTPS;
@@ -42,13 +47,17 @@ import xyz.jpenilla.tabtps.common.command.Commander;
 import xyz.jpenilla.tabtps.common.command.Commands;
 import xyz.jpenilla.tabtps.common.command.TabTPSCommand;
 import xyz.jpenilla.tabtps.common.config.Theme;
+import xyz.jpenilla.tabtps.common.metrics.MetricsHistory;
 import xyz.jpenilla.tabtps.common.module.MemoryModule;
 import xyz.jpenilla.tabtps.common.module.Module;
 import xyz.jpenilla.tabtps.common.module.ModuleRenderer;
 import xyz.jpenilla.tabtps.common.util.Components;
 import xyz.jpenilla.tabtps.common.util.Constants;
+import xyz.jpenilla.tabtps.common.util.FixedPointFormat;
+import xyz.jpenilla.tabtps.common.util.GCMonitor;
 import xyz.jpenilla.tabtps.common.util.MemoryUtil;
 import xyz.jpenilla.tabtps.common.util.TPSUtil;
+import xyz.jpenilla.tabtps.common.util.TickRollups;
 
 import static net.kyori.adventure.text.Component.empty;
 import static net.kyori.adventure.text.Component.newline;
@@ -58,6 +67,7 @@ import static net.kyori.adventure.text.format.NamedTextColor.GRAY;
 import static net.kyori.adventure.text.format.NamedTextColor.WHITE;
 import static net.kyori.adventure.text.format.TextDecoration.ITALIC;
 import static org.incendo.cloud.minecraft.extras.RichDescription.richDescription;
+import static org.incendo.cloud.parser.standard.DurationParser.durationParser;
 
 public final class TickInfoCommand extends TabTPSCommand {
   private static final Function<Module, Component> MODULE_RENDERER = ModuleRenderer.standardRenderFunction(Theme.DEFAULT);
@@ -75,10 +85,19 @@ public final class TickInfoCommand extends TabTPSCommand {
 
   @Override
   public void register() {
-    this.commands.register(this.commandManager.commandBuilder("tickinfo", "mspt", "tps")
-      .permission(Constants.PERMISSION_COMMAND_TICKINFO)
+    final Command.Builder<Commander> tickInfo = this.commandManager.commandBuilder("tickinfo", "mspt", "tps")
+      .permission(Constants.PERMISSION_COMMAND_TICKINFO);
+    this.commands.register(tickInfo
       .commandDescription(richDescription(Messages.COMMAND_TICKINFO_DESCRIPTION.plain()))
       .handler(this::executeTickInfo));
+    this.commands.register(tickInfo.literal("gc")
+      .commandDescription(richDescription(Messages.COMMAND_TICKINFO_GC_DESCRIPTION.plain()))
+      .handler(this::executeGC));
+    this.commands.register(tickInfo.literal("history")
+      .required("duration", durationParser(), richDescription(Messages.COMMAND_TICKINFO_HISTORY_ARGUMENTS_DURATION))
+      .optional("ago", durationParser(), richDescription(Messages.COMMAND_TICKINFO_HISTORY_ARGUMENTS_AGO))
+      .commandDescription(richDescription(Messages.COMMAND_TICKINFO_HISTORY_DESCRIPTION.plain()))
+      .handler(this::executeHistory));
   }
 
   public static @NonNull TickInfoCommand defaultFormatter(final @NonNull TabTPS tabTPS, final @NonNull Commands commands) {
@@ -99,14 +118,296 @@ public final class TickInfoCommand extends TabTPSCommand {
     ));
     messages.add(this.formatTPS());
     messages.addAll(this.formatter.formatTickTimes());
+    messages.addAll(TPSUtil.formatWorldTickTimes(this.tabTPS.platform().tickTimeService().worldTickTimes()));
     messages.add(this.cpuRenderer.render().hoverEvent(
       Messages.COMMAND_TICKINFO_TEXT_CPU_HOVER.styled(GRAY)
     ));
+    final double serverThreadCpu = this.tabTPS.cpuMonitor().recentServerThreadCpuLoadSnapshot();
+    if (!Double.isNaN(serverThreadCpu)) {
+      messages.add(this.renderThreads(serverThreadCpu, this.tabTPS.cpuMonitor().recentWorkerThreadsCpuLoadSnapshot()));
+    }
     messages.add(this.renderMemory());
     messages.add(MemoryUtil.renderBar(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage(), 91));
     messages.forEach(ctx.sender()::sendMessage);
   }
 
+  private void executeGC(final @NonNull CommandContext<Commander> ctx) {
+    final GCMonitor.Statistics statistics = this.tabTPS.gcMonitor().statistics();
+    final Theme.Colors colors = Theme.DEFAULT.colorScheme();
+    final List<Component> messages = new ArrayList<>();
+    messages.add(empty());
+    messages.add(Components.ofChildren(
+      Constants.PREFIX,
+      space(),
+      Messages.COMMAND_TICKINFO_TEXT_GC_HEADER.styled(GRAY, ITALIC)
+    ));
+    messages.add(text()
+      .hoverEvent(Messages.COMMAND_TICKINFO_TEXT_GC_PAUSES_HOVER.styled(GRAY))
+      .append(Messages.LABEL_GC_PAUSES.styled(GRAY))
+      .append(text(":", WHITE))
+      .append(space())
+      .append(TPSUtil.coloredGcPerMinute(statistics.pauseMillisPerMinute(), colors))
+      .append(Messages.LABEL_MILLISECONDS_SHORT.styled(GRAY))
+      .append(space())
+      .append(text("(", GRAY, ITALIC))
+      .append(Messages.LABEL_GC_PER_MINUTE_SHORT.styled(GRAY, ITALIC))
+      .append(text(")", GRAY, ITALIC))
+      .append(text(",", WHITE))
+      .append(space())
+      .append(TPSUtil.coloredGcPause(statistics.lastPauseMillis(), colors))
+      .append(Messages.LABEL_MILLISECONDS_SHORT.styled(GRAY))
+      .append(space())
+      .append(text("(", GRAY, ITALIC))
+      .append(Messages.LABEL_GC_LAST_SHORT.styled(GRAY, ITALIC))
+      .append(text(")", GRAY, ITALIC))
+      .build());
+    messages.add(text()
+      .hoverEvent(Messages.COMMAND_TICKINFO_TEXT_ALLOCATION_RATE_HOVER.styled(GRAY))
+      .append(Messages.LABEL_ALLOCATION_RATE.styled(GRAY))
+      .append(text(":", WHITE))
+      .append(space())
+      .append(MemoryUtil.humanReadableByteCountBin((long) statistics.allocationRate()))
+      .append(text("/s", GRAY))
+      .build());
+    messages.add(text()
+      .color(GRAY)
+      .append(
+        Messages.LABEL_COLLECTOR,
+        text(" - ", WHITE),
+        Messages.LABEL_COLLECTIONS,
+        text(", ", WHITE),
+        Messages.LABEL_TIME,
+        text(", ", WHITE),
+        Messages.LABEL_RECLAIMED
+      )
+      .hoverEvent(Messages.COMMAND_TICKINFO_TEXT_COLLECTORS_HOVER.styled(GRAY))
+      .build());
+    final Iterator<GCMonitor.CollectorStatistics> collectors = this.tabTPS.gcMonitor().collectors().iterator();
+    while (collectors.hasNext()) {
+      final GCMonitor.CollectorStatistics collector = collectors.next();
+      messages.add(Components.ofChildren(
+        space(),
+        text(collectors.hasNext() ? "├─" : "└─", WHITE),
+        space(),
+        text(collector.name(), GRAY),
+        text(" - ", WHITE),
+        Components.gradient(FixedPointFormat.INTEGER.format(collector.count()), colors.goodPerformance(), colors.goodPerformanceSecondary()),
+        text(", ", WHITE),
+        Components.gradient(FixedPointFormat.INTEGER.format(collector.timeMillis()), colors.goodPerformance(), colors.goodPerformanceSecondary()),
+        Messages.LABEL_MILLISECONDS_SHORT.styled(GRAY),
+        text(", ", WHITE),
+        MemoryUtil.humanReadableByteCountBin(collector.reclaimedBytes())
+      ));
+    }
+    messages.forEach(ctx.sender()::sendMessage);
+  }
+
+  private void executeHistory(final @NonNull CommandContext<Commander> ctx) {
+    final Duration duration = ctx.get("duration");
+    final Duration ago = ctx.getOrDefault("ago", Duration.ZERO);
+    final long toSecond = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) - ago.getSeconds() + 1;
+    final long fromSecond = toSecond - duration.getSeconds();
+    final @Nullable MetricsHistory history = this.tabTPS.history();
+    // Long windows scan many records, keep that off the server thread
+    this.tabTPS.executor().execute(() -> {
+      final MetricsHistory.@Nullable Summary summary = history == null ? null : history.summarize(fromSecond, toSecond);
+      final TickRollups.Statistics ticks = this.tabTPS.tickRollups().query(fromSecond, toSecond);
+      formatHistory(duration, ago, fromSecond, toSecond, summary, ticks).forEach(ctx.sender()::sendMessage);
+    });
+  }
+
+  private static @NonNull List<Component> formatHistory(
+    final @NonNull Duration duration,
+    final @NonNull Duration ago,
+    final long fromSecond,
+    final long toSecond,
+    final MetricsHistory.@Nullable Summary summary,
+    final TickRollups.@NonNull Statistics ticks
+  ) {
+    final Theme.Colors colors = Theme.DEFAULT.colorScheme();
+    final List<Component> messages = new ArrayList<>();
+    messages.add(empty());
+    messages.add(Components.ofChildren(
+      Constants.PREFIX,
+      space(),
+      ago.isZero()
+        ? Messages.COMMAND_TICKINFO_TEXT_HISTORY_HEADER.styled(GRAY, ITALIC, text(formatDuration(duration)))
+        : Messages.COMMAND_TICKINFO_TEXT_HISTORY_HEADER_AGO.styled(GRAY, ITALIC, text(formatDuration(duration)), text(formatDuration(ago)))
+    ));
+    final boolean hasRecords = summary != null && summary.records() > 0;
+    // Rollups are only kept since this process started, so they may miss the start of the window
+    final boolean ticksCoverWindow = ticks.covers(fromSecond, toSecond);
+    if (!hasRecords && ticks.count() == 0) {
+      messages.add(summary == null
+        ? Messages.COMMAND_TICKINFO_TEXT_HISTORY_DISABLED.styled(GRAY, ITALIC)
+        : Messages.COMMAND_TICKINFO_TEXT_HISTORY_EMPTY.styled(GRAY, ITALIC));
+      return messages;
+    }
+    messages.add(text()
+      .color(GRAY)
+      .append(
+        Messages.LABEL_METRIC,
+        text(" - ", WHITE),
+        Messages.LABEL_AVERAGE,
+        text(", ", WHITE),
+        Messages.LABEL_MINIMUM,
+        text(", ", WHITE),
+        Messages.LABEL_MAXIMUM
+      )
+      .hoverEvent(Messages.COMMAND_TICKINFO_TEXT_HISTORY_HOVER.styled(GRAY))
+      .build());
+    final List<Component> rows = new ArrayList<>();
+    if (hasRecords) {
+      final MetricsHistory.Statistic tps = summary.tps();
+      rows.add(historyRow(
+        Messages.LABEL_TPS,
+        TPSUtil.coloredTps(tps.average(), colors),
+        TPSUtil.coloredTps(tps.min(), colors),
+        TPSUtil.coloredTps(tps.max(), colors)
+      ));
+    }
+    if (ticksCoverWindow || (ticks.count() > 0 && !hasRecords)) {
+      // Per-tick rollups are exact where history records only hold 5 second windows
+      rows.add(historyRow(
+        Messages.LABEL_MSPT,
+        TPSUtil.coloredMspt(ticks.average(), colors),
+        TPSUtil.coloredMspt(ticks.min(), colors),
+        TPSUtil.coloredMspt(ticks.max(), colors)
+      ));
+    } else if (hasRecords) {
+      final MetricsHistory.Statistic mspt = summary.mspt();
+      rows.add(historyRow(
+        Messages.LABEL_MSPT,
+        TPSUtil.coloredMspt(mspt.average(), colors),
+        TPSUtil.coloredMspt(mspt.min(), colors),
+        TPSUtil.coloredMspt(mspt.max(), colors)
+      ));
+    }
+    if (hasRecords) {
+      final MetricsHistory.Statistic cpu = summary.cpu();
+      rows.add(historyRow(
+        Messages.LABEL_CPU,
+        historyPercent(cpu.average(), colors),
+        historyPercent(cpu.min(), colors),
+        historyPercent(cpu.max(), colors)
+      ));
+      final MetricsHistory.Statistic heap = summary.heapUsed();
+      rows.add(historyRow(
+        Messages.LABEL_MEMORY,
+        MemoryUtil.humanReadableByteCountBin((long) heap.average()),
+        MemoryUtil.humanReadableByteCountBin((long) heap.min()),
+        MemoryUtil.humanReadableByteCountBin((long) heap.max())
+      ));
+      final MetricsHistory.Statistic players = summary.players();
+      rows.add(historyRow(
+        Messages.LABEL_PLAYER_COUNT,
+        Components.gradient(FixedPointFormat.COMPACT.format(Math.round(players.average() * 10.0D) / 10.0D), colors.goodPerformance(), colors.goodPerformanceSecondary()),
+        Components.gradient(FixedPointFormat.INTEGER.format((int) players.min()), colors.goodPerformance(), colors.goodPerformanceSecondary()),
+        Components.gradient(FixedPointFormat.INTEGER.format((int) players.max()), colors.goodPerformance(), colors.goodPerformanceSecondary())
+      ));
+    }
+    for (int i = 0; i < rows.size(); i++) {
+      messages.add(Components.ofChildren(
+        space(),
+        text(i == rows.size() - 1 ? "└─" : "├─", WHITE),
+        space(),
+        rows.get(i)
+      ));
+    }
+    if (ticks.count() > 0) {
+      messages.add(text()
+        .color(GRAY)
+        .append(
+          Messages.LABEL_MSPT,
+          text(" - ", WHITE),
+          text("p50"),
+          text(", ", WHITE),
+          text("p95"),
+          text(", ", WHITE),
+          text("p99"),
+          text(", ", WHITE),
+          Messages.LABEL_MAXIMUM
+        )
+        .hoverEvent(Messages.COMMAND_TICKINFO_TEXT_MSPT_PERCENTILES_HOVER.styled(GRAY))
+        .build());
+      messages.add(Components.ofChildren(
+        space(),
+        text("└─", WHITE),
+        space(),
+        TPSUtil.coloredMspt(ticks.percentile(50), colors),
+        text(", ", WHITE),
+        TPSUtil.coloredMspt(ticks.percentile(95), colors),
+        text(", ", WHITE),
+        TPSUtil.coloredMspt(ticks.percentile(99), colors),
+        text(", ", WHITE),
+        TPSUtil.coloredMspt(ticks.max(), colors)
+      ));
+    }
+    if (ticks.count() > 0 && !ticksCoverWindow) {
+      final long coveredSeconds = Math.min(toSecond, ticks.toSecond()) - Math.max(fromSecond, ticks.fromSecond());
+      messages.add(Messages.COMMAND_TICKINFO_TEXT_HISTORY_TICKS_PARTIAL.styled(
+        GRAY,
+        ITALIC,
+        text(formatDuration(Duration.ofSeconds(Math.max(0L, coveredSeconds))))
+      ));
+    }
+    if (hasRecords) {
+      messages.add(Messages.COMMAND_TICKINFO_TEXT_HISTORY_COVERAGE.styled(GRAY, ITALIC, text(summary.records()), text(summary.seconds())));
+    }
+    return messages;
+  }
+
+  private static @NonNull Component historyRow(
+    final @NonNull ComponentLike label,
+    final @NonNull Component average,
+    final @NonNull Component min,
+    final @NonNull Component max
+  ) {
+    return Components.ofChildren(
+      text().color(GRAY).append(label),
+      text(" - ", WHITE),
+      average,
+      text(", ", WHITE),
+      min,
+      text(", ", WHITE),
+      max
+    );
+  }
+
+  private static @NonNull Component historyPercent(final double percent, final Theme.@NonNull Colors colors) {
+    if (Double.isNaN(percent)) {
+      return text("-", GRAY);
+    }
+    return Components.ofChildren(
+      Components.gradient(FixedPointFormat.COMPACT.format(Math.round(percent * 100.0D) / 100.0D), colors.goodPerformance(), colors.goodPerformanceSecondary()),
+      text("%", GRAY)
+    );
+  }
+
+  private static @NonNull String formatDuration(final @NonNull Duration duration) {
+    long seconds = duration.getSeconds();
+    final StringBuilder builder = new StringBuilder();
+    final long days = seconds / 86400;
+    seconds %= 86400;
+    final long hours = seconds / 3600;
+    seconds %= 3600;
+    final long minutes = seconds / 60;
+    seconds %= 60;
+    if (days > 0) {
+      builder.append(days).append('d');
+    }
+    if (hours > 0) {
+      builder.append(hours).append('h');
+    }
+    if (minutes > 0) {
+      builder.append(minutes).append('m');
+    }
+    if (seconds > 0 || builder.length() == 0) {
+      builder.append(seconds).append('s');
+    }
+    return builder.toString();
+  }
+
   private @NonNull Component renderMemory() {
     return this.memoryRenderer.render()
       .hoverEvent(text()
@@ -123,6 +424,28 @@ public final class TickInfoCommand extends TabTPSCommand {
         .build());
   }
 
+  private @NonNull Component renderThreads(final double serverThread, final double workerThreads) {
+    final Theme.Colors colors = Theme.DEFAULT.colorScheme();
+    return text()
+      .hoverEvent(Messages.COMMAND_TICKINFO_TEXT_THREADS_HOVER.styled(GRAY))
+      .append(Messages.LABEL_THREADS.styled(GRAY))
+      .append(text(":", WHITE))
+      .append(space())
+      .append(Components.gradient(FixedPointFormat.COMPACT.format(serverThread), colors.goodPerformance(), colors.goodPerformanceSecondary()))
+      .append(text("%", GRAY))
+      .append(text(",", WHITE))
+      .append(space())
+      .append(Components.gradient(FixedPointFormat.COMPACT.format(Double.isNaN(workerThreads) ? 0.0D : workerThreads), colors.goodPerformance(), colors.goodPerformanceSecondary()))
+      .append(text("%", GRAY))
+      .append(space())
+      .append(text("(", WHITE))
+      .append(Messages.LABEL_THREADS_SERVER_SHORT.styled(GRAY))
+      .append(text(", ", WHITE))
+      .append(Messages.LABEL_THREADS_WORKERS_SHORT.styled(GRAY))
+      .append(text(")", WHITE))
+      .build();
+  }
+
   private @NonNull Component formatTPS() {
     final double[] tps = this.tabTPS.platform().tickTimeService().recentTps();
     final TextComponent.Builder builder = text()
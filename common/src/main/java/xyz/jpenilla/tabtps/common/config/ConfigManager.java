@@ -32,6 +32,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -41,15 +42,17 @@ public final class ConfigManager {
   private final Path dataDirectory;
 
   private final ConfigLoader<PluginSettings> pluginSettingsLoader;
-  private PluginSettings pluginSettings;
+  private volatile PluginSettings pluginSettings;
 
+  // Keyed by file, as separate files may hold equal configs. Replaced rather than mutated on
+  // load, so readers on other threads always see a complete set.
   private final Path displayConfigsPath;
-  private final Map<DisplayConfig, ConfigLoader<DisplayConfig>> displayConfigs = new HashMap<>();
-  private final Map<String, DisplayConfig> displayConfigsByPermission = new HashMap<>();
+  private volatile Map<Path, Loaded<DisplayConfig>> displayConfigs = Collections.emptyMap();
+  private volatile Map<String, DisplayConfig> displayConfigsByPermission = Collections.emptyMap();
 
   private final Path themePath;
-  private final Map<Theme, ConfigLoader<Theme>> themes = new HashMap<>();
-  private final Map<String, Theme> themesByName = new HashMap<>();
+  private volatile Map<Path, Loaded<Theme>> themes = Collections.emptyMap();
+  private volatile Map<String, Theme> themesByName = Collections.emptyMap();
 
   public ConfigManager(final @NonNull Path dataDirectory) {
     this.dataDirectory = dataDirectory;
@@ -64,14 +67,34 @@ public final class ConfigManager {
     this.themePath = this.dataDirectory.resolve("themes");
   }
 
+  /**
+   * Load all configs, then save them back to fill in missing values and comments.
+   *
+   * @throws ConfigurateException if a config fails to load or save
+   */
   public void load() throws ConfigurateException {
+    this.load(true);
+  }
+
+  /**
+   * Load all configs, only saving back theme and display config files which were added or
+   * changed since the last load. Themes and display configs which did not change keep their
+   * previous instances, so anything keyed on them stays valid.
+   *
+   * @throws ConfigurateException if a config fails to load or save
+   */
+  public void loadChanged() throws ConfigurateException {
+    this.load(false);
+  }
+
+  private void load(final boolean saveUnchanged) throws ConfigurateException {
     tryCreateDirectoryIfNeeded(this.dataDirectory);
-    this.pluginSettings = this.pluginSettingsLoader.load();
+    final PluginSettings pluginSettings = this.pluginSettingsLoader.load();
 
     tryCreateDirectoryIfNeeded(this.themePath);
+    final Map<Path, Loaded<Theme>> themes = new HashMap<>();
+    final Map<String, Theme> themesByName = new HashMap<>();
     try {
-      this.themes.clear();
-      this.themesByName.clear();
       final List<Path> existingFiles = Files.list(this.themePath).collect(Collectors.toList());
       final List<Path> paths = existingFiles.size() != 0 ? existingFiles : Collections.singletonList(this.themePath.resolve("default.conf"));
       for (final Path path : paths) {
@@ -81,9 +104,9 @@ public final class ConfigManager {
             path,
             options -> options.header("Theme")
           );
-          final Theme config = loader.load();
-          this.themes.put(config, loader);
-          this.themesByName.put(path.getFileName().toString().split("\\.")[0], config);
+          final Theme config = reuseUnchanged(this.themes, path, loader.load(), !saveUnchanged);
+          themes.put(path, new Loaded<>(loader, config));
+          themesByName.put(path.getFileName().toString().split("\\.")[0], config);
         }
       }
     } catch (final IOException e) {
@@ -91,9 +114,9 @@ public final class ConfigManager {
     }
 
     tryCreateDirectoryIfNeeded(this.displayConfigsPath);
+    final Map<Path, Loaded<DisplayConfig>> displayConfigs = new HashMap<>();
+    final Map<String, DisplayConfig> displayConfigsByPermission = new HashMap<>();
     try {
-      this.displayConfigs.clear();
-      this.displayConfigsByPermission.clear();
       final List<Path> existingFiles = Files.list(this.displayConfigsPath).collect(Collectors.toList());
       final List<Path> paths = existingFiles.size() != 0 ? existingFiles : Collections.singletonList(this.displayConfigsPath.resolve("default.conf"));
       final Set<String> usedPermissions = new HashSet<>();
@@ -105,11 +128,11 @@ public final class ConfigManager {
             options -> options.header(
               "TabTPS display configuration\n"
                 + "\n"
-                + "   Available modules: [tps, mspt, memory, ping, cpu, players]\n"
+                + "   Available modules: [tps, mspt, mspt_p99, world_mspt, memory, gc, ping, cpu, players]\n"
                 + "   Modules are configured in comma separated format, i.e. \"cpu,tps,mspt\", \"ping\", or \"\" (no modules)"
             )
           );
-          final DisplayConfig config = loader.load();
+          final DisplayConfig config = reuseUnchanged(this.displayConfigs, path, loader.load(), !saveUnchanged);
           if (usedPermissions.contains(config.permission())) {
             throw new ConfigurateException(String.format(
               "Cannot load config with duplicate permission '%s': %s",
@@ -118,30 +141,53 @@ public final class ConfigManager {
             ));
           }
           usedPermissions.add(config.permission());
-          this.displayConfigs.put(config, loader);
-          this.displayConfigsByPermission.put(config.permission(), config);
+          displayConfigs.put(path, new Loaded<>(loader, config));
+          displayConfigsByPermission.put(config.permission(), config);
         }
       }
     } catch (final IOException e) {
       throw new ConfigurateException("Failed to load display configs", e);
     }
 
-    final Set<String> permissions = this.displayConfigs.keySet().stream()
-      .map(DisplayConfig::permission).collect(Collectors.toSet());
-    this.pluginSettings.permissionPriorities().addAll(permissions);
-    this.pluginSettings.permissionPriorities().removeIf(p -> !permissions.contains(p));
+    final Set<String> permissions = displayConfigsByPermission.keySet();
+    pluginSettings.permissionPriorities().addAll(permissions);
+    pluginSettings.permissionPriorities().removeIf(p -> !permissions.contains(p));
+
+    final Map<Path, Loaded<Theme>> previousThemes = this.themes;
+    final Map<Path, Loaded<DisplayConfig>> previousDisplayConfigs = this.displayConfigs;
+    this.pluginSettings = pluginSettings;
+    this.themes = themes;
+    this.themesByName = themesByName;
+    this.displayConfigs = displayConfigs;
+    this.displayConfigsByPermission = displayConfigsByPermission;
+
+    this.pluginSettingsLoader.save(pluginSettings);
+    saveAll(displayConfigs, saveUnchanged ? Collections.emptyMap() : previousDisplayConfigs);
+    saveAll(themes, saveUnchanged ? Collections.emptyMap() : previousThemes);
+  }
 
-    this.save();
+  private static <T> @NonNull T reuseUnchanged(
+    final @NonNull Map<Path, Loaded<T>> previous,
+    final @NonNull Path path,
+    final @NonNull T loaded,
+    final boolean reuse
+  ) {
+    final Loaded<T> old = previous.get(path);
+    return reuse && old != null && old.config.equals(loaded) ? old.config : loaded;
   }
 
   public void save() throws ConfigurateException {
     this.pluginSettingsLoader.save(this.pluginSettings);
+    saveAll(this.displayConfigs, Collections.emptyMap());
+    saveAll(this.themes, Collections.emptyMap());
+  }
 
-    for (final Map.Entry<DisplayConfig, ConfigLoader<DisplayConfig>> entry : this.displayConfigs.entrySet()) {
-      entry.getValue().save(entry.getKey());
-    }
-    for (final Map.Entry<Theme, ConfigLoader<Theme>> entry : this.themes.entrySet()) {
-      entry.getValue().save(entry.getKey());
+  private static <T> void saveAll(final @NonNull Map<Path, Loaded<T>> configs, final @NonNull Map<Path, Loaded<T>> unchangedSince) throws ConfigurateException {
+    for (final Map.Entry<Path, Loaded<T>> entry : configs.entrySet()) {
+      final Loaded<T> previous = unchangedSince.get(entry.getKey());
+      if (previous == null || !previous.config.equals(entry.getValue().config)) {
+        entry.getValue().loader.save(entry.getValue().config);
+      }
     }
   }
 
@@ -150,23 +196,32 @@ public final class ConfigManager {
   }
 
   public @NonNull Collection<DisplayConfig> displayConfigs() {
-    return Collections.unmodifiableSet(this.displayConfigs.keySet());
+    return Collections.unmodifiableCollection(this.displayConfigsByPermission.values());
   }
 
   public @NonNull Theme theme(final @NonNull String name) {
-    final Theme theme = this.themesByName.get(name);
+    final Map<String, Theme> themesByName = this.themesByName;
+    final Theme theme = themesByName.get(name);
     if (theme == null) {
       throw new IllegalArgumentException(String.format(
         "Uh oh! No theme found with the name '%s'. Available themes: [%s]",
         name,
-        String.join(", ", this.themesByName.keySet())
+        String.join(", ", themesByName.keySet())
       ));
     }
     return theme;
   }
 
+  public @NonNull Collection<Theme> themes() {
+    return Collections.unmodifiableCollection(this.themesByName.values());
+  }
+
+  public @NonNull Optional<Theme> findTheme(final @NonNull String name) {
+    return Optional.ofNullable(this.themesByName.get(name));
+  }
+
   public @NonNull Map<String, DisplayConfig> displayConfigsByPermission() {
-    return this.displayConfigsByPermission;
+    return Collections.unmodifiableMap(this.displayConfigsByPermission);
   }
 
   private static void tryCreateDirectoryIfNeeded(final @NonNull Path directory) {
@@ -179,4 +234,14 @@ public final class ConfigManager {
       throw new IllegalStateException("Failed to create directory: " + directory, e);
     }
   }
+
+  private static final class Loaded<T> {
+    final ConfigLoader<T> loader;
+    final T config;
+
+    Loaded(final @NonNull ConfigLoader<T> loader, final @NonNull T config) {
+      this.loader = loader;
+      this.config = config;
+    }
+  }
 }
@@ -119,6 +119,23 @@ public final class DisplayConfig {
     public @NonNull String theme() {
       return this.theme;
     }
+
+    @Override
+    public boolean equals(final @Nullable Object o) {
+      if (this == o) return true;
+      if (!(o instanceof ActionBarSettings)) return false;
+      final ActionBarSettings that = (ActionBarSettings) o;
+      return this.allow == that.allow
+        && this.enableOnLogin == that.enableOnLogin
+        && this.modules.equals(that.modules)
+        && this.theme.equals(that.theme)
+        && this.separator.equals(that.separator);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.allow, this.enableOnLogin, this.modules, this.theme, this.separator);
+    }
   }
 
   @ConfigSerializable
@@ -176,6 +193,26 @@ public final class DisplayConfig {
       return this.theme;
     }
 
+    @Override
+    public boolean equals(final @Nullable Object o) {
+      if (this == o) return true;
+      if (!(o instanceof BossBarSettings)) return false;
+      final BossBarSettings that = (BossBarSettings) o;
+      return this.allow == that.allow
+        && this.enableOnLogin == that.enableOnLogin
+        && this.modules.equals(that.modules)
+        && this.theme.equals(that.theme)
+        && this.colors.equals(that.colors)
+        && this.fillMode == that.fillMode
+        && this.overlay == that.overlay
+        && this.separator.equals(that.separator);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.allow, this.enableOnLogin, this.modules, this.theme, this.colors, this.fillMode, this.overlay, this.separator);
+    }
+
     public enum FillMode {
       TPS, MSPT, REVERSE_TPS, REVERSE_MSPT
     }
@@ -197,6 +234,21 @@ public final class DisplayConfig {
       public BossBar.@NonNull Color goodPerformance() {
         return this.goodPerformance;
       }
+
+      @Override
+      public boolean equals(final @Nullable Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Colors)) return false;
+        final Colors that = (Colors) o;
+        return this.lowPerformance == that.lowPerformance
+          && this.mediumPerformance == that.mediumPerformance
+          && this.goodPerformance == that.goodPerformance;
+      }
+
+      @Override
+      public int hashCode() {
+        return Objects.hash(this.lowPerformance, this.mediumPerformance, this.goodPerformance);
+      }
     }
   }
 
@@ -238,5 +290,23 @@ public final class DisplayConfig {
     public @NonNull String theme() {
       return this.theme;
     }
+
+    @Override
+    public boolean equals(final @Nullable Object o) {
+      if (this == o) return true;
+      if (!(o instanceof TabSettings)) return false;
+      final TabSettings that = (TabSettings) o;
+      return this.allow == that.allow
+        && this.enableOnLogin == that.enableOnLogin
+        && this.headerModules.equals(that.headerModules)
+        && this.footerModules.equals(that.footerModules)
+        && this.theme.equals(that.theme)
+        && this.separator.equals(that.separator);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.allow, this.enableOnLogin, this.headerModules, this.footerModules, this.theme, this.separator);
+    }
   }
 }
@@ -43,6 +43,51 @@ public final class PluginSettings {
   @Comment("How many milliseconds in between updates")
   private UpdateRates updateRates = new UpdateRates();
 
+  @Comment("How display updates are scheduled\n"
+    + "PER_USER: Every display of every player is updated by its own task\n"
+    + "BATCHED: Displays sharing an update rate are updated together in a single pass, aligned to server ticks,\n"
+    + "  and large batches are split across threads. Recommended for servers with many players\n"
+    + "ADAPTIVE: Every display is updated by its own task, at an interval between its update rate and the maximum set\n"
+    + "  in adaptive-refresh. Displays refresh faster while their content changes, and back off while it is stable\n"
+    + "  or the server is overloaded")
+  private DisplayScheduling displayScheduling = DisplayScheduling.PER_USER;
+
+  @Comment("Settings for the ADAPTIVE display scheduling mode. The update rates above are the minimum intervals.\n"
+    + "Effective update rates can be viewed with '/tabtps stats'")
+  private AdaptiveRefresh adaptiveRefresh = new AdaptiveRefresh();
+
+  @Comment("Queue display updates and send them together at the end of each server tick, with a single network flush\n"
+    + "per player. Adds up to one tick of latency, but saves many small writes on busy servers. Fabric, NeoForge and Sponge only")
+  private boolean batchDisplayUpdates = false;
+
+  @Comment("Show a single boss bar to every player with the same boss bar settings and language, instead of one per player.\n"
+    + "Only applies to boss bars without player-specific modules, such as ping or world_mspt")
+  private boolean sharedBossBars = false;
+
+  @Comment("Settings for the executor which runs display updates and other background work. Queue depth and task\n"
+    + "latency can be viewed with '/tabtps stats' and the metrics exporter. Changes require a restart")
+  private Executor executor = new Executor();
+
+  @Comment("Settings for '/tabtps reload'. When incremental reload is enabled, players are kept in memory and only\n"
+    + "displays whose display config, theme or update rate changed are restarted, a few at a time over the following ticks.\n"
+    + "Changing the display scheduling mode or shared boss bars always restarts every display. Changes to these\n"
+    + "settings take effect from the next reload")
+  private Reload reload = new Reload();
+
+  @Comment("Settings for the lag spike watchdog. When a tick runs longer than the threshold, the server thread's\n"
+    + "stack is sampled until the tick completes. Recent reports can be viewed with '/tabtps spikes'.\n"
+    + "Needs tick hooks, so it does nothing on Spigot without Paper")
+  private LagSpikes lagSpikes = new LagSpikes();
+
+  @Comment("Settings for the Prometheus metrics exporter. When enabled, metrics are served in the Prometheus text\n"
+    + "format at http://<bind-address>:<port>/metrics")
+  private MetricsExporter metricsExporter = new MetricsExporter();
+
+  @Comment("Settings for the tick history file, which keeps one record of TPS, MSPT, CPU, memory and player count\n"
+    + "per second across restarts. Summaries can be viewed with '/tickinfo history <duration>'. Disabled by default.\n"
+    + "Changes require a restart")
+  private History history = new History();
+
   @Comment("These memory pools will not be displayed in the '/memory' command")
   private final Set<String> ignoredMemoryPools = new HashSet<>(Arrays.asList(
     "Metaspace",
@@ -81,6 +126,48 @@ public final class PluginSettings {
     return this.updateChecker;
   }
 
+  public @NonNull DisplayScheduling displayScheduling() {
+    return this.displayScheduling;
+  }
+
+  public @NonNull AdaptiveRefresh adaptiveRefresh() {
+    return this.adaptiveRefresh;
+  }
+
+  public boolean batchDisplayUpdates() {
+    return this.batchDisplayUpdates;
+  }
+
+  public boolean sharedBossBars() {
+    return this.sharedBossBars;
+  }
+
+  public @NonNull Executor executor() {
+    return this.executor;
+  }
+
+  public @NonNull Reload reload() {
+    return this.reload;
+  }
+
+  public @NonNull LagSpikes lagSpikes() {
+    return this.lagSpikes;
+  }
+
+  public @NonNull MetricsExporter metricsExporter() {
+    return this.metricsExporter;
+  }
+
+  public @NonNull History history() {
+    return this.history;
+  }
+
+  public enum DisplayScheduling {
+    PER_USER,
+    BATCHED,
+    ADAPTIVE
+  }
+
   @ConfigSerializable
   public static final class UpdateRates {
     private int tab = 250;
@@ -98,6 +185,151 @@ public final class PluginSettings {
     public int bossBar() {
       return this.bossBar;
     }
+
+    public int fastest() {
+      return Math.min(this.tab, Math.min(this.actionBar, this.bossBar));
+    }
+  }
+
+  @ConfigSerializable
+  public static final class AdaptiveRefresh {
+    // The client fades out the action bar after three seconds, so it must be refreshed before then
+    private static final int ACTION_BAR_LIMIT = 2000;
+
+    @Comment("Maximum milliseconds in between tab updates")
+    private int maxTab = 2000;
+    @Comment("Maximum milliseconds in between action bar updates, at most " + ACTION_BAR_LIMIT)
+    private int maxActionBar = 1000;
+    @Comment("Maximum milliseconds in between boss bar updates")
+    private int maxBossBar = 2000;
+    @Comment("While the average MSPT is above this, displays are updated at their maximum interval")
+    private double overloadMspt = 45.0D;
+
+    public int maxTab() {
+      return this.maxTab;
+    }
+
+    public int maxActionBar() {
+      return Math.min(ACTION_BAR_LIMIT, this.maxActionBar);
+    }
+
+    public int maxBossBar() {
+      return this.maxBossBar;
+    }
+
+    public double overloadMspt() {
+      return this.overloadMspt;
+    }
+  }
+
+  @ConfigSerializable
+  public static final class Executor {
+    @Comment("PLATFORM: A pool of platform threads\n"
+      + "VIRTUAL: A single timer thread which runs every task on a new virtual thread. Requires Java 21,\n"
+      + "  a PLATFORM pool is used otherwise. Thread-local formatting buffers are not reused between tasks, so\n"
+      + "  display updates allocate more, and the executor queue depth is not available")
+    private Backend backend = Backend.PLATFORM;
+    @Comment("How many threads the PLATFORM pool has. 0 uses a quarter of the available processors, from 2 to 8")
+    private int threads = 0;
+
+    public @NonNull Backend backend() {
+      return this.backend;
+    }
+
+    public int threads() {
+      if (this.threads > 0) {
+        return this.threads;
+      }
+      return Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors() / 4));
+    }
+
+    public enum Backend {
+      PLATFORM,
+      VIRTUAL
+    }
+  }
+
+  @ConfigSerializable
+  public static final class Reload {
+    private boolean incremental = false;
+    @Comment("How many displays may be restarted per tick during an incremental reload")
+    private int restartsPerTick = 20;
+
+    public boolean incremental() {
+      return this.incremental;
+    }
+
+    public int restartsPerTick() {
+      return Math.max(1, this.restartsPerTick);
+    }
+  }
+
+  @ConfigSerializable
+  public static final class LagSpikes {
+    private boolean enabled = true;
+    @Comment("Ticks taking longer than this many milliseconds are sampled")
+    private int thresholdMillis = 100;
+    @Comment("How many milliseconds in between stack samples while a tick is over the threshold")
+    private int sampleIntervalMillis = 10;
+    @Comment("How many of the most recent reports to keep in memory")
+    private int reportsKept = 10;
+
+    public boolean enabled() {
+      return this.enabled;
+    }
+
+    public int thresholdMillis() {
+      return this.thresholdMillis;
+    }
+
+    public int sampleIntervalMillis() {
+      return this.sampleIntervalMillis;
+    }
+
+    public int reportsKept() {
+      return this.reportsKept;
+    }
+  }
+
+  @ConfigSerializable
+  public static final class MetricsExporter {
+    private boolean enabled = false;
+    @Comment("The address to listen on. Only local scrapers can connect by default")
+    private String bindAddress = "127.0.0.1";
+    private int port = 9225;
+    @Comment("How many milliseconds in between metric snapshots. Scrapes are served from the latest snapshot")
+    private int snapshotIntervalMillis = 1000;
+
+    public boolean enabled() {
+      return this.enabled;
+    }
+
+    public @NonNull String bindAddress() {
+      return this.bindAddress;
+    }
+
+    public int port() {
+      return this.port;
+    }
+
+    public int snapshotIntervalMillis() {
+      return this.snapshotIntervalMillis;
+    }
+  }
+
+  @ConfigSerializable
+  public static final class History {
+    private boolean enabled = false;
+    @Comment("How many hours of history to keep. Each hour takes 141KiB on disk, so the default week takes about 23MiB")
+    private int retentionHours = 24 * 7;
+
+    public boolean enabled() {
+      return this.enabled;
+    }
+
+    public int retentionHours() {
+      return this.retentionHours;
+    }
   }
 
   @ConfigSerializable
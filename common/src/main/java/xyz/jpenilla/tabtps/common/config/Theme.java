@@ -100,5 +100,34 @@ public final class Theme {
     public @NonNull TextColor goodPerformanceSecondary() {
       return this.goodPerformanceSecondary;
     }
+
+    @Override
+    public boolean equals(final @Nullable Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Colors)) return false;
+      final Colors that = (Colors) o;
+      return this.text.equals(that.text)
+        && this.textSecondary.equals(that.textSecondary)
+        && this.lowPerformance.equals(that.lowPerformance)
+        && this.lowPerformanceSecondary.equals(that.lowPerformanceSecondary)
+        && this.mediumPerformance.equals(that.mediumPerformance)
+        && this.mediumPerformanceSecondary.equals(that.mediumPerformanceSecondary)
+        && this.goodPerformance.equals(that.goodPerformance)
+        && this.goodPerformanceSecondary.equals(that.goodPerformanceSecondary);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(
+        this.text,
+        this.textSecondary,
+        this.lowPerformance,
+        this.lowPerformanceSecondary,
+        this.mediumPerformance,
+        this.mediumPerformanceSecondary,
+        this.goodPerformance,
+        this.goodPerformanceSecondary
+      );
+    }
   }
 }
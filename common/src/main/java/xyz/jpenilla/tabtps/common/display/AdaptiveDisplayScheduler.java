@@ -0,0 +1,153 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.display;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+import org.slf4j.Logger;
+
+/**
+ * Schedules a separate task for every display, which adapts its interval between a minimum and
+ * maximum. The interval shrinks while the display's content changes, and grows while it is stable
+ * or the server's average MSPT is over budget.
+ */
+@DefaultQualifier(NonNull.class)
+public final class AdaptiveDisplayScheduler implements DisplayScheduler {
+  private static final long OVERLOAD_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(50L);
+
+  private final ScheduledExecutorService executor;
+  private final Logger logger;
+  private final DoubleSupplier averageMspt;
+  private final DoubleSupplier overloadMspt;
+  private volatile boolean overloaded = false;
+  private volatile long overloadCheckedAt = System.nanoTime() - OVERLOAD_CHECK_NANOS;
+
+  public AdaptiveDisplayScheduler(
+    final ScheduledExecutorService executor,
+    final Logger logger,
+    final DoubleSupplier averageMspt,
+    final DoubleSupplier overloadMspt
+  ) {
+    this.executor = executor;
+    this.logger = logger;
+    this.averageMspt = averageMspt;
+    this.overloadMspt = overloadMspt;
+  }
+
+  @Override
+  public Future<?> schedule(final Display display, final int updateRate) {
+    return this.schedule(display, updateRate, updateRate);
+  }
+
+  @Override
+  public Future<?> schedule(final Display display, final int minInterval, final int maxInterval) {
+    final int min = Math.max(1, minInterval);
+    final ScheduledDisplay scheduled = new ScheduledDisplay(display, min, Math.max(min, maxInterval));
+    scheduled.scheduleNext(0L);
+    return scheduled;
+  }
+
+  private boolean overloaded() {
+    // Shared by every display, so only sample the tick time service once per tick
+    final long now = System.nanoTime();
+    if (now - this.overloadCheckedAt >= OVERLOAD_CHECK_NANOS) {
+      this.overloaded = this.averageMspt.getAsDouble() > this.overloadMspt.getAsDouble();
+      this.overloadCheckedAt = now;
+    }
+    return this.overloaded;
+  }
+
+  /**
+   * A display scheduled by an {@link AdaptiveDisplayScheduler}. Completing or cancelling it stops
+   * the updates.
+   */
+  public final class ScheduledDisplay extends CompletableFuture<Void> {
+    private final Display display;
+    private final int minInterval;
+    private final int maxInterval;
+    private volatile int interval;
+    private @Nullable Future<?> next;
+
+    ScheduledDisplay(final Display display, final int minInterval, final int maxInterval) {
+      this.display = display;
+      this.minInterval = minInterval;
+      this.maxInterval = maxInterval;
+      this.interval = minInterval;
+      this.whenComplete((result, thr) -> this.cancelNext());
+    }
+
+    /**
+     * Get the current number of milliseconds between updates.
+     *
+     * @return current interval
+     */
+    public int interval() {
+      return this.interval;
+    }
+
+    private synchronized void scheduleNext(final long delay) {
+      if (!this.isDone()) {
+        this.next = AdaptiveDisplayScheduler.this.executor.schedule(this::update, delay, TimeUnit.MILLISECONDS);
+      }
+    }
+
+    private synchronized void cancelNext() {
+      if (this.next != null) {
+        this.next.cancel(false);
+        this.next = null;
+      }
+    }
+
+    private void update() {
+      if (this.isDone()) {
+        return;
+      }
+      try {
+        this.display.run();
+      } catch (final Exception ex) {
+        AdaptiveDisplayScheduler.this.logger.warn("Exception updating display", ex);
+      }
+      final int interval = this.nextInterval();
+      this.interval = interval;
+      this.scheduleNext(interval);
+    }
+
+    private int nextInterval() {
+      if (AdaptiveDisplayScheduler.this.overloaded()) {
+        return this.maxInterval;
+      }
+      final int current = this.interval;
+      if (this.display.changed()) {
+        return Math.max(this.minInterval, current / 2);
+      }
+      return Math.min(this.maxInterval, current + (current + 1) / 2);
+    }
+  }
+}
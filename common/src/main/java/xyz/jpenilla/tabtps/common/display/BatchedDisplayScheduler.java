@@ -0,0 +1,180 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.display;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+import org.slf4j.Logger;
+
+/**
+ * Groups displays into one bucket per update rate. Each bucket is a single fixed rate task,
+ * aligned to server tick boundaries, which updates all of its displays in one pass. Large
+ * buckets are split into chunks which run in parallel on the executor.
+ */
+@DefaultQualifier(NonNull.class)
+public final class BatchedDisplayScheduler implements DisplayScheduler {
+  private static final int TICK_MILLIS = 50;
+  private static final int CHUNK_SIZE = 64;
+
+  private final ScheduledExecutorService executor;
+  private final Logger logger;
+  private final int parallelism;
+  private final Map<Integer, Bucket> buckets = new HashMap<>();
+
+  public BatchedDisplayScheduler(final ScheduledExecutorService executor, final Logger logger, final int parallelism) {
+    this.executor = executor;
+    this.logger = logger;
+    this.parallelism = Math.max(1, parallelism);
+  }
+
+  @Override
+  public synchronized Future<?> schedule(final Display display, final int updateRate) {
+    final int period = alignToTicks(updateRate);
+    final Bucket bucket = this.buckets.computeIfAbsent(period, Bucket::new);
+    bucket.add(display);
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+    future.whenComplete((result, thr) -> this.remove(period, display));
+    return future;
+  }
+
+  private synchronized void remove(final int period, final Display display) {
+    final @Nullable Bucket bucket = this.buckets.get(period);
+    if (bucket != null && bucket.remove(display)) {
+      this.buckets.remove(period);
+    }
+  }
+
+  private static int alignToTicks(final int updateRate) {
+    return Math.max(1, (updateRate + TICK_MILLIS - 1) / TICK_MILLIS) * TICK_MILLIS;
+  }
+
+  private final class Bucket {
+    private final int period;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicInteger pendingChunks = new AtomicInteger();
+    private volatile Display[] displays = new Display[0];
+    private @Nullable Future<?> task;
+
+    Bucket(final int period) {
+      this.period = period;
+    }
+
+    void add(final Display display) {
+      final Display[] current = this.displays;
+      final Display[] updated = Arrays.copyOf(current, current.length + 1);
+      updated[current.length] = display;
+      this.displays = updated;
+      if (this.task == null) {
+        final long initialDelay = TICK_MILLIS - System.currentTimeMillis() % TICK_MILLIS;
+        this.task = BatchedDisplayScheduler.this.executor.scheduleAtFixedRate(this::update, initialDelay, this.period, TimeUnit.MILLISECONDS);
+      }
+    }
+
+    /**
+     * Remove a display from this bucket.
+     *
+     * @param display display
+     * @return whether the bucket is now empty and has been stopped
+     */
+    boolean remove(final Display display) {
+      final Display[] current = this.displays;
+      for (int i = 0; i < current.length; i++) {
+        if (current[i] == display) {
+          final Display[] updated = new Display[current.length - 1];
+          System.arraycopy(current, 0, updated, 0, i);
+          System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+          this.displays = updated;
+          break;
+        }
+      }
+      if (this.displays.length == 0 && this.task != null) {
+        this.task.cancel(false);
+        this.task = null;
+        return true;
+      }
+      return false;
+    }
+
+    private void update() {
+      // Skip this pass if the previous one is still running
+      if (!this.running.compareAndSet(false, true)) {
+        return;
+      }
+      final Display[] displays = this.displays;
+      final int chunks = Math.min(BatchedDisplayScheduler.this.parallelism, (displays.length + CHUNK_SIZE - 1) / CHUNK_SIZE);
+      if (chunks <= 1) {
+        try {
+          this.run(displays, 0, displays.length);
+        } finally {
+          this.running.set(false);
+        }
+        return;
+      }
+      final int chunkSize = (displays.length + chunks - 1) / chunks;
+      this.pendingChunks.set(chunks);
+      for (int chunk = 1; chunk < chunks; chunk++) {
+        final int from = chunk * chunkSize;
+        final int to = Math.min(displays.length, from + chunkSize);
+        try {
+          BatchedDisplayScheduler.this.executor.execute(() -> this.runChunk(displays, from, to));
+        } catch (final RejectedExecutionException ex) {
+          // The executor is shutting down, run the chunk here so that the pending count still reaches zero
+          this.runChunk(displays, from, to);
+        }
+      }
+      this.runChunk(displays, 0, chunkSize);
+    }
+
+    private void runChunk(final Display[] displays, final int from, final int to) {
+      try {
+        this.run(displays, from, to);
+      } finally {
+        if (this.pendingChunks.decrementAndGet() == 0) {
+          this.running.set(false);
+        }
+      }
+    }
+
+    private void run(final Display[] displays, final int from, final int to) {
+      for (int i = from; i < to; i++) {
+        try {
+          displays[i].run();
+        } catch (final Exception ex) {
+          BatchedDisplayScheduler.this.logger.warn("Exception updating display", ex);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.display;
+
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Remembers the last value sent to a user, so that unchanged values are not sent again.
+ *
+ * @param <T> value type
+ */
+public final class ChangeDetector<T> {
+  private final long keepAliveNanos;
+  private @Nullable T last;
+  private long lastSent;
+  private boolean changed;
+
+  /**
+   * Create a new change detector which never resends an unchanged value.
+   */
+  public ChangeDetector() {
+    this.keepAliveNanos = 0L;
+  }
+
+  /**
+   * Create a new change detector which resends an unchanged value once the keep alive time has elapsed.
+   *
+   * @param keepAlive keep alive time
+   * @param unit      keep alive time unit
+   */
+  public ChangeDetector(final long keepAlive, final @NonNull TimeUnit unit) {
+    this.keepAliveNanos = unit.toNanos(keepAlive);
+  }
+
+  /**
+   * Check whether a value should be sent, remembering it as the last sent value if so.
+   *
+   * @param value value
+   * @return whether the value should be sent
+   */
+  public boolean shouldSend(final @NonNull T value) {
+    final long now = System.nanoTime();
+    this.changed = !value.equals(this.last);
+    if (!this.changed && (this.keepAliveNanos <= 0L || now - this.lastSent < this.keepAliveNanos)) {
+      return false;
+    }
+    this.last = value;
+    this.lastSent = now;
+    return true;
+  }
+
+  /**
+   * Check whether the value last passed to {@link #shouldSend(Object)} differed from the one
+   * before it. Unlike {@link #shouldSend(Object)}, this is false for keep alive resends.
+   *
+   * @return whether the last value changed
+   */
+  public boolean changed() {
+    return this.changed;
+  }
+}
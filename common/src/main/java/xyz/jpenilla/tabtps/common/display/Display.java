@@ -26,4 +26,14 @@ package xyz.jpenilla.tabtps.common.display;
 public interface Display extends Runnable {
   default void disable() {
   }
+
+  /**
+   * Whether the last run changed what the user sees. Adaptive scheduling refreshes a display
+   * sooner while this is true, and backs off while it is false.
+   *
+   * @return whether the last run changed the display
+   */
+  default boolean changed() {
+    return true;
+  }
 }
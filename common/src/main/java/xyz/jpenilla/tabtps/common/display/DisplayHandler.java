@@ -23,32 +23,48 @@
  */
 package xyz.jpenilla.tabtps.common.display;
 
+import java.util.Objects;
+import java.util.OptionalInt;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.ToIntFunction;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import xyz.jpenilla.tabtps.common.TabTPS;
 import xyz.jpenilla.tabtps.common.User;
 import xyz.jpenilla.tabtps.common.config.DisplayConfig;
+import xyz.jpenilla.tabtps.common.config.PluginSettings;
+import xyz.jpenilla.tabtps.common.config.Theme;
 import xyz.jpenilla.tabtps.common.util.RunnableFuturePair;
 
 public final class DisplayHandler<D extends Display> {
   private transient final TabTPS tabTPS;
   private transient final User<?> user;
+  private transient final ToIntFunction<PluginSettings.UpdateRates> updateRate;
+  private transient final ToIntFunction<PluginSettings.AdaptiveRefresh> maxUpdateRate;
+  private transient final Function<DisplayConfig, ? extends DisplayConfig.DisplaySettings> settings;
   private transient final Function<DisplayConfig, D> displayFactory;
-  private transient final int updateRate;
   private transient RunnableFuturePair<D> futurePair = null;
+  // What the running display was started with, to tell whether a reload changed it
+  private transient DisplayConfig.@Nullable DisplaySettings startedSettings = null;
+  private transient @Nullable Theme startedTheme = null;
+  private transient int startedUpdateRate;
+  private transient int startedMaxUpdateRate;
   private boolean enabled = false;
 
   public DisplayHandler(
     final @NonNull TabTPS tabTPS,
     final @NonNull User<?> user,
-    final int updateRate,
+    final @NonNull ToIntFunction<PluginSettings.UpdateRates> updateRate,
+    final @NonNull ToIntFunction<PluginSettings.AdaptiveRefresh> maxUpdateRate,
+    final @NonNull Function<DisplayConfig, ? extends DisplayConfig.DisplaySettings> settings,
     final @NonNull Function<DisplayConfig, D> displayFactory
   ) {
     this.tabTPS = tabTPS;
     this.user = user;
     this.updateRate = updateRate;
+    this.maxUpdateRate = maxUpdateRate;
+    this.settings = settings;
     this.displayFactory = displayFactory;
   }
 
@@ -60,21 +76,86 @@ public final class DisplayHandler<D extends Display> {
     this.enabled = enabled;
   }
 
-  public void startDisplay() {
+  public synchronized void startDisplay() {
     this.stopDisplay();
     this.tabTPS.findDisplayConfig(this.user).ifPresent(config -> {
+      final int updateRate = this.currentUpdateRate();
+      final int maxUpdateRate = this.currentMaxUpdateRate();
       final D task = this.displayFactory.apply(config);
-      final Future<?> future = this.tabTPS.executor()
-        .scheduleAtFixedRate(task, 0L, this.updateRate, TimeUnit.MILLISECONDS);
+      final Future<?> future = this.tabTPS.displayScheduler().schedule(task, updateRate, maxUpdateRate);
       this.futurePair = new RunnableFuturePair<>(task, future);
+      final DisplayConfig.DisplaySettings settings = this.settings.apply(config);
+      this.startedSettings = settings;
+      this.startedTheme = this.tabTPS.configManager().findTheme(settings.theme()).orElse(null);
+      this.startedUpdateRate = updateRate;
+      this.startedMaxUpdateRate = maxUpdateRate;
     });
   }
 
-  public void stopDisplay() {
+  public synchronized void stopDisplay() {
     if (this.futurePair != null) {
       this.futurePair.future().cancel(false);
       this.futurePair.runnable().disable();
       this.futurePair = null;
+      this.startedSettings = null;
+      this.startedTheme = null;
     }
   }
+
+  /**
+   * Check whether the display no longer matches the current configuration, meaning it should be
+   * started, stopped, or restarted with different settings, theme or update rate.
+   *
+   * @return whether {@link #refresh()} would change anything
+   */
+  public synchronized boolean stale() {
+    final @Nullable DisplayConfig config = this.tabTPS.findDisplayConfig(this.user).orElse(null);
+    if (!this.enabled || config == null) {
+      return this.futurePair != null;
+    }
+    if (this.futurePair == null) {
+      return true;
+    }
+    final DisplayConfig.DisplaySettings settings = this.settings.apply(config);
+    return !settings.equals(this.startedSettings)
+      || !Objects.equals(this.tabTPS.configManager().findTheme(settings.theme()).orElse(null), this.startedTheme)
+      || this.currentUpdateRate() != this.startedUpdateRate
+      || this.currentMaxUpdateRate() != this.startedMaxUpdateRate;
+  }
+
+  /**
+   * Get the number of milliseconds the running display is currently updated at. This is the
+   * configured update rate, unless the display is scheduled adaptively.
+   *
+   * @return current update interval, or empty if the display is not running
+   */
+  public synchronized @NonNull OptionalInt effectiveUpdateRate() {
+    if (this.futurePair == null) {
+      return OptionalInt.empty();
+    }
+    final Future<?> future = this.futurePair.future();
+    if (future instanceof AdaptiveDisplayScheduler.ScheduledDisplay) {
+      return OptionalInt.of(((AdaptiveDisplayScheduler.ScheduledDisplay) future).interval());
+    }
+    return OptionalInt.of(this.startedUpdateRate);
+  }
+
+  /**
+   * Start or restart the display if it is enabled, otherwise stop it.
+   */
+  public synchronized void refresh() {
+    if (this.enabled) {
+      this.startDisplay();
+    } else {
+      this.stopDisplay();
+    }
+  }
+
+  private int currentUpdateRate() {
+    return this.updateRate.applyAsInt(this.tabTPS.configManager().pluginSettings().updateRates());
+  }
+
+  private int currentMaxUpdateRate() {
+    return this.maxUpdateRate.applyAsInt(this.tabTPS.configManager().pluginSettings().adaptiveRefresh());
+  }
 }
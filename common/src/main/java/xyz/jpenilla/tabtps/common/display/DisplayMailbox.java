@@ -0,0 +1,90 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.display;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * Holds a user's pending display updates until they are sent together at the end of a tick.
+ * Each update is posted to a slot, such as the action bar or a boss bar, and only the latest
+ * update for each slot is kept.
+ */
+@DefaultQualifier(NonNull.class)
+public final class DisplayMailbox {
+  private final Map<Object, Runnable> pending = new LinkedHashMap<>();
+  private volatile boolean empty = true;
+
+  /**
+   * Slots for displays a user has only one of. Boss bars use the bar itself as their slot, and
+   * changes to a shared boss bar use the shared bar.
+   */
+  public enum Slot {
+    ACTION_BAR,
+    PLAYER_LIST_HEADER,
+    PLAYER_LIST_FOOTER
+  }
+
+  /**
+   * Queue an update, replacing any update still pending for the same slot.
+   *
+   * @param slot   slot
+   * @param update update
+   */
+  public void post(final Object slot, final Runnable update) {
+    synchronized (this.pending) {
+      this.pending.put(slot, update);
+      this.empty = false;
+    }
+  }
+
+  /**
+   * Check whether there are no pending updates, without locking.
+   *
+   * @return whether the mailbox is empty
+   */
+  public boolean isEmpty() {
+    return this.empty;
+  }
+
+  /**
+   * Run and remove all pending updates, in the order their slots were first posted to.
+   */
+  public void drain() {
+    final Runnable[] updates;
+    synchronized (this.pending) {
+      if (this.pending.isEmpty()) {
+        return;
+      }
+      updates = this.pending.values().toArray(new Runnable[0]);
+      this.pending.clear();
+      this.empty = true;
+    }
+    for (final Runnable update : updates) {
+      update.run();
+    }
+  }
+}
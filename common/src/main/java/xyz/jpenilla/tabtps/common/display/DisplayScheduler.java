@@ -0,0 +1,54 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.display;
+
+import java.util.concurrent.Future;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Schedules periodic {@link Display} updates.
+ */
+public interface DisplayScheduler {
+  /**
+   * Schedule a display to be updated periodically, until the returned future is cancelled.
+   *
+   * @param display    display
+   * @param updateRate milliseconds between updates
+   * @return future which stops the updates when cancelled
+   */
+  @NonNull Future<?> schedule(@NonNull Display display, int updateRate);
+
+  /**
+   * Schedule a display to be updated periodically, until the returned future is cancelled.
+   * Schedulers which do not adapt their update interval use the minimum interval.
+   *
+   * @param display     display
+   * @param minInterval minimum milliseconds between updates
+   * @param maxInterval maximum milliseconds between updates
+   * @return future which stops the updates when cancelled
+   */
+  default @NonNull Future<?> schedule(final @NonNull Display display, final int minInterval, final int maxInterval) {
+    return this.schedule(display, minInterval);
+  }
+}
@@ -23,18 +23,25 @@
  */
 package xyz.jpenilla.tabtps.common.display.task;
 
+import java.util.concurrent.TimeUnit;
 import net.kyori.adventure.text.Component;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import xyz.jpenilla.tabtps.common.TabTPS;
 import xyz.jpenilla.tabtps.common.User;
 import xyz.jpenilla.tabtps.common.config.DisplayConfig;
 import xyz.jpenilla.tabtps.common.config.Theme;
+import xyz.jpenilla.tabtps.common.display.ChangeDetector;
 import xyz.jpenilla.tabtps.common.display.Display;
+import xyz.jpenilla.tabtps.common.display.DisplayMailbox;
 import xyz.jpenilla.tabtps.common.module.ModuleRenderer;
 
 public final class ActionBarDisplayTask implements Display {
+  // The client fades out the action bar after three seconds
+  private static final long KEEP_ALIVE_MILLIS = 2000L;
+
   private final User<?> user;
   private final ModuleRenderer renderer;
+  private final ChangeDetector<Component> changeDetector = new ChangeDetector<>(KEEP_ALIVE_MILLIS, TimeUnit.MILLISECONDS);
 
   public ActionBarDisplayTask(final @NonNull TabTPS tabTPS, final @NonNull User<?> user, final DisplayConfig.@NonNull ActionBarSettings settings) {
     final Theme theme = tabTPS.configManager().theme(settings.theme());
@@ -52,11 +59,19 @@ public final class ActionBarDisplayTask implements Display {
       this.user.actionBar().stopDisplay();
       return;
     }
-    this.user.sendActionBar(this.renderer.render());
+    final Component actionBar = this.renderer.render(this.user);
+    if (this.changeDetector.shouldSend(actionBar)) {
+      this.user.updateDisplay(DisplayMailbox.Slot.ACTION_BAR, () -> this.user.sendActionBar(actionBar));
+    }
+  }
+
+  @Override
+  public boolean changed() {
+    return this.changeDetector.changed();
   }
 
   @Override
   public void disable() {
-    this.user.sendActionBar(Component.empty());
+    this.user.updateDisplay(DisplayMailbox.Slot.ACTION_BAR, () -> this.user.sendActionBar(Component.empty()));
   }
 }
@@ -23,12 +23,18 @@
  */
 package xyz.jpenilla.tabtps.common.display.task;
 
+import java.util.Locale;
+import java.util.Objects;
 import net.kyori.adventure.bossbar.BossBar;
+import net.kyori.adventure.identity.Identity;
+import net.kyori.adventure.text.Component;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import xyz.jpenilla.tabtps.common.TabTPS;
 import xyz.jpenilla.tabtps.common.User;
 import xyz.jpenilla.tabtps.common.config.DisplayConfig;
 import xyz.jpenilla.tabtps.common.config.Theme;
+import xyz.jpenilla.tabtps.common.display.ChangeDetector;
 import xyz.jpenilla.tabtps.common.display.Display;
 import xyz.jpenilla.tabtps.common.module.ModuleRenderer;
 
@@ -36,8 +42,16 @@ public final class BossBarDisplayTask implements Display {
   private final TabTPS tabTPS;
   private final User<?> user;
   private final DisplayConfig.BossBarSettings settings;
+  private final Theme theme;
   private final ModuleRenderer renderer;
-  private final BossBar bar;
+  private BossBar bar;
+  private final ChangeDetector<Component> nameChangeDetector = new ChangeDetector<>();
+  private float sentProgress;
+  private BossBar.Color sentColor;
+  private boolean changed;
+  private SharedBossBars.@Nullable Bar shared;
+  private int seenVersion;
+  private boolean disabled;
 
   public BossBarDisplayTask(
     final @NonNull TabTPS tabTPS,
@@ -48,87 +62,161 @@ public final class BossBarDisplayTask implements Display {
     this.user = user;
     this.settings = settings;
     final Theme theme = tabTPS.configManager().theme(settings.theme());
+    this.theme = theme;
     this.renderer = ModuleRenderer.builder()
       .modules(tabTPS, theme, user, settings.modules())
       .separator(settings.separator())
       .moduleRenderFunction(ModuleRenderer.standardRenderFunction(theme))
       .build();
-    this.bar = BossBar.bossBar(
-      this.renderer.render(),
-      this.progress(),
-      this.color(),
-      this.overlay()
-    );
-    user.showBossBar(this.bar);
+    if (tabTPS.configManager().pluginSettings().sharedBossBars() && !this.renderer.needsPlayer()) {
+      final SharedBossBars.Bar shared = tabTPS.sharedBossBars().acquire(tabTPS, settings, theme, locale(user));
+      this.shared = shared;
+      this.bar = shared.bar();
+      this.seenVersion = shared.version();
+      this.show(shared.bar());
+    } else {
+      this.shared = null;
+      final Component name = this.renderer.render(user);
+      this.nameChangeDetector.shouldSend(name);
+      this.sentProgress = progress(tabTPS, settings);
+      this.sentColor = color(tabTPS, settings);
+      this.bar = BossBar.bossBar(
+        name,
+        this.sentProgress,
+        this.sentColor,
+        settings.overlay()
+      );
+      user.showBossBar(this.bar);
+    }
+  }
+
+  private static @Nullable Locale locale(final @NonNull User<?> user) {
+    return user.pointers().getOrDefault(Identity.LOCALE, null);
+  }
+
+  private void show(final @NonNull BossBar bar) {
+    // Posted to the same slot as the hide in disable(), so that restarting the display replaces a pending hide
+    this.user.updateDisplay(bar, () -> this.user.showBossBar(bar));
+  }
+
+  private void hide(final @NonNull BossBar bar) {
+    this.user.updateDisplay(bar, () -> this.user.hideBossBar(bar));
+  }
+
+  /**
+   * Move the viewer to the shared bar for its current locale, if that changed since the display
+   * started or last ran.
+   *
+   * @param shared the current shared bar
+   * @return the shared bar to update, or {@code null} if the display was disabled
+   */
+  private synchronized SharedBossBars.@Nullable Bar sharedForLocale(final SharedBossBars.@NonNull Bar shared) {
+    if (this.disabled) {
+      return null;
+    }
+    final @Nullable Locale locale = locale(this.user);
+    if (Objects.equals(locale, shared.locale())) {
+      return shared;
+    }
+    this.hide(shared.bar());
+    this.tabTPS.sharedBossBars().release(shared);
+    final SharedBossBars.Bar next = this.tabTPS.sharedBossBars().acquire(this.tabTPS, this.settings, this.theme, locale);
+    this.shared = next;
+    this.bar = next.bar();
+    this.seenVersion = next.version();
+    this.show(next.bar());
+    return next;
   }
 
-  private float progress() {
-    switch (this.settings.fillMode()) {
+  static float progress(final @NonNull TabTPS tabTPS, final DisplayConfig.@NonNull BossBarSettings settings) {
+    switch (settings.fillMode()) {
       case MSPT:
-        return this.msptProgress();
+        return msptProgress(tabTPS);
       case TPS:
-        return this.tpsProgress();
+        return tpsProgress(tabTPS);
       case REVERSE_MSPT:
-        return 1.0F - this.msptProgress();
+        return 1.0F - msptProgress(tabTPS);
       case REVERSE_TPS:
-        return 1.0F - this.tpsProgress();
+        return 1.0F - tpsProgress(tabTPS);
       default:
-        throw new IllegalStateException("Unknown or invalid fill mode: " + this.settings.fillMode());
+        throw new IllegalStateException("Unknown or invalid fill mode: " + settings.fillMode());
     }
   }
 
-  private float msptProgress() {
-    return ensureInRange(this.tabTPS.platform().tickTimeService().averageMspt() / 50.0f);
+  private static float msptProgress(final @NonNull TabTPS tabTPS) {
+    return ensureInRange(tabTPS.platform().tickTimeService().averageMspt() / 50.0f);
   }
 
-  private float tpsProgress() {
-    return ensureInRange(this.tabTPS.platform().tickTimeService().displayTps() / 20.0f);
+  private static float tpsProgress(final @NonNull TabTPS tabTPS) {
+    return ensureInRange(tabTPS.platform().tickTimeService().displayTps() / 20.0f);
   }
 
   private static float ensureInRange(final double value) {
     return (float) Math.max(0.00D, Math.min(1.00D, value));
   }
 
-  private BossBar.@NonNull Color color() {
-    switch (this.settings.fillMode()) {
+  static BossBar.@NonNull Color color(final @NonNull TabTPS tabTPS, final DisplayConfig.@NonNull BossBarSettings settings) {
+    switch (settings.fillMode()) {
       case MSPT:
       case REVERSE_MSPT:
-        final double mspt = this.tabTPS.platform().tickTimeService().averageMspt();
+        final double mspt = tabTPS.platform().tickTimeService().averageMspt();
         if (mspt < 25) {
-          return this.settings.colors().goodPerformance();
+          return settings.colors().goodPerformance();
         } else if (mspt < 40) {
-          return this.settings.colors().mediumPerformance();
+          return settings.colors().mediumPerformance();
         } else {
-          return this.settings.colors().lowPerformance();
+          return settings.colors().lowPerformance();
         }
       case REVERSE_TPS:
       case TPS:
-        final double tps = this.tabTPS.platform().tickTimeService().displayTps();
+        final double tps = tabTPS.platform().tickTimeService().displayTps();
         if (tps > 18.50D) {
-          return this.settings.colors().goodPerformance();
+          return settings.colors().goodPerformance();
         } else if (tps > 15.00D) {
-          return this.settings.colors().mediumPerformance();
+          return settings.colors().mediumPerformance();
         } else {
-          return this.settings.colors().lowPerformance();
+          return settings.colors().lowPerformance();
         }
       default:
-        throw new IllegalStateException("Unknown or invalid fill mode: " + this.settings.fillMode());
+        throw new IllegalStateException("Unknown or invalid fill mode: " + settings.fillMode());
     }
   }
 
-  private BossBar.@NonNull Overlay overlay() {
-    return this.settings.overlay();
+  private void updateBar() {
+    this.changed = false;
+    final float progress = progress(this.tabTPS, this.settings);
+    if (progress != this.sentProgress) {
+      this.sentProgress = progress;
+      this.changed = true;
+    }
+    final BossBar.Color color = color(this.tabTPS, this.settings);
+    if (color != this.sentColor) {
+      this.sentColor = color;
+      this.changed = true;
+    }
+    final Component name = this.renderer.render(this.user);
+    if (this.nameChangeDetector.shouldSend(name)) {
+      this.changed = true;
+    }
+    if (this.changed) {
+      // Always apply the full state, since this replaces any update still queued for the bar.
+      // The bar only notifies its viewers of properties which actually changed
+      this.user.updateDisplay(this.bar, () -> this.bar.progress(progress).color(color).name(name));
+    }
   }
 
-  private void updateBar() {
-    this.bar.progress(this.progress());
-    this.bar.color(this.color());
-    this.bar.name(this.renderer.render());
+  @Override
+  public boolean changed() {
+    return this.changed;
   }
 
   @Override
-  public void disable() {
-    this.user.hideBossBar(this.bar);
+  public synchronized void disable() {
+    this.disabled = true;
+    this.hide(this.bar);
+    if (this.shared != null) {
+      this.tabTPS.sharedBossBars().release(this.shared);
+    }
   }
 
   @Override
@@ -137,6 +225,22 @@ public final class BossBarDisplayTask implements Display {
       this.user.bossBar().stopDisplay();
       return;
     }
+    final SharedBossBars.@Nullable Bar current = this.shared;
+    if (current != null) {
+      final SharedBossBars.@Nullable Bar shared = this.sharedForLocale(current);
+      if (shared == null) {
+        return;
+      }
+      // The first display to run each cycle computes the shared bar's state for all of its viewers
+      final int version = shared.update();
+      this.changed = version != this.seenVersion;
+      if (this.changed) {
+        this.seenVersion = version;
+        // Uses the shared bar as its slot, so it does not replace a pending show or hide
+        this.user.updateDisplay(shared, shared::apply);
+      }
+      return;
+    }
     this.updateBar();
   }
 }
@@ -0,0 +1,203 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.display.task;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import net.kyori.adventure.bossbar.BossBar;
+import net.kyori.adventure.text.Component;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+import xyz.jpenilla.tabtps.common.TabTPS;
+import xyz.jpenilla.tabtps.common.config.DisplayConfig;
+import xyz.jpenilla.tabtps.common.config.Theme;
+import xyz.jpenilla.tabtps.common.display.ChangeDetector;
+import xyz.jpenilla.tabtps.common.module.ModuleRenderer;
+
+/**
+ * Shares boss bars between users with equal {@link DisplayConfig.BossBarSettings}, theme and
+ * locale, when the bar has no modules which depend on the viewing player. Each shared bar renders
+ * its modules from its settings and theme, for its locale.
+ *
+ * <p>A shared bar's next state is computed once per cycle, and every viewer's display queues
+ * applying it in that viewer's display mailbox. The first of those updates to run changes the
+ * bar, which writes the change to all of its viewers at once; the others find nothing left to
+ * send. When display updates are batched, flushing is suspended on every connection while the
+ * mailboxes are drained, so these writes still go out with each viewer's single flush.</p>
+ */
+@DefaultQualifier(NonNull.class)
+public final class SharedBossBars {
+  private final Map<Key, Bar> bars = new HashMap<>();
+
+  synchronized Bar acquire(
+    final TabTPS tabTPS,
+    final DisplayConfig.BossBarSettings settings,
+    final Theme theme,
+    final @Nullable Locale locale
+  ) {
+    final Bar bar = this.bars.computeIfAbsent(
+      new Key(settings, theme, locale),
+      key -> new Bar(tabTPS, key)
+    );
+    bar.viewers++;
+    return bar;
+  }
+
+  synchronized void release(final Bar bar) {
+    bar.viewers--;
+    if (bar.viewers == 0) {
+      this.bars.remove(bar.key, bar);
+    }
+  }
+
+  /**
+   * Get the number of shared boss bars which currently have viewers.
+   *
+   * @return shared boss bar count
+   */
+  public synchronized int size() {
+    return this.bars.size();
+  }
+
+  static final class Bar {
+    private final TabTPS tabTPS;
+    private final Key key;
+    private final ModuleRenderer renderer;
+    private final BossBar bar;
+    private final ChangeDetector<Component> nameChangeDetector = new ChangeDetector<>();
+    private float progress;
+    private BossBar.Color color;
+    private Component name;
+    private long lastUpdate;
+    private int version;
+    private int viewers;
+
+    private Bar(final TabTPS tabTPS, final Key key) {
+      this.tabTPS = tabTPS;
+      this.key = key;
+      this.renderer = ModuleRenderer.builder()
+        .modules(tabTPS, key.theme, key.settings.modules())
+        .separator(key.settings.separator())
+        .moduleRenderFunction(ModuleRenderer.standardRenderFunction(key.theme))
+        .build();
+      this.name = this.renderer.render(key.locale);
+      this.nameChangeDetector.shouldSend(this.name);
+      this.progress = BossBarDisplayTask.progress(tabTPS, key.settings);
+      this.color = BossBarDisplayTask.color(tabTPS, key.settings);
+      this.bar = BossBar.bossBar(this.name, this.progress, this.color, key.settings.overlay());
+      this.lastUpdate = System.nanoTime();
+    }
+
+    BossBar bar() {
+      return this.bar;
+    }
+
+    @Nullable Locale locale() {
+      return this.key.locale;
+    }
+
+    synchronized int version() {
+      return this.version;
+    }
+
+    /**
+     * Compute the bar's next state, unless a display for another viewer already did within the
+     * last half update interval. The bar itself is only changed by {@link #apply()}.
+     *
+     * @return the state's version, which is incremented whenever it changes
+     */
+    synchronized int update() {
+      final long now = System.nanoTime();
+      final int updateRate = this.tabTPS.configManager().pluginSettings().updateRates().bossBar();
+      if (now - this.lastUpdate < TimeUnit.MILLISECONDS.toNanos(updateRate) / 2) {
+        return this.version;
+      }
+      this.lastUpdate = now;
+      boolean changed = false;
+      final float progress = BossBarDisplayTask.progress(this.tabTPS, this.key.settings);
+      if (progress != this.progress) {
+        this.progress = progress;
+        changed = true;
+      }
+      final BossBar.Color color = BossBarDisplayTask.color(this.tabTPS, this.key.settings);
+      if (color != this.color) {
+        this.color = color;
+        changed = true;
+      }
+      final Component name = this.renderer.render(this.key.locale);
+      if (this.nameChangeDetector.shouldSend(name)) {
+        this.name = name;
+        changed = true;
+      }
+      if (changed) {
+        this.version++;
+      }
+      return this.version;
+    }
+
+    /**
+     * Apply the latest state to the bar, writing the changed properties to all of its viewers.
+     * Queued in each viewer's display mailbox; the bar only notifies its viewers of properties
+     * which actually changed, so every run after the first one for a state sends nothing.
+     */
+    synchronized void apply() {
+      this.bar.progress(this.progress).color(this.color).name(this.name);
+    }
+  }
+
+  private static final class Key {
+    private final DisplayConfig.BossBarSettings settings;
+    private final Theme theme;
+    private final @Nullable Locale locale;
+
+    Key(final DisplayConfig.BossBarSettings settings, final Theme theme, final @Nullable Locale locale) {
+      this.settings = settings;
+      this.theme = theme;
+      this.locale = locale;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || this.getClass() != o.getClass()) {
+        return false;
+      }
+      final Key key = (Key) o;
+      return this.settings.equals(key.settings)
+        && this.theme.equals(key.theme)
+        && Objects.equals(this.locale, key.locale);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * this.settings.hashCode() + this.theme.hashCode()) + Objects.hashCode(this.locale);
+    }
+  }
+}
@@ -29,13 +29,18 @@ import xyz.jpenilla.tabtps.common.TabTPS;
 import xyz.jpenilla.tabtps.common.User;
 import xyz.jpenilla.tabtps.common.config.DisplayConfig;
 import xyz.jpenilla.tabtps.common.config.Theme;
+import xyz.jpenilla.tabtps.common.display.ChangeDetector;
 import xyz.jpenilla.tabtps.common.display.Display;
+import xyz.jpenilla.tabtps.common.display.DisplayMailbox;
 import xyz.jpenilla.tabtps.common.module.ModuleRenderer;
 
 public final class TabDisplayTask implements Display {
   private final ModuleRenderer headerRenderer;
   private final ModuleRenderer footerRenderer;
   private final User<?> user;
+  private final ChangeDetector<Component> headerChangeDetector = new ChangeDetector<>();
+  private final ChangeDetector<Component> footerChangeDetector = new ChangeDetector<>();
+  private boolean changed;
 
   public TabDisplayTask(final @NonNull TabTPS tabTPS, final @NonNull User<?> user, final DisplayConfig.@NonNull TabSettings settings) {
     final Theme theme = tabTPS.configManager().theme(settings.theme());
@@ -58,18 +63,37 @@ public final class TabDisplayTask implements Display {
       this.user.tab().stopDisplay();
       return;
     }
+    this.changed = false;
     if (this.headerRenderer.moduleCount() > 0) {
-      this.user.sendPlayerListHeader(this.headerRenderer.render());
+      final Component header = this.headerRenderer.render(this.user);
+      if (this.headerChangeDetector.shouldSend(header)) {
+        this.user.updateDisplay(DisplayMailbox.Slot.PLAYER_LIST_HEADER, () -> this.user.sendPlayerListHeader(header));
+        this.changed = true;
+      }
     }
     if (this.footerRenderer.moduleCount() > 0) {
-      this.user.sendPlayerListFooter(this.footerRenderer.render());
+      final Component footer = this.footerRenderer.render(this.user);
+      if (this.footerChangeDetector.shouldSend(footer)) {
+        this.user.updateDisplay(DisplayMailbox.Slot.PLAYER_LIST_FOOTER, () -> this.user.sendPlayerListFooter(footer));
+        this.changed = true;
+      }
     }
   }
 
+  @Override
+  public boolean changed() {
+    return this.changed;
+  }
+
   @Override
   public void disable() {
     if (this.user.online()) {
-      this.user.sendPlayerListHeaderAndFooter(Component.empty(), Component.empty());
+      // Drop any pending footer update, the header update clears both
+      this.user.updateDisplay(DisplayMailbox.Slot.PLAYER_LIST_FOOTER, () -> { });
+      this.user.updateDisplay(
+        DisplayMailbox.Slot.PLAYER_LIST_HEADER,
+        () -> this.user.sendPlayerListHeaderAndFooter(Component.empty(), Component.empty())
+      );
     }
   }
 }
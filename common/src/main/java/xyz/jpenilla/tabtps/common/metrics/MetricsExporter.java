@@ -0,0 +1,348 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+import xyz.jpenilla.tabtps.common.TabTPS;
+import xyz.jpenilla.tabtps.common.User;
+import xyz.jpenilla.tabtps.common.config.PluginSettings;
+import xyz.jpenilla.tabtps.common.service.TickTimeService;
+import xyz.jpenilla.tabtps.common.util.CPUMonitor;
+import xyz.jpenilla.tabtps.common.util.GCMonitor;
+import xyz.jpenilla.tabtps.common.util.InstrumentedExecutor;
+import xyz.jpenilla.tabtps.common.util.TPSUtil;
+import xyz.jpenilla.tabtps.common.util.TickRollups;
+import xyz.jpenilla.tabtps.common.util.TickTimes;
+
+/**
+ * Serves TabTPS metrics to Prometheus over the JDK's built-in HTTP server.
+ *
+ * <p>Metrics are gathered into a snapshot on the plugin executor at a fixed interval. Scrapes only
+ * write out the latest encoded snapshot, so they never wait on or touch the server thread.</p>
+ */
+@DefaultQualifier(NonNull.class)
+public final class MetricsExporter {
+  private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+  private static final String[] TPS_WINDOWS = {"5s", "1m", "5m", "15m"};
+  private static final String[] TPS_WINDOWS_NO_5S = {"1m", "5m", "15m"};
+  private static final double[] MSPT_QUANTILES = {50, 95, 99, 100};
+  private static final String[] MSPT_QUANTILE_LABELS = {"0.5", "0.95", "0.99", "1"};
+
+  private final TabTPS tabTPS;
+  private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+  private final List<MemoryPoolMXBean> memoryPools = ManagementFactory.getMemoryPoolMXBeans();
+
+  // Only used by the refresh task
+  private final PrometheusText text = new PrometheusText();
+  private PrometheusText.@Nullable Snapshot spare;
+
+  private volatile PrometheusText.@Nullable Snapshot published;
+  private PluginSettings.@Nullable MetricsExporter settings;
+  private @Nullable HttpServer server;
+  private @Nullable ExecutorService serverExecutor;
+  private @Nullable ScheduledFuture<?> refreshTask;
+
+  public MetricsExporter(final TabTPS tabTPS) {
+    this.tabTPS = tabTPS;
+  }
+
+  /**
+   * Start, restart or stop the exporter to match the given settings.
+   *
+   * @param settings settings
+   */
+  public synchronized void configure(final PluginSettings.MetricsExporter settings) {
+    if (this.settings != null && sameSettings(this.settings, settings)) {
+      return;
+    }
+    this.stop();
+    this.settings = settings;
+    if (!settings.enabled()) {
+      return;
+    }
+    final HttpServer server;
+    try {
+      server = HttpServer.create(new InetSocketAddress(settings.bindAddress(), settings.port()), 0);
+    } catch (final IOException ex) {
+      this.tabTPS.platform().logger().warn("Failed to start metrics exporter on {}:{}", settings.bindAddress(), settings.port(), ex);
+      // Try again on the next reload
+      this.settings = null;
+      return;
+    }
+    final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "TabTPS-Metrics-Exporter");
+      thread.setDaemon(true);
+      return thread;
+    });
+    server.setExecutor(executor);
+    server.createContext("/metrics", this::handle);
+    final long interval = Math.max(100, settings.snapshotIntervalMillis());
+    this.refreshTask = this.tabTPS.executor().scheduleAtFixedRate(this::refresh, 0L, interval, TimeUnit.MILLISECONDS);
+    server.start();
+    this.server = server;
+    this.serverExecutor = executor;
+    this.tabTPS.platform().logger().info("Serving metrics at http://{}:{}/metrics", settings.bindAddress(), settings.port());
+  }
+
+  public synchronized void shutdown() {
+    this.stop();
+    this.settings = null;
+  }
+
+  private void stop() {
+    if (this.refreshTask != null) {
+      this.refreshTask.cancel(false);
+      this.refreshTask = null;
+    }
+    if (this.server != null) {
+      this.server.stop(0);
+      this.server = null;
+    }
+    if (this.serverExecutor != null) {
+      this.serverExecutor.shutdownNow();
+      this.serverExecutor = null;
+    }
+  }
+
+  private static boolean sameSettings(final PluginSettings.MetricsExporter a, final PluginSettings.MetricsExporter b) {
+    return a.enabled() == b.enabled()
+      && a.bindAddress().equals(b.bindAddress())
+      && a.port() == b.port()
+      && a.snapshotIntervalMillis() == b.snapshotIntervalMillis();
+  }
+
+  private void handle(final HttpExchange exchange) throws IOException {
+    try {
+      final String method = exchange.getRequestMethod();
+      if (!"GET".equals(method) && !"HEAD".equals(method)) {
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+      while (true) {
+        final PrometheusText.@Nullable Snapshot snapshot = this.published;
+        if (snapshot == null) {
+          exchange.sendResponseHeaders(503, -1);
+          return;
+        }
+        snapshot.readers.incrementAndGet();
+        try {
+          // Only write the snapshot if it was not retired before we registered as a reader
+          if (this.published == snapshot) {
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if ("HEAD".equals(method)) {
+              exchange.sendResponseHeaders(200, -1);
+            } else {
+              exchange.sendResponseHeaders(200, snapshot.length);
+              exchange.getResponseBody().write(snapshot.bytes, 0, snapshot.length);
+            }
+            return;
+          }
+        } finally {
+          snapshot.readers.decrementAndGet();
+        }
+      }
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private void refresh() {
+    // A refresh task from before a restart may still be running
+    synchronized (this.text) {
+      this.refreshSnapshot();
+    }
+  }
+
+  private void refreshSnapshot() {
+    try {
+      final @Nullable TickTimeService tickTimes = this.tickTimeService();
+      if (tickTimes == null) {
+        // The server has not started yet, scrapes get a 503 until the first snapshot
+        return;
+      }
+      this.text.reset();
+      this.writeMetrics(this.text, tickTimes);
+      final PrometheusText.Snapshot next = this.spare != null ? this.spare : new PrometheusText.Snapshot();
+      this.spare = null;
+      this.text.encode(next);
+      final PrometheusText.@Nullable Snapshot previous = this.published;
+      this.published = next;
+      // A scrape still writing the previous snapshot keeps it from being reused, it will be collected instead
+      if (previous != null && previous.readers.get() == 0) {
+        this.spare = previous;
+      }
+    } catch (final Exception ex) {
+      this.tabTPS.platform().logger().warn("Exception building metrics snapshot", ex);
+    }
+  }
+
+  private @Nullable TickTimeService tickTimeService() {
+    try {
+      return this.tabTPS.platform().tickTimeService();
+    } catch (final IllegalStateException ex) {
+      return null;
+    }
+  }
+
+  private void writeMetrics(final PrometheusText text, final TickTimeService tickTimes) {
+    final double[] tps = tickTimes.recentTps();
+    final String[] windows = tps.length == 4 ? TPS_WINDOWS : TPS_WINDOWS_NO_5S;
+    text.family("tabtps_tps", "gauge", "Ticks per second averaged over a window.");
+    for (int i = 0; i < tps.length && i < windows.length; i++) {
+      text.sample("tabtps_tps", "window", windows[i], tps[i]);
+    }
+
+    text.family("tabtps_mspt_average", "gauge", "Average milliseconds per tick over the last 5 seconds.");
+    text.sample("tabtps_mspt_average", tickTimes.averageMspt());
+    text.family("tabtps_mspt", "gauge", "Milliseconds per tick quantiles over the last 5 seconds.");
+    for (int i = 0; i < MSPT_QUANTILES.length; i++) {
+      text.sample("tabtps_mspt", "quantile", MSPT_QUANTILE_LABELS[i], tickTimes.msptPercentile(MSPT_QUANTILES[i]));
+    }
+    final TickRollups.Statistics lastMinute = this.tabTPS.tickRollups().recent(60);
+    if (lastMinute.count() > 0) {
+      text.family("tabtps_mspt_1m", "gauge", "Approximate milliseconds per tick quantiles over the last minute, with the exact maximum.");
+      for (int i = 0; i < MSPT_QUANTILES.length - 1; i++) {
+        text.sample("tabtps_mspt_1m", "quantile", MSPT_QUANTILE_LABELS[i], lastMinute.percentile(MSPT_QUANTILES[i]));
+      }
+      text.sample("tabtps_mspt_1m", "quantile", "1", lastMinute.max());
+      text.family("tabtps_mspt_1m_average", "gauge", "Average milliseconds per tick over the last minute.");
+      text.sample("tabtps_mspt_1m_average", lastMinute.average());
+      text.family("tabtps_ticks_1m", "gauge", "Ticks completed in the last minute.");
+      text.sample("tabtps_ticks_1m", lastMinute.count());
+    }
+    final Map<String, TickTimes> worlds = tickTimes.worldTickTimes();
+    if (!worlds.isEmpty()) {
+      text.family("tabtps_world_mspt_average", "gauge", "Average milliseconds per tick spent ticking each world over the last 5 seconds.");
+      for (final Map.Entry<String, TickTimes> world : worlds.entrySet()) {
+        text.sample("tabtps_world_mspt_average", "world", world.getKey(), TPSUtil.toMilliseconds(world.getValue().average()));
+      }
+    }
+
+    final CPUMonitor cpu = this.tabTPS.cpuMonitor();
+    text.family("tabtps_cpu_usage_percent", "gauge", "CPU usage. Process and system usage are a percentage of all cores, threads a percentage of one core.");
+    text.sample("tabtps_cpu_usage_percent", "scope", "process", cpu.recentProcessCpuLoadSnapshot());
+    text.sample("tabtps_cpu_usage_percent", "scope", "system", cpu.recentSystemCpuLoadSnapshot());
+    text.sample("tabtps_cpu_usage_percent", "scope", "server_thread", cpu.recentServerThreadCpuLoadSnapshot());
+    text.sample("tabtps_cpu_usage_percent", "scope", "worker_threads", cpu.recentWorkerThreadsCpuLoadSnapshot());
+
+    final GCMonitor.Statistics gc = this.tabTPS.gcMonitor().statistics();
+    text.family("tabtps_gc_pause_milliseconds_per_minute", "gauge", "Time spent in garbage collection pauses over the last minute.");
+    text.sample("tabtps_gc_pause_milliseconds_per_minute", gc.pauseMillisPerMinute());
+    text.family("tabtps_allocation_rate_bytes_per_second", "gauge", "Heap allocation rate derived from recent garbage collections.");
+    text.sample("tabtps_allocation_rate_bytes_per_second", gc.allocationRate());
+
+    this.writeMemory(text);
+    this.writeExecutor(text);
+
+    int online = 0;
+    text.family("tabtps_player_ping_milliseconds", "gauge", "Ping of each online player.");
+    for (final User<?> user : this.tabTPS.platform().userService().onlineUsers()) {
+      online++;
+      text.sample(
+        "tabtps_player_ping_milliseconds",
+        "uuid", user.uuid().toString(),
+        "name", PlainTextComponentSerializer.plainText().serialize(user.displayName()),
+        user.ping()
+      );
+    }
+    text.family("tabtps_players_online", "gauge", "Number of online players.");
+    text.sample("tabtps_players_online", online);
+    text.family("tabtps_players_max", "gauge", "Maximum number of players.");
+    text.sample("tabtps_players_max", this.tabTPS.platform().maxPlayers());
+  }
+
+  private void writeExecutor(final PrometheusText text) {
+    final InstrumentedExecutor executor = this.tabTPS.executor();
+    final String name = executor.name();
+    text.family("tabtps_executor_threads", "gauge", "How many tasks the executor runs at once, per backend.");
+    text.sample("tabtps_executor_threads", "executor", name, "backend", executor.backend(), executor.parallelism());
+    text.family("tabtps_executor_active_tasks", "gauge", "Tasks currently running.");
+    text.sample("tabtps_executor_active_tasks", "executor", name, executor.activeTasks());
+    final int queued = executor.queuedTasks();
+    if (queued >= 0) {
+      text.family("tabtps_executor_queued_tasks", "gauge", "Tasks which are due but have not started.");
+      text.sample("tabtps_executor_queued_tasks", "executor", name, queued);
+    }
+    text.family("tabtps_executor_tasks_total", "counter", "Task runs finished, by result.");
+    text.sample("tabtps_executor_tasks_total", "executor", name, "result", "completed", executor.completedTasks());
+    text.sample("tabtps_executor_tasks_total", "executor", name, "result", "failed", executor.failedTasks());
+    text.family("tabtps_executor_task_latency_seconds_total", "counter", "Time task runs spent waiting past their due time before starting.");
+    text.sample("tabtps_executor_task_latency_seconds_total", "executor", name, executor.totalLatencyNanos() / 1.0E9D);
+    text.family("tabtps_executor_task_run_seconds_total", "counter", "Time task runs spent running.");
+    text.sample("tabtps_executor_task_run_seconds_total", "executor", name, executor.totalRunNanos() / 1.0E9D);
+  }
+
+  private void writeMemory(final PrometheusText text) {
+    final MemoryUsage heap = this.memory.getHeapMemoryUsage();
+    final MemoryUsage nonHeap = this.memory.getNonHeapMemoryUsage();
+    text.family("tabtps_memory_used_bytes", "gauge", "Used memory by area.");
+    text.sample("tabtps_memory_used_bytes", "area", "heap", heap.getUsed());
+    text.sample("tabtps_memory_used_bytes", "area", "nonheap", nonHeap.getUsed());
+    text.family("tabtps_memory_committed_bytes", "gauge", "Committed memory by area.");
+    text.sample("tabtps_memory_committed_bytes", "area", "heap", heap.getCommitted());
+    text.sample("tabtps_memory_committed_bytes", "area", "nonheap", nonHeap.getCommitted());
+    text.family("tabtps_memory_max_bytes", "gauge", "Maximum memory by area, -1 when undefined.");
+    text.sample("tabtps_memory_max_bytes", "area", "heap", heap.getMax());
+    text.sample("tabtps_memory_max_bytes", "area", "nonheap", nonHeap.getMax());
+
+    text.family("tabtps_memory_pool_used_bytes", "gauge", "Used memory by pool.");
+    for (final MemoryPoolMXBean pool : this.memoryPools) {
+      final @Nullable MemoryUsage usage = pool.getUsage();
+      if (usage != null) {
+        text.sample("tabtps_memory_pool_used_bytes", "pool", pool.getName(), usage.getUsed());
+      }
+    }
+    text.family("tabtps_memory_pool_committed_bytes", "gauge", "Committed memory by pool.");
+    for (final MemoryPoolMXBean pool : this.memoryPools) {
+      final @Nullable MemoryUsage usage = pool.getUsage();
+      if (usage != null) {
+        text.sample("tabtps_memory_pool_committed_bytes", "pool", pool.getName(), usage.getCommitted());
+      }
+    }
+    text.family("tabtps_memory_pool_max_bytes", "gauge", "Maximum memory by pool, -1 when undefined.");
+    for (final MemoryPoolMXBean pool : this.memoryPools) {
+      final @Nullable MemoryUsage usage = pool.getUsage();
+      if (usage != null) {
+        text.sample("tabtps_memory_pool_max_bytes", "pool", pool.getName(), usage.getMax());
+      }
+    }
+  }
+}
@@ -0,0 +1,356 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+import xyz.jpenilla.tabtps.common.TabTPS;
+import xyz.jpenilla.tabtps.common.service.TickTimeService;
+
+/**
+ * Persists one record of tick metrics per second into a fixed size, memory-mapped ring file.
+ *
+ * <p>Records are written in place into the mapped file from the plugin executor, and the header's
+ * record count is only advanced once a record is complete. Dirty pages belong to the OS once
+ * written, so history survives the server process crashing, and they are forced to disk every
+ * minute to bound what an OS crash can lose.</p>
+ */
+@DefaultQualifier(NonNull.class)
+public final class MetricsHistory {
+  private static final int MAGIC = 0x54545053; // TTPS
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 64;
+  private static final int RECORD_SIZE = 40;
+  private static final int FORCE_INTERVAL_RECORDS = 60;
+
+  // Header layout
+  private static final int HEADER_MAGIC = 0;
+  private static final int HEADER_VERSION = 4;
+  private static final int HEADER_RECORD_SIZE = 8;
+  private static final int HEADER_CAPACITY = 12;
+  private static final int HEADER_WRITTEN = 16;
+
+  // Record layout
+  private static final int RECORD_SECOND = 0;
+  private static final int RECORD_TPS = 8;
+  private static final int RECORD_MSPT_MIN = 12;
+  private static final int RECORD_MSPT_AVERAGE = 16;
+  private static final int RECORD_MSPT_MAX = 20;
+  private static final int RECORD_CPU = 24;
+  private static final int RECORD_PLAYERS = 28;
+  private static final int RECORD_HEAP_USED = 32;
+
+  private final TabTPS tabTPS;
+  private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private final int capacity;
+  private volatile long written;
+  private long lastSecond;
+  private int unforced;
+  private @Nullable ScheduledFuture<?> recordTask;
+
+  private MetricsHistory(final TabTPS tabTPS, final FileChannel channel, final MappedByteBuffer buffer, final int capacity, final long written) {
+    this.tabTPS = tabTPS;
+    this.channel = channel;
+    this.buffer = buffer;
+    this.capacity = capacity;
+    this.written = written;
+  }
+
+  /**
+   * Open or create the history file and start recording.
+   *
+   * <p>A file written with a different layout or capacity is moved aside to {@code <name>.old}.</p>
+   *
+   * @param tabTPS tabtps instance
+   * @param file history file
+   * @param retentionHours hours of history to keep
+   * @return history
+   * @throws IOException if an I/O error occurs
+   */
+  public static MetricsHistory open(final TabTPS tabTPS, final Path file, final int retentionHours) throws IOException {
+    final int capacity = (int) Math.min((Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE, TimeUnit.HOURS.toSeconds(Math.max(1, retentionHours)));
+    final long size = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+    if (Files.exists(file) && !compatible(file, capacity)) {
+      tabTPS.platform().logger().info("Tick history file layout or retention changed, moving old history to {}.old", file.getFileName());
+      Files.move(file, file.resolveSibling(file.getFileName() + ".old"), StandardCopyOption.REPLACE_EXISTING);
+    }
+    Files.createDirectories(file.getParent());
+    final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      final boolean created = channel.size() == 0;
+      final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+      if (created) {
+        buffer.putInt(HEADER_MAGIC, MAGIC);
+        buffer.putInt(HEADER_VERSION, VERSION);
+        buffer.putInt(HEADER_RECORD_SIZE, RECORD_SIZE);
+        buffer.putInt(HEADER_CAPACITY, capacity);
+        buffer.putLong(HEADER_WRITTEN, 0L);
+        buffer.force();
+      }
+      final MetricsHistory history = new MetricsHistory(tabTPS, channel, buffer, capacity, buffer.getLong(HEADER_WRITTEN));
+      synchronized (history) {
+        history.recordTask = tabTPS.executor().scheduleAtFixedRate(history::record, 1L, 1L, TimeUnit.SECONDS);
+      }
+      return history;
+    } catch (final IOException | RuntimeException ex) {
+      channel.close();
+      throw ex;
+    }
+  }
+
+  private static boolean compatible(final Path file, final int capacity) throws IOException {
+    try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() != HEADER_SIZE + (long) capacity * RECORD_SIZE) {
+        return false;
+      }
+      final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+      return header.getInt(HEADER_MAGIC) == MAGIC
+        && header.getInt(HEADER_VERSION) == VERSION
+        && header.getInt(HEADER_RECORD_SIZE) == RECORD_SIZE
+        && header.getInt(HEADER_CAPACITY) == capacity;
+    }
+  }
+
+  public synchronized void shutdown() {
+    if (this.recordTask != null) {
+      this.recordTask.cancel(false);
+      this.recordTask = null;
+    }
+    this.buffer.force();
+    try {
+      // The mapping stays valid until it is collected
+      this.channel.close();
+    } catch (final IOException ex) {
+      this.tabTPS.platform().logger().warn("Failed to close tick history file", ex);
+    }
+  }
+
+  private synchronized void record() {
+    if (this.recordTask == null) {
+      return;
+    }
+    try {
+      final @Nullable TickTimeService tickTimes = this.tickTimeService();
+      if (tickTimes == null) {
+        return;
+      }
+      final long second = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+      if (second == this.lastSecond) {
+        return;
+      }
+      this.lastSecond = second;
+
+      final long written = this.written;
+      final int offset = this.offset(written);
+      final MappedByteBuffer buffer = this.buffer;
+      buffer.putLong(offset + RECORD_SECOND, second);
+      buffer.putFloat(offset + RECORD_TPS, (float) tickTimes.recentTps()[0]);
+      buffer.putFloat(offset + RECORD_MSPT_MIN, (float) tickTimes.minMspt());
+      buffer.putFloat(offset + RECORD_MSPT_AVERAGE, (float) tickTimes.averageMspt());
+      buffer.putFloat(offset + RECORD_MSPT_MAX, (float) tickTimes.maxMspt());
+      buffer.putFloat(offset + RECORD_CPU, (float) this.tabTPS.cpuMonitor().recentProcessCpuLoadSnapshot());
+      buffer.putInt(offset + RECORD_PLAYERS, this.tabTPS.platform().userService().onlineUsers().size());
+      buffer.putLong(offset + RECORD_HEAP_USED, this.memory.getHeapMemoryUsage().getUsed());
+      // Publish the record only once it is complete
+      buffer.putLong(HEADER_WRITTEN, written + 1);
+      this.written = written + 1;
+
+      if (++this.unforced >= FORCE_INTERVAL_RECORDS) {
+        this.unforced = 0;
+        buffer.force();
+      }
+    } catch (final Exception ex) {
+      this.tabTPS.platform().logger().warn("Exception recording tick history", ex);
+    }
+  }
+
+  private @Nullable TickTimeService tickTimeService() {
+    try {
+      return this.tabTPS.platform().tickTimeService();
+    } catch (final IllegalStateException ex) {
+      return null;
+    }
+  }
+
+  private int offset(final long record) {
+    return HEADER_SIZE + (int) (record % this.capacity) * RECORD_SIZE;
+  }
+
+  /**
+   * Summarise the records written in the given window.
+   *
+   * <p>This scans the ring backwards from the newest record, so callers should stay off the server
+   * thread for long windows.</p>
+   *
+   * @param fromSecond start of the window, inclusive, in epoch seconds
+   * @param toSecond end of the window, exclusive, in epoch seconds
+   * @return summary
+   */
+  public Summary summarize(final long fromSecond, final long toSecond) {
+    final long written = this.written;
+    final Summary summary = new Summary(toSecond - fromSecond);
+    // The slot after the newest record is the next to be overwritten, and may be partially written
+    final long oldest = Math.max(0, written - this.capacity + 1);
+    for (long record = written - 1; record >= oldest; record--) {
+      final int offset = this.offset(record);
+      final long second = this.buffer.getLong(offset + RECORD_SECOND);
+      if (second < fromSecond) {
+        break;
+      }
+      if (second >= toSecond) {
+        // Newer than the window, or the clock moved backwards since this was written
+        continue;
+      }
+      summary.add(
+        this.buffer.getFloat(offset + RECORD_TPS),
+        this.buffer.getFloat(offset + RECORD_MSPT_MIN),
+        this.buffer.getFloat(offset + RECORD_MSPT_AVERAGE),
+        this.buffer.getFloat(offset + RECORD_MSPT_MAX),
+        this.buffer.getFloat(offset + RECORD_CPU),
+        this.buffer.getInt(offset + RECORD_PLAYERS),
+        this.buffer.getLong(offset + RECORD_HEAP_USED)
+      );
+    }
+    return summary;
+  }
+
+  public static final class Summary {
+    private final long seconds;
+    private int records;
+    private final Statistic tps = new Statistic();
+    private final Statistic mspt = new Statistic();
+    private final Statistic cpu = new Statistic();
+    private final Statistic players = new Statistic();
+    private final Statistic heapUsed = new Statistic();
+
+    Summary(final long seconds) {
+      this.seconds = seconds;
+    }
+
+    void add(
+      final double tps,
+      final double msptMin,
+      final double msptAverage,
+      final double msptMax,
+      final double cpu,
+      final int players,
+      final long heapUsed
+    ) {
+      this.records++;
+      this.tps.add(tps, tps, tps);
+      this.mspt.add(msptMin, msptAverage, msptMax);
+      if (!Double.isNaN(cpu)) {
+        this.cpu.add(cpu, cpu, cpu);
+      }
+      this.players.add(players, players, players);
+      this.heapUsed.add(heapUsed, heapUsed, heapUsed);
+    }
+
+    /**
+     * Get the length of the summarised window.
+     *
+     * @return seconds
+     */
+    public long seconds() {
+      return this.seconds;
+    }
+
+    /**
+     * Get the number of per-second records in the window. Less than {@link #seconds()} when the
+     * server was not running for part of the window.
+     *
+     * @return record count
+     */
+    public int records() {
+      return this.records;
+    }
+
+    public Statistic tps() {
+      return this.tps;
+    }
+
+    /**
+     * Get MSPT statistics. Each record holds the shortest, average and longest tick of the trailing
+     * 5 seconds at the time it was written, so the minimum and maximum are exact tick durations and
+     * the average is an average of averages.
+     *
+     * @return mspt statistics
+     */
+    public Statistic mspt() {
+      return this.mspt;
+    }
+
+    public Statistic cpu() {
+      return this.cpu;
+    }
+
+    public Statistic players() {
+      return this.players;
+    }
+
+    public Statistic heapUsed() {
+      return this.heapUsed;
+    }
+  }
+
+  public static final class Statistic {
+    private int count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    void add(final double min, final double average, final double max) {
+      this.count++;
+      this.sum += average;
+      this.min = Math.min(this.min, min);
+      this.max = Math.max(this.max, max);
+    }
+
+    public double average() {
+      return this.count == 0 ? Double.NaN : this.sum / this.count;
+    }
+
+    public double min() {
+      return this.count == 0 ? Double.NaN : this.min;
+    }
+
+    public double max() {
+      return this.count == 0 ? Double.NaN : this.max;
+    }
+  }
+}
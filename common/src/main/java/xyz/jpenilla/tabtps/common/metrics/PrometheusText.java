@@ -0,0 +1,153 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * Builds metrics in the Prometheus text exposition format and encodes them as UTF-8.
+ *
+ * <p>Both the text and the encoded bytes are written into reused buffers. Not thread safe.</p>
+ */
+@DefaultQualifier(NonNull.class)
+final class PrometheusText {
+  private final StringBuilder text = new StringBuilder(8192);
+
+  void reset() {
+    this.text.setLength(0);
+  }
+
+  void family(final String name, final String type, final String help) {
+    this.text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    this.text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  void sample(final String name, final double value) {
+    this.text.append(name);
+    this.value(value);
+  }
+
+  void sample(final String name, final String label, final String labelValue, final double value) {
+    this.text.append(name).append('{');
+    this.label(label, labelValue);
+    this.text.append('}');
+    this.value(value);
+  }
+
+  void sample(
+    final String name,
+    final String label,
+    final String labelValue,
+    final String secondLabel,
+    final String secondLabelValue,
+    final double value
+  ) {
+    this.text.append(name).append('{');
+    this.label(label, labelValue);
+    this.text.append(',');
+    this.label(secondLabel, secondLabelValue);
+    this.text.append('}');
+    this.value(value);
+  }
+
+  private void label(final String name, final String value) {
+    this.text.append(name).append("=\"");
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      if (c == '\\' || c == '"') {
+        this.text.append('\\').append(c);
+      } else if (c == '\n') {
+        this.text.append("\\n");
+      } else {
+        this.text.append(c);
+      }
+    }
+    this.text.append('"');
+  }
+
+  private void value(final double value) {
+    this.text.append(' ');
+    if (Double.isNaN(value)) {
+      this.text.append("NaN");
+    } else if (Double.isInfinite(value)) {
+      this.text.append(value > 0 ? "+Inf" : "-Inf");
+    } else if (value == (long) value && Math.abs(value) < 1.0E15D) {
+      this.text.append((long) value);
+    } else {
+      this.text.append(value);
+    }
+    this.text.append('\n');
+  }
+
+  /**
+   * Encode the current text into the given snapshot's buffer, growing it if needed.
+   *
+   * @param snapshot snapshot to encode into
+   */
+  void encode(final Snapshot snapshot) {
+    final StringBuilder text = this.text;
+    // A char encodes to at most 3 bytes, surrogate pairs to 4 bytes for 2 chars
+    if (snapshot.bytes.length < text.length() * 3) {
+      snapshot.bytes = new byte[text.length() * 3];
+    }
+    final byte[] bytes = snapshot.bytes;
+    int pos = 0;
+    for (int i = 0; i < text.length(); i++) {
+      final char c = text.charAt(i);
+      if (c < 0x80) {
+        bytes[pos++] = (byte) c;
+      } else if (c < 0x800) {
+        bytes[pos++] = (byte) (0xC0 | c >> 6);
+        bytes[pos++] = (byte) (0x80 | c & 0x3F);
+      } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+        final int codePoint = Character.toCodePoint(c, text.charAt(++i));
+        bytes[pos++] = (byte) (0xF0 | codePoint >> 18);
+        bytes[pos++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+        bytes[pos++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+        bytes[pos++] = (byte) (0x80 | codePoint & 0x3F);
+      } else if (Character.isSurrogate(c)) {
+        bytes[pos++] = (byte) '?';
+      } else {
+        bytes[pos++] = (byte) (0xE0 | c >> 12);
+        bytes[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+        bytes[pos++] = (byte) (0x80 | c & 0x3F);
+      }
+    }
+    snapshot.length = pos;
+  }
+
+  /**
+   * An encoded set of metrics.
+   *
+   * <p>Scrapes count themselves as readers while writing a published snapshot, so the exporter only
+   * reuses a retired snapshot's buffer once nobody is reading it.</p>
+   */
+  static final class Snapshot {
+    final AtomicInteger readers = new AtomicInteger();
+    byte[] bytes = new byte[8192];
+    int length;
+  }
+}
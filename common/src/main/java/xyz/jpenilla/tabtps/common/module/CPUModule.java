@@ -30,6 +30,7 @@ import xyz.jpenilla.tabtps.common.Messages;
 import xyz.jpenilla.tabtps.common.TabTPS;
 import xyz.jpenilla.tabtps.common.config.Theme;
 import xyz.jpenilla.tabtps.common.util.Components;
+import xyz.jpenilla.tabtps.common.util.FixedPointFormat;
 
 public final class CPUModule extends AbstractModule {
   public CPUModule(
@@ -47,11 +48,11 @@ public final class CPUModule extends AbstractModule {
   @Override
   public @NonNull Component display() {
     final TextComponent.Builder builder = Component.text()
-      .append(Components.gradient(String.valueOf(this.tabTPS.cpuMonitor().recentSystemCpuLoadSnapshot()), this.theme.colorScheme().goodPerformance(), this.theme.colorScheme().goodPerformanceSecondary()))
+      .append(Components.gradient(FixedPointFormat.COMPACT.format(this.tabTPS.cpuMonitor().recentSystemCpuLoadSnapshot()), this.theme.colorScheme().goodPerformance(), this.theme.colorScheme().goodPerformanceSecondary()))
       .append(Component.text("%", this.theme.colorScheme().text()))
       .append(Component.text(",", this.theme.colorScheme().textSecondary()))
       .append(Component.space())
-      .append(Components.gradient(String.valueOf(this.tabTPS.cpuMonitor().recentProcessCpuLoadSnapshot()), this.theme.colorScheme().goodPerformance(), this.theme.colorScheme().goodPerformanceSecondary()))
+      .append(Components.gradient(FixedPointFormat.COMPACT.format(this.tabTPS.cpuMonitor().recentProcessCpuLoadSnapshot()), this.theme.colorScheme().goodPerformance(), this.theme.colorScheme().goodPerformanceSecondary()))
       .append(Component.text("%", this.theme.colorScheme().text()));
     builder.append(Component.space())
       .append(Component.text("(", this.theme.colorScheme().textSecondary()))
@@ -0,0 +1,129 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.module;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.framework.qual.DefaultQualifier;
+import xyz.jpenilla.tabtps.common.TabTPS;
+import xyz.jpenilla.tabtps.common.config.Theme;
+
+/**
+ * Shares modules which do not depend on the viewing player between all users, so that
+ * each (module type, theme) pair is rendered at most once per update cycle.
+ */
+@DefaultQualifier(NonNull.class)
+public final class ModuleRenderCache {
+  private final Map<Key, SharedModule> modules = new ConcurrentHashMap<>();
+  private volatile long cycleLengthNanos;
+
+  public ModuleRenderCache(final int cycleLengthMillis) {
+    this.cycleLength(cycleLengthMillis);
+  }
+
+  /**
+   * Set how long rendered output is reused for.
+   *
+   * @param cycleLengthMillis cycle length in milliseconds
+   */
+  public void cycleLength(final int cycleLengthMillis) {
+    this.cycleLengthNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, cycleLengthMillis));
+  }
+
+  /**
+   * Get the shared instance of a module for the given theme.
+   *
+   * @param tabTPS TabTPS instance
+   * @param type   module type, which must not need a player
+   * @param theme  theme
+   * @return the shared module
+   */
+  public Module module(final TabTPS tabTPS, final ModuleType<?> type, final Theme theme) {
+    if (type.needsPlayer()) {
+      throw new IllegalArgumentException(String.format("Module type '%s' requires a player and cannot be shared", type.name()));
+    }
+    return this.modules.computeIfAbsent(
+      new Key(type, theme),
+      key -> new SharedModule(this, type, type.createModule(tabTPS, theme, null))
+    );
+  }
+
+  /**
+   * Drop all shared modules. Renderers which already hold a shared module keep using it.
+   */
+  public void invalidate() {
+    this.modules.clear();
+  }
+
+  /**
+   * Drop shared modules for themes which are no longer loaded, keeping the rest shared with the
+   * displays still using them.
+   *
+   * @param themes loaded themes
+   */
+  public void retainThemes(final Collection<Theme> themes) {
+    this.modules.keySet().removeIf(key -> {
+      for (final Theme theme : themes) {
+        if (theme == key.theme) {
+          return false;
+        }
+      }
+      return true;
+    });
+  }
+
+  long currentCycle() {
+    return System.nanoTime() / this.cycleLengthNanos;
+  }
+
+  private static final class Key {
+    private final ModuleType<?> type;
+    private final Theme theme;
+
+    Key(final ModuleType<?> type, final Theme theme) {
+      this.type = type;
+      this.theme = theme;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || this.getClass() != o.getClass()) {
+        return false;
+      }
+      final Key key = (Key) o;
+      return this.type == key.type && this.theme == key.theme;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(this.type) + System.identityHashCode(this.theme);
+    }
+  }
+}
@@ -27,9 +27,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import net.kyori.adventure.identity.Identity;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextComponent;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -66,11 +68,34 @@ public final class ModuleRenderer {
   }
 
   public @NonNull Component render() {
+    return this.render((Locale) null);
+  }
+
+  /**
+   * Render for the given viewer. Modules shared through the {@link ModuleRenderCache} are
+   * translated once per locale and cycle, and reused for every viewer with the same locale.
+   *
+   * @param viewer viewer
+   * @return rendered component
+   */
+  public @NonNull Component render(final @NonNull User<?> viewer) {
+    return this.render(viewer.pointers().getOrDefault(Identity.LOCALE, null));
+  }
+
+  /**
+   * Render for viewers with the given locale.
+   *
+   * @param locale locale, or {@code null} to leave shared modules untranslated
+   * @return rendered component
+   */
+  public @NonNull Component render(final @Nullable Locale locale) {
     final TextComponent.Builder builder = text();
     final Iterator<Module> iterator = this.modules.iterator();
     while (iterator.hasNext()) {
       final Module module = iterator.next();
-      builder.append(this.moduleRenderFunction.apply(module));
+      builder.append(this.moduleRenderFunction.apply(locale != null && module instanceof SharedModule
+        ? ((SharedModule) module).localized(locale)
+        : module));
       if (iterator.hasNext()) {
         builder.append(Objects.requireNonNull(this.separator, "separator is null but there is more than one module"));
       }
@@ -82,6 +107,21 @@ public final class ModuleRenderer {
     return this.modules.size();
   }
 
+  /**
+   * Check whether any module depends on the viewing player, meaning renders can not be shared
+   * between players.
+   *
+   * @return whether a module needs a player
+   */
+  public boolean needsPlayer() {
+    for (final Module module : this.modules) {
+      if (module.type().needsPlayer()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Create a new ModuleRenderer builder.
    *
@@ -139,6 +179,8 @@ public final class ModuleRenderer {
     /**
      * Sets the list of {@link Module}s to use from a comma separated {@link String}.
      *
+     * <p>Modules which do not need a {@link User} are shared through the {@link ModuleRenderCache}.</p>
+     *
      * @param tabTPS  The TabTPS instance
      * @param theme   Theme to use
      * @param player  The Player to use
@@ -155,7 +197,9 @@ public final class ModuleRenderer {
         .filter(s -> s != null && !s.isEmpty())
         .map(ModuleType::fromName)
         .filter(type -> !type.needsPlayer() || player != null)
-        .map(type -> type.createModule(tabTPS, theme, player))
+        .map(type -> type.needsPlayer()
+          ? type.createModule(tabTPS, theme, player)
+          : tabTPS.moduleRenderCache().module(tabTPS, type, theme))
         .collect(Collectors.toList()));
     }
 
@@ -39,9 +39,12 @@ public final class ModuleType<T extends Module> {
   private static final Map<Class<? extends Module>, ModuleType<? extends Module>> TYPES_BY_CLASS = new HashMap<>();
 
   public static final ModuleType<CPUModule> CPU = withoutPlayer(CPUModule.class, CPUModule::new, "cpu");
+  public static final ModuleType<GCModule> GC = withoutPlayer(GCModule.class, GCModule::new, "gc");
   public static final ModuleType<MemoryModule> MEMORY = withoutPlayer(MemoryModule.class, MemoryModule::new, "memory");
   public static final ModuleType<MSPTModule> MSPT = withoutPlayer(MSPTModule.class, MSPTModule::new, "mspt");
+  public static final ModuleType<MSPTPercentileModule> MSPT_P99 = withoutPlayer(MSPTPercentileModule.class, MSPTPercentileModule::new, "mspt_p99");
   public static final ModuleType<TPSModule> TPS = withoutPlayer(TPSModule.class, TPSModule::new, "tps");
+  public static final ModuleType<WorldMSPTModule> WORLD_MSPT = withPlayer(WorldMSPTModule.class, WorldMSPTModule::new, "world_mspt");
   public static final ModuleType<PingModule> PING = withPlayer(PingModule.class, PingModule::new, "ping");
   public static final ModuleType<PlayerCountModule> PLAYER_COUNT = withoutPlayer(PlayerCountModule.class, PlayerCountModule::new, "players");
 
@@ -31,6 +31,7 @@ import xyz.jpenilla.tabtps.common.Messages;
 import xyz.jpenilla.tabtps.common.TabTPS;
 import xyz.jpenilla.tabtps.common.config.Theme;
 import xyz.jpenilla.tabtps.common.util.Components;
+import xyz.jpenilla.tabtps.common.util.FixedPointFormat;
 
 public final class PlayerCountModule extends AbstractModule {
   public PlayerCountModule(
@@ -51,9 +52,9 @@ public final class PlayerCountModule extends AbstractModule {
     final TextColor color2 = this.theme.colorScheme().goodPerformanceSecondary();
     final TextColor textColor = this.theme.colorScheme().textSecondary();
     return LinearComponents.linear(
-      Components.gradient(String.valueOf(this.tabTPS.platform().userService().onlinePlayers()), color1, color2),
+      Components.gradient(FixedPointFormat.INTEGER.format(this.tabTPS.platform().userService().onlinePlayers()), color1, color2),
       Component.text("/", textColor),
-      Components.gradient(String.valueOf(this.tabTPS.platform().maxPlayers()), color1, color2)
+      Components.gradient(FixedPointFormat.INTEGER.format(this.tabTPS.platform().maxPlayers()), color1, color2)
     );
   }
 }
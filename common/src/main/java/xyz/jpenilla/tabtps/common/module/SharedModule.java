@@ -0,0 +1,149 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.module;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.translation.GlobalTranslator;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * A {@link Module} which renders its delegate at most once per {@link ModuleRenderCache} cycle.
+ *
+ * <p>Renders are also translated at most once per cycle for each locale, see {@link #localized(Locale)}.</p>
+ */
+@DefaultQualifier(NonNull.class)
+final class SharedModule implements Module {
+  private final ModuleRenderCache cache;
+  private final ModuleType<?> type;
+  private final Module delegate;
+  private final Component label;
+  private final Map<Locale, Localized> localized = new ConcurrentHashMap<>();
+  private volatile @Nullable Rendered rendered;
+
+  SharedModule(final ModuleRenderCache cache, final ModuleType<?> type, final Module delegate) {
+    this.cache = cache;
+    this.type = type;
+    this.delegate = delegate;
+    this.label = delegate.label();
+  }
+
+  @Override
+  public Component label() {
+    return this.label;
+  }
+
+  @Override
+  public Component display() {
+    final long cycle = this.cache.currentCycle();
+    final Rendered rendered = this.rendered;
+    if (rendered != null && rendered.cycle == cycle) {
+      return rendered.display;
+    }
+    synchronized (this) {
+      final Rendered current = this.rendered;
+      if (current != null && current.cycle == cycle) {
+        return current.display;
+      }
+      final Rendered fresh = new Rendered(cycle, this.delegate.display());
+      this.rendered = fresh;
+      return fresh.display;
+    }
+  }
+
+  @Override
+  public ModuleType<? extends Module> type() {
+    return this.type;
+  }
+
+  /**
+   * Get a view of this module which is already translated to the given locale. The view is
+   * shared by every viewer with that locale, so that translation cost scales with the number of
+   * locales rather than the number of viewers.
+   *
+   * @param locale locale
+   * @return translated view
+   */
+  Module localized(final Locale locale) {
+    return this.localized.computeIfAbsent(locale, Localized::new);
+  }
+
+  private final class Localized implements Module {
+    private final Locale locale;
+    private final Component label;
+    private volatile @Nullable Translated translated;
+
+    Localized(final Locale locale) {
+      this.locale = locale;
+      this.label = GlobalTranslator.render(SharedModule.this.label, locale);
+    }
+
+    @Override
+    public Component label() {
+      return this.label;
+    }
+
+    @Override
+    public Component display() {
+      // The shared render is replaced every cycle, so translate again whenever it changes
+      final Component display = SharedModule.this.display();
+      final Translated translated = this.translated;
+      if (translated != null && translated.source == display) {
+        return translated.result;
+      }
+      final Translated fresh = new Translated(display, GlobalTranslator.render(display, this.locale));
+      this.translated = fresh;
+      return fresh.result;
+    }
+
+    @Override
+    public ModuleType<? extends Module> type() {
+      return SharedModule.this.type;
+    }
+  }
+
+  private static final class Translated {
+    private final Component source;
+    private final Component result;
+
+    Translated(final Component source, final Component result) {
+      this.source = source;
+      this.result = result;
+    }
+  }
+
+  private static final class Rendered {
+    private final long cycle;
+    private final Component display;
+
+    Rendered(final long cycle, final Component display) {
+      this.cycle = cycle;
+      this.display = display;
+    }
+  }
+}
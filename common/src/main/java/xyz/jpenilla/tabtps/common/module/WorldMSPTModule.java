@@ -0,0 +1,62 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.module;
+
+import net.kyori.adventure.text.Component;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import xyz.jpenilla.tabtps.common.Messages;
+import xyz.jpenilla.tabtps.common.TabTPS;
+import xyz.jpenilla.tabtps.common.User;
+import xyz.jpenilla.tabtps.common.config.Theme;
+import xyz.jpenilla.tabtps.common.util.TPSUtil;
+import xyz.jpenilla.tabtps.common.util.TickTimes;
+
+public final class WorldMSPTModule extends AbstractModule {
+  private final User<?> user;
+
+  public WorldMSPTModule(
+    final @NonNull TabTPS tabTPS,
+    final @NonNull Theme theme,
+    final @NonNull User<?> user
+  ) {
+    super(tabTPS, theme);
+    this.user = user;
+  }
+
+  @Override
+  public @NonNull Component label() {
+    return Messages.LABEL_WORLD_MSPT.styled(this.theme.colorScheme().text());
+  }
+
+  @Override
+  public @NonNull Component display() {
+    final @Nullable TickTimes times = this.user.worldTickTimes();
+    if (times == null) {
+      // Per-world timing is unavailable on this platform
+      return Component.text("-", this.theme.colorScheme().textSecondary());
+    }
+    return TPSUtil.coloredMspt(TPSUtil.toMilliseconds(times.average()), this.theme.colorScheme());
+  }
+}
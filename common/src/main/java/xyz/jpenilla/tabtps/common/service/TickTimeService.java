@@ -23,13 +23,49 @@
  */
 package xyz.jpenilla.tabtps.common.service;
 
+import java.util.Collections;
+import java.util.Map;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import xyz.jpenilla.tabtps.common.util.TickTimes;
 
 public interface TickTimeService {
   double averageMspt();
 
   double @NonNull [] recentTps();
 
+  /**
+   * Get the duration which the given percentage of recent (roughly the last 5 seconds) ticks completed within.
+   *
+   * @param percentile percentile, from 0 to 100
+   * @return tick duration in milliseconds
+   */
+  double msptPercentile(double percentile);
+
+  /**
+   * Get the duration of the shortest recent tick, over the same ticks as {@link #averageMspt()}.
+   *
+   * @return tick duration in milliseconds
+   */
+  double minMspt();
+
+  /**
+   * Get the duration of the longest recent tick, over the same ticks as {@link #averageMspt()}.
+   *
+   * @return tick duration in milliseconds
+   */
+  double maxMspt();
+
+  /**
+   * Get the time spent ticking each world over roughly the last 5 seconds, keyed by world id.
+   *
+   * <p>Empty when the platform cannot time worlds individually.</p>
+   *
+   * @return tick times by world id
+   */
+  default @NonNull Map<String, TickTimes> worldTickTimes() {
+    return Collections.emptyMap();
+  }
+
   default double displayTps() {
     final double[] recentTps = this.recentTps();
     if (recentTps.length == 3) {
@@ -0,0 +1,147 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+import org.slf4j.Logger;
+
+/**
+ * Write-behind queue for user data files.
+ *
+ * <p>Snapshots are written on a dedicated thread. Repeated writes for the same user
+ * are coalesced while they wait, so only the latest snapshot reaches the disk. Files
+ * are written to a temporary file and moved into place, so a crash mid-write never
+ * leaves a truncated user file behind.</p>
+ */
+@DefaultQualifier(NonNull.class)
+final class UserDataWriter {
+  private static final long DRAIN_TIMEOUT_SECONDS = 10L;
+
+  private final Logger logger;
+  private final Gson gson;
+  private final Path directory;
+  private final Map<UUID, JsonElement> pending = new ConcurrentHashMap<>();
+  private final ThreadPoolExecutor executor;
+
+  UserDataWriter(final Logger logger, final Gson gson, final Path directory) {
+    this.logger = logger;
+    this.gson = gson;
+    this.directory = directory;
+    this.executor = new ThreadPoolExecutor(1, 1, 30L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+      final Thread thread = new Thread(runnable, "TabTPS-User-Data-Writer");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  Path file(final UUID uniqueId) {
+    return this.directory.resolve(uniqueId + ".json");
+  }
+
+  /**
+   * Get the snapshot waiting to be written for a user, if any.
+   *
+   * @param uniqueId user id
+   * @return pending snapshot, or {@code null}
+   */
+  @Nullable JsonElement pending(final UUID uniqueId) {
+    return this.pending.get(uniqueId);
+  }
+
+  void write(final UUID uniqueId, final JsonElement data) {
+    if (this.pending.put(uniqueId, data) != null) {
+      // A write for this user is already queued and will pick up the new snapshot
+      return;
+    }
+    try {
+      this.executor.execute(() -> this.writePending(uniqueId));
+    } catch (final RejectedExecutionException ex) {
+      this.writePending(uniqueId);
+    }
+  }
+
+  private void writePending(final UUID uniqueId) {
+    @Nullable JsonElement data = this.pending.get(uniqueId);
+    while (data != null) {
+      this.writeFile(uniqueId, data);
+      // Keep the snapshot visible to readers until it is on disk
+      if (this.pending.remove(uniqueId, data)) {
+        return;
+      }
+      data = this.pending.get(uniqueId);
+    }
+  }
+
+  private void writeFile(final UUID uniqueId, final JsonElement data) {
+    final Path file = this.file(uniqueId);
+    final Path temp = this.directory.resolve(uniqueId + ".json.tmp");
+    try {
+      Files.createDirectories(this.directory);
+      try (final BufferedWriter writer = Files.newBufferedWriter(temp)) {
+        this.gson.toJson(data, writer);
+      }
+      try {
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (final AtomicMoveNotSupportedException ex) {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (final IOException ex) {
+      this.logger.warn("Failed to save data for user with UUID: " + uniqueId, ex);
+    }
+  }
+
+  /**
+   * Stop accepting asynchronous writes and wait a bounded time for queued writes to finish.
+   * Writes submitted afterwards are performed on the calling thread.
+   */
+  void shutdown() {
+    this.executor.shutdown();
+    try {
+      if (!this.executor.awaitTermination(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        this.logger.warn("Timed out waiting for user data to save, " + this.pending.size() + " user(s) were not saved.");
+        this.executor.shutdownNow();
+      }
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -26,53 +26,63 @@ package xyz.jpenilla.tabtps.common.service;
 import com.google.common.collect.ImmutableSet;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.framework.qual.DefaultQualifier;
 import org.incendo.cloud.type.tuple.Pair;
 import xyz.jpenilla.tabtps.common.AbstractUser;
 import xyz.jpenilla.tabtps.common.TabTPSPlatform;
 import xyz.jpenilla.tabtps.common.User;
 import xyz.jpenilla.tabtps.common.display.DisplayHandler;
+import xyz.jpenilla.tabtps.common.display.DisplayMailbox;
 
 @DefaultQualifier(NonNull.class)
 public abstract class UserService<P, U extends User<P>> {
+  private static final long MILLIS_PER_TICK = 50L;
   private static final Gson GSON = new GsonBuilder()
     .setPrettyPrinting()
     .create();
 
   protected final TabTPSPlatform<P, U> platform;
-  private final Path userDataDirectory;
+  private final UserDataWriter writer;
   private final Map<UUID, U> userMap = new ConcurrentHashMap<>();
+  // Users whose connections hold their packets while queued display updates are sent, only used on the server thread
+  private final List<U> suspended = new ArrayList<>();
 
   protected UserService(final TabTPSPlatform<P, U> platform) {
     this.platform = platform;
-    this.userDataDirectory = platform.dataDirectory().resolve("userdata");
+    this.writer = new UserDataWriter(platform.logger(), GSON, platform.dataDirectory().resolve("userdata"));
   }
 
   protected abstract UUID uuid(final P base);
 
   protected abstract U create(final P base);
 
-  private Path userFile(final UUID uniqueId) {
-    return this.userDataDirectory.resolve(uniqueId + ".json");
-  }
-
   private U loadUser(final P base) {
     final UUID uniqueId = this.uuid(base);
-    final Path file = this.userFile(uniqueId);
     final U user = this.create(base);
+    final @Nullable JsonElement pending = this.writer.pending(uniqueId);
+    if (pending != null) {
+      user.state().populate(GSON.fromJson(pending, AbstractUser.StateImpl.class));
+      return user;
+    }
+    final Path file = this.writer.file(uniqueId);
     if (Files.exists(file)) {
       try (final BufferedReader reader = Files.newBufferedReader(file)) {
         final User.State deserialized = GSON.fromJson(reader, AbstractUser.StateImpl.class);
@@ -85,15 +95,7 @@ public abstract class UserService<P, U extends User<P>> {
   }
 
   private void saveUser(final UUID uuid, final U user) {
-    final Path file = this.userFile(uuid);
-    if (!Files.exists(file)) {
-      this.createEmptyFile(file);
-    }
-    try (final BufferedWriter writer = Files.newBufferedWriter(file)) {
-      GSON.toJson(user.state(), writer);
-    } catch (final IOException e) {
-      this.platform.logger().warn("Failed to save data for user with UUID: " + uuid, e);
-    }
+    this.writer.write(uuid, GSON.toJsonTree(user.state()));
   }
 
   /**
@@ -108,11 +110,92 @@ public abstract class UserService<P, U extends User<P>> {
     if (oldUser == null) {
       throw new IllegalArgumentException("Cannot replace a player who is not logged in!");
     }
-    this.shutdownDisplays(oldUser);
     final U newUser = this.create(newPlayer);
     newUser.state().populate(oldUser.state());
-    this.startEnabledDisplays(newUser);
+    // Replace before stopping, so a pending incremental reload restart skips the old user
     this.userMap.put(uuid, newUser);
+    this.shutdownDisplays(oldUser);
+    this.sendRemainingDisplayUpdates(oldUser);
+    this.startEnabledDisplays(newUser);
+  }
+
+  /**
+   * Check whether this platform sends queued display updates at the end of every tick, see
+   * {@link #sendQueuedDisplayUpdates()}.
+   *
+   * @return whether display updates can be batched
+   */
+  public boolean batchesDisplayUpdates() {
+    return false;
+  }
+
+  /**
+   * Send the display updates queued in every user's {@link DisplayMailbox}. Platforms which
+   * {@link #batchesDisplayUpdates() batch display updates} call this on the server thread at the
+   * end of every tick.
+   *
+   * <p>Flushing is suspended on every connection until all mailboxes are drained, not only on
+   * the connection of the user being drained. An update to a shared boss bar writes to all of
+   * the bar's viewers at once, and those packets should still go out with each viewer's single
+   * flush.</p>
+   */
+  public final void sendQueuedDisplayUpdates() {
+    if (!this.hasQueuedDisplayUpdates()) {
+      return;
+    }
+    try {
+      for (final U user : this.userMap.values()) {
+        try {
+          this.suspendFlushing(user);
+          this.suspended.add(user);
+        } catch (final Exception ex) {
+          this.platform.logger().warn("Failed to suspend flushing for user with UUID: " + user.uuid(), ex);
+        }
+      }
+      for (final U user : this.suspended) {
+        try {
+          user.state().mailbox().drain();
+        } catch (final Exception ex) {
+          this.platform.logger().warn("Failed to send display updates to user with UUID: " + user.uuid(), ex);
+        }
+      }
+    } finally {
+      for (final U user : this.suspended) {
+        try {
+          this.resumeFlushing(user);
+        } catch (final Exception ex) {
+          this.platform.logger().warn("Failed to resume flushing for user with UUID: " + user.uuid(), ex);
+        }
+      }
+      this.suspended.clear();
+    }
+  }
+
+  private boolean hasQueuedDisplayUpdates() {
+    for (final U user : this.userMap.values()) {
+      if (!user.state().mailbox().isEmpty()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Stop flushing a user's connection after every packet, until {@link #resumeFlushing(User)}.
+   * Platforms which batch display updates override this.
+   *
+   * @param user user
+   */
+  protected void suspendFlushing(final U user) {
+  }
+
+  /**
+   * Flush the packets written since {@link #suspendFlushing(User)}, and flush after every packet
+   * again.
+   *
+   * @param user user
+   */
+  protected void resumeFlushing(final U user) {
   }
 
   public final U user(final P base) {
@@ -142,10 +225,72 @@ public abstract class UserService<P, U extends User<P>> {
   }
 
   public final void reload() {
+    final Map<UUID, U> previous = new HashMap<>(this.userMap);
     this.flush();
-    this.platformPlayers().stream()
-      .map(this::user)
-      .forEach(this::startEnabledDisplays);
+    for (final P player : this.platformPlayers()) {
+      final U user = this.userMap.computeIfAbsent(this.uuid(player), uuid -> {
+        final @Nullable U old = previous.get(uuid);
+        if (old == null) {
+          return this.loadUser(player);
+        }
+        // Carry state over in memory instead of reading back what was just queued for saving
+        final U created = this.create(player);
+        created.state().populate(old.state());
+        return created;
+      });
+      this.startEnabledDisplays(user);
+    }
+  }
+
+  /**
+   * Reload without recreating users, restarting only the displays which are
+   * {@link DisplayHandler#stale() stale} after a config reload.
+   *
+   * <p>Restarts are spread over consecutive ticks, at most {@code restartsPerTick} at a time, so
+   * displays are not all rebuilt at once on a busy server.</p>
+   *
+   * @param executor        executor to run restarts on
+   * @param restartsPerTick maximum number of displays to restart per tick
+   * @return number of displays scheduled for restart
+   */
+  public final int reloadChanged(final ScheduledExecutorService executor, final int restartsPerTick) {
+    for (final P player : this.platformPlayers()) {
+      if (!this.userMap.containsKey(this.uuid(player))) {
+        // Not tracked yet, so treat it as a join. The enabled displays are stale and get started below
+        this.enableLoginDisplays(this.user(player));
+      }
+    }
+    final List<Pair<U, DisplayHandler<?>>> stale = new ArrayList<>();
+    for (final U user : this.userMap.values()) {
+      for (final DisplayHandler<?> display : user.displays()) {
+        if (display.stale()) {
+          stale.add(Pair.of(user, display));
+        }
+      }
+    }
+    for (int i = 0; i < stale.size(); i += restartsPerTick) {
+      final List<Pair<U, DisplayHandler<?>>> batch = stale.subList(i, Math.min(stale.size(), i + restartsPerTick));
+      executor.schedule(
+        () -> batch.forEach(pair -> this.refresh(pair.first(), pair.second())),
+        (long) i / restartsPerTick * MILLIS_PER_TICK,
+        TimeUnit.MILLISECONDS
+      );
+    }
+    return stale.size();
+  }
+
+  private void refresh(final U user, final DisplayHandler<?> display) {
+    synchronized (display) {
+      // Users who quit or were replaced since the reload have had their displays stopped already
+      if (this.userMap.get(user.uuid()) != user) {
+        return;
+      }
+      try {
+        display.refresh();
+      } catch (final Exception ex) {
+        this.platform.logger().warn("Failed to restart display for user with UUID: " + user.uuid(), ex);
+      }
+    }
   }
 
   public final void flush() {
@@ -159,24 +304,35 @@ public abstract class UserService<P, U extends User<P>> {
       throw new IllegalStateException("Cannot remove non-existing user " + uniqueId);
     }
     this.shutdownDisplays(removed);
+    this.sendRemainingDisplayUpdates(removed);
     if (removed.shouldSave()) {
       this.saveUser(uniqueId, removed);
     }
   }
 
-  private void createEmptyFile(final Path file) {
-    try {
-      Files.createDirectories(this.userDataDirectory);
-      Files.createFile(file);
-    } catch (final IOException e) {
-      this.platform.logger().warn("Failed to create empty file: " + file, e);
-    }
+  /**
+   * Save and remove all users, then wait a bounded time for pending writes to reach the disk.
+   */
+  public final void shutdown() {
+    this.flush();
+    this.writer.shutdown();
   }
 
   public final void handleJoin(final P platformPlayer) {
     final U user = this.user(platformPlayer);
+    if (this.enableLoginDisplays(user)) {
+      this.startEnabledDisplays(user);
+    }
+  }
 
-    this.platform.tabTPS().findDisplayConfig(user).ifPresent(config -> {
+  /**
+   * Enable the displays which the user's display config enables on login.
+   *
+   * @param user user
+   * @return whether a display config applies to the user
+   */
+  private boolean enableLoginDisplays(final U user) {
+    return this.platform.tabTPS().findDisplayConfig(user).map(config -> {
       Stream.of(
         Pair.of(config.actionBarSettings(), user.actionBar()),
         Pair.of(config.bossBarSettings(), user.bossBar()),
@@ -186,8 +342,8 @@ public abstract class UserService<P, U extends User<P>> {
           pair.second().enabled(true);
         }
       });
-      this.startEnabledDisplays(user);
-    });
+      return true;
+    }).orElse(false);
   }
 
   public final void handleQuit(final P platformPlayer) {
@@ -198,6 +354,21 @@ public abstract class UserService<P, U extends User<P>> {
     user.displays().forEach(DisplayHandler::stopDisplay);
   }
 
+  /**
+   * Send the updates still queued for a user who was removed or replaced, such as hiding its boss
+   * bar when its displays were stopped. Only tracked users are sent their queued updates at the
+   * end of the tick, so these would never reach the player otherwise.
+   *
+   * @param user removed or replaced user
+   */
+  private void sendRemainingDisplayUpdates(final U user) {
+    try {
+      user.state().mailbox().drain();
+    } catch (final Exception ex) {
+      this.platform.logger().warn("Failed to send display updates to user with UUID: " + user.uuid(), ex);
+    }
+  }
+
   private void startEnabledDisplays(final U user) {
     user.displays().forEach(display -> {
       if (display.enabled()) {
@@ -25,50 +25,87 @@ package xyz.jpenilla.tabtps.common.util;
 
 import com.sun.management.OperatingSystemMXBean;
 import java.lang.management.ManagementFactory;
-import java.util.DoubleSummaryStatistics;
-import java.util.concurrent.Executors;
+import java.util.Arrays;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 public final class CPUMonitor {
+  private static final int SAMPLES = 20;
+  private static final OperatingSystemMXBean OPERATING_SYSTEM = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
   private int index = 0;
   private volatile double recentProcessCpuLoadSnapshot = 0;
   private volatile double recentSystemCpuLoadSnapshot = 0;
-  private final double[] recentSystemUsage = new double[20];
-  private final double[] recentProcessUsage = new double[20];
+  private volatile double recentServerThreadCpuLoadSnapshot = Double.NaN;
+  private volatile double recentWorkerThreadsCpuLoadSnapshot = Double.NaN;
+  private final Window recentSystemUsage = new Window(true);
+  private final Window recentProcessUsage = new Window(true);
+  private final Window recentServerThreadUsage = new Window(false);
+  private final Window recentWorkerThreadsUsage = new Window(false);
+
+  private @Nullable LinuxCPUSampler linuxSampler;
+  private final @Nullable ThreadCPUSampler threadSampler;
 
-  private final ScheduledExecutorService executor;
   private final Future<?> monitorTask;
 
-  public CPUMonitor() {
-    final ScheduledThreadPoolExecutor ex = new ScheduledThreadPoolExecutor(1);
-    ex.setRemoveOnCancelPolicy(true);
-    this.executor = Executors.unconfigurableScheduledExecutorService(ex);
-    this.monitorTask = this.executor.scheduleAtFixedRate(this::recordUsage, 0L, 500L, TimeUnit.MILLISECONDS);
+  public CPUMonitor(final Supplier<@Nullable Thread> serverThread, final ScheduledExecutorService executor) {
+    this.linuxSampler = LinuxCPUSampler.create();
+    this.threadSampler = ThreadCPUSampler.supported() ? new ThreadCPUSampler(serverThread) : null;
+    this.monitorTask = executor.scheduleAtFixedRate(this::recordUsage, 0L, 500L, TimeUnit.MILLISECONDS);
   }
 
   public void shutdown() {
     this.monitorTask.cancel(false);
-    this.executor.shutdown();
+    // Synchronized with recordUsage, so an in-flight sample finishes before the sampler is closed
+    synchronized (this) {
+      final @Nullable LinuxCPUSampler linux = this.linuxSampler;
+      if (linux != null) {
+        linux.close();
+        this.linuxSampler = null;
+      }
+    }
   }
 
   private void nextIndex() {
     this.index++;
-    if (this.index == 20) {
+    if (this.index == SAMPLES) {
       this.index = 0;
     }
   }
 
-  private void recordUsage() {
-    this.recentProcessUsage[this.index] = currentProcessCpuLoad();
-    this.recentSystemUsage[this.index] = currentSystemCpuLoad();
-    this.recentProcessCpuLoadSnapshot = this.recentProcessCpuLoad();
-    this.recentSystemCpuLoadSnapshot = this.recentSystemCpuLoad();
+  private synchronized void recordUsage() {
+    this.recordSystemUsage();
+    if (this.threadSampler != null) {
+      this.threadSampler.sample();
+      this.recentServerThreadUsage.set(this.index, this.threadSampler.serverThreadCpuLoad());
+      this.recentWorkerThreadsUsage.set(this.index, this.threadSampler.workerThreadsCpuLoad());
+      this.recentServerThreadCpuLoadSnapshot = round(this.recentServerThreadUsage.average());
+      this.recentWorkerThreadsCpuLoadSnapshot = round(this.recentWorkerThreadsUsage.average());
+    }
+    this.recentProcessCpuLoadSnapshot = round(this.recentProcessUsage.average());
+    this.recentSystemCpuLoadSnapshot = round(this.recentSystemUsage.average());
     this.nextIndex();
   }
 
+  private void recordSystemUsage() {
+    final @Nullable LinuxCPUSampler linux = this.linuxSampler;
+    if (linux != null) {
+      if (linux.sample()) {
+        this.recentProcessUsage.set(this.index, linux.processCpuLoad());
+        this.recentSystemUsage.set(this.index, linux.systemCpuLoad());
+        return;
+      }
+      // procfs became unreadable, fall back to the MXBean for good
+      linux.close();
+      this.linuxSampler = null;
+    }
+    this.recentProcessUsage.set(this.index, OPERATING_SYSTEM.getProcessCpuLoad() * 100);
+    this.recentSystemUsage.set(this.index, OPERATING_SYSTEM.getSystemCpuLoad() * 100);
+  }
+
   public double recentProcessCpuLoadSnapshot() {
     return this.recentProcessCpuLoadSnapshot;
   }
@@ -77,33 +114,80 @@ public final class CPUMonitor {
     return this.recentSystemCpuLoadSnapshot;
   }
 
-  private double recentProcessCpuLoad() {
-    return round(average(this.recentProcessUsage));
+  /**
+   * Get the recent CPU usage of the server thread, in percent of one core.
+   *
+   * <p>A value close to 100 means the server thread is saturated, even if process CPU usage looks low.</p>
+   *
+   * @return server thread CPU load, or {@link Double#NaN} if unavailable
+   */
+  public double recentServerThreadCpuLoadSnapshot() {
+    return this.recentServerThreadCpuLoadSnapshot;
   }
 
-  private double recentSystemCpuLoad() {
-    return round(average(this.recentSystemUsage));
-  }
-
-  private static double average(final double[] values) {
-    final DoubleSummaryStatistics statistics = new DoubleSummaryStatistics();
-    for (final double d : values.clone()) {
-      if (d != 0 && !Double.isNaN(d)) {
-        statistics.accept(d);
-      }
-    }
-    return statistics.getAverage();
+  /**
+   * Get the recent combined CPU usage of the server's worker threads, in percent of one core.
+   *
+   * @return worker threads CPU load, or {@link Double#NaN} if unavailable
+   */
+  public double recentWorkerThreadsCpuLoadSnapshot() {
+    return this.recentWorkerThreadsCpuLoadSnapshot;
   }
 
   private static double round(final double value) {
     return Math.round(value * 100.0) / 100.0;
   }
 
-  private static double currentProcessCpuLoad() {
-    return ((OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuLoad() * 100;
-  }
+  /**
+   * Fixed window of samples with a running sum, skipping missing samples.
+   */
+  private static final class Window {
+    private final double[] values = new double[SAMPLES];
+    private final boolean ignoreZero;
+    private double sum = 0;
+    private int count = 0;
 
-  private static double currentSystemCpuLoad() {
-    return ((OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getSystemCpuLoad() * 100;
+    Window(final boolean ignoreZero) {
+      this.ignoreZero = ignoreZero;
+      Arrays.fill(this.values, Double.NaN);
+    }
+
+    void set(final int index, final double value) {
+      final double old = this.values[index];
+      if (this.counts(old)) {
+        this.sum -= old;
+        this.count--;
+      }
+      this.values[index] = value;
+      if (this.counts(value)) {
+        this.sum += value;
+        this.count++;
+      }
+      if (index == SAMPLES - 1) {
+        this.rebuildSum();
+      }
+    }
+
+    private boolean counts(final double value) {
+      return !Double.isNaN(value) && !(this.ignoreZero && value == 0);
+    }
+
+    private void rebuildSum() {
+      // Avoid drift from repeated subtraction
+      double sum = 0;
+      for (final double value : this.values) {
+        if (this.counts(value)) {
+          sum += value;
+        }
+      }
+      this.sum = sum;
+    }
+
+    double average() {
+      if (this.count == 0) {
+        return this.ignoreZero ? 0 : Double.NaN;
+      }
+      return this.sum / this.count;
+    }
   }
 }
@@ -23,6 +23,9 @@
  */
 package xyz.jpenilla.tabtps.common.util;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import net.kyori.adventure.text.Component;
@@ -40,6 +43,13 @@ import static net.kyori.adventure.text.Component.text;
 @DefaultQualifier(NonNull.class)
 public final class Components {
   public static final Pattern SPECIAL_CHARACTERS_PATTERN = Pattern.compile("[^\\s\\w\\-]");
+  private static final int MAX_CACHED_PALETTES = 256;
+  private static final int MAX_CACHED_NUMERIC_GRADIENTS = 4096;
+  private static final int MAX_CACHED_NUMERIC_LENGTH = 10;
+  private static final Map<GradientKey, TextColor[]> PALETTES = new ConcurrentHashMap<>();
+  private static final Map<GradientKey, Component> NUMERIC_GRADIENTS = new ConcurrentHashMap<>();
+  // Reused per thread so cache hits do not allocate a key
+  private static final ThreadLocal<GradientKey> LOOKUP_KEY = ThreadLocal.withInitial(GradientKey::new);
 
   private Components() {
   }
@@ -54,21 +64,70 @@ public final class Components {
     });
   }
 
-  public static Component gradient(final String textContent, final @Nullable Consumer<Style.Builder> style, final TextColor ... colors) {
-    final Gradient gradient = new Gradient(colors);
+  // Palettes are cached by colors and length; unstyled short numeric strings, which modules
+  // re-render on every update, are cached as whole components. Lookups compare text by content,
+  // so a reused FixedPointFormat buffer hits the cache without creating a String.
+  public static Component gradient(final CharSequence textContent, final @Nullable Consumer<Style.Builder> style, final TextColor ... colors) {
+    final boolean cacheable = style == null && isShortNumber(textContent);
+    if (cacheable) {
+      final @Nullable Component cached = NUMERIC_GRADIENTS.get(LOOKUP_KEY.get().set(textContent, colors, textContent.length()));
+      if (cached != null) {
+        return cached;
+      }
+    }
+    final TextColor[] palette = palette(colors, textContent.length());
     final TextComponent.Builder builder = text();
     if (style != null) {
       builder.style(style);
     }
-    final char[] content = textContent.toCharArray();
-    gradient.length(content.length);
-    for (final char c : content) {
-      builder.append(text(c, gradient.nextColor()));
+    for (int i = 0; i < textContent.length(); i++) {
+      builder.append(text(textContent.charAt(i), palette[i]));
+    }
+    final Component component = builder.build();
+    if (cacheable) {
+      cache(NUMERIC_GRADIENTS, new GradientKey().set(textContent.toString(), colors.clone(), textContent.length()), component, MAX_CACHED_NUMERIC_GRADIENTS);
+    }
+    return component;
+  }
+
+  private static TextColor[] palette(final TextColor[] colors, final int length) {
+    final GradientKey lookup = LOOKUP_KEY.get().set(null, colors, length);
+    final TextColor @Nullable [] cached = PALETTES.get(lookup);
+    if (cached != null) {
+      return cached;
+    }
+    final Gradient gradient = new Gradient(colors.clone());
+    gradient.length(length);
+    final TextColor[] palette = new TextColor[length];
+    for (int i = 0; i < length; i++) {
+      palette[i] = gradient.nextColor();
+    }
+    cache(PALETTES, new GradientKey().set(null, colors.clone(), length), palette, MAX_CACHED_PALETTES);
+    return palette;
+  }
+
+  private static <V> void cache(final Map<GradientKey, V> cache, final GradientKey key, final V value, final int maxSize) {
+    // Values are cheap to recreate, so an overfull cache is simply started over
+    if (cache.size() >= maxSize) {
+      cache.clear();
+    }
+    cache.put(key, value);
+  }
+
+  private static boolean isShortNumber(final CharSequence text) {
+    if (text.length() == 0 || text.length() > MAX_CACHED_NUMERIC_LENGTH) {
+      return false;
+    }
+    for (int i = 0; i < text.length(); i++) {
+      final char c = text.charAt(i);
+      if ((c < '0' || c > '9') && c != '.' && c != ',' && c != '-' && c != '%') {
+        return false;
+      }
     }
-    return builder.build();
+    return true;
   }
 
-  public static Component gradient(final String textContent, final TextColor ... colors) {
+  public static Component gradient(final CharSequence textContent, final TextColor ... colors) {
     return gradient(textContent, null, colors);
   }
 
@@ -79,4 +138,65 @@ public final class Components {
 
     return text().append(children).build();
   }
+
+  private static final class GradientKey {
+    private @Nullable CharSequence text;
+    private TextColor[] colors = new TextColor[0];
+    private int length;
+    private int hash;
+
+    GradientKey set(final @Nullable CharSequence text, final TextColor[] colors, final int length) {
+      this.text = text;
+      this.colors = colors;
+      this.length = length;
+      this.hash = 31 * (31 * hash(text) + Arrays.hashCode(colors)) + length;
+      return this;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof GradientKey)) {
+        return false;
+      }
+      final GradientKey other = (GradientKey) obj;
+      return this.hash == other.hash
+        && this.length == other.length
+        && contentEquals(this.text, other.text)
+        && Arrays.equals(this.colors, other.colors);
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+
+    private static int hash(final @Nullable CharSequence text) {
+      if (text == null) {
+        return 0;
+      }
+      int hash = 0;
+      for (int i = 0; i < text.length(); i++) {
+        hash = 31 * hash + text.charAt(i);
+      }
+      return hash;
+    }
+
+    private static boolean contentEquals(final @Nullable CharSequence first, final @Nullable CharSequence second) {
+      if (first == null || second == null) {
+        return first == second;
+      }
+      if (first.length() != second.length()) {
+        return false;
+      }
+      for (int i = 0; i < first.length(); i++) {
+        if (first.charAt(i) != second.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
 }
@@ -0,0 +1,258 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * Thread-safe fixed-point number formatting without locking or allocation.
+ *
+ * <p>Digits are written into a buffer owned by the calling thread, and the returned
+ * {@link CharSequence} is only valid until the next call to {@code format} on that thread. Pass it
+ * straight to {@code Components.gradient} or call {@link Object#toString()} to keep it.</p>
+ *
+ * <p>Values below 10<sup>11</sup> are rounded on the exact binary value of the double using
+ * integer arithmetic, which gives the same result as {@link DecimalFormat}. Larger values take a
+ * slower path through {@link BigDecimal} that mirrors its handling of the shortest decimal
+ * representation, so output is the same for every input.</p>
+ */
+@DefaultQualifier(NonNull.class)
+public final class FixedPointFormat {
+  // Below this, a double is precise enough that rounding its exact value gives the same result
+  // as rounding its shortest decimal representation
+  private static final double FAST_PATH_LIMIT = 1.0E11D;
+  private static final BigDecimal FIVE = BigDecimal.valueOf(5L);
+  private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1000L};
+  private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(32));
+
+  /**
+   * Same output as {@code new DecimalFormat("0.00")} in the default format locale.
+   */
+  public static final FixedPointFormat TWO_DECIMALS = localized(2, 2, RoundingMode.HALF_EVEN, true);
+  /**
+   * Same output as {@code String.format("%.1f", value)} for values whose shortest decimal form is
+   * exact, such as byte counts divided by 1024.
+   */
+  public static final FixedPointFormat ONE_DECIMAL = localized(1, 1, RoundingMode.HALF_UP, false);
+  /**
+   * Same output as {@link Double#toString(double)} for values already rounded to at most two
+   * decimal places, with a magnitude below 10<sup>7</sup>.
+   */
+  public static final FixedPointFormat COMPACT = new FixedPointFormat(2, 1, RoundingMode.HALF_UP, '0', '.', "-", "NaN", "Infinity");
+  /**
+   * Same output as {@link String#valueOf(long)}.
+   */
+  public static final FixedPointFormat INTEGER = new FixedPointFormat(0, 0, RoundingMode.HALF_UP, '0', '.', "-", "NaN", "Infinity");
+
+  private final int maximumDecimals;
+  private final int minimumDecimals;
+  private final RoundingMode roundingMode;
+  private final char zeroDigit;
+  private final char decimalSeparator;
+  private final String negativePrefix;
+  private final String nan;
+  private final String infinity;
+
+  private FixedPointFormat(
+    final int maximumDecimals,
+    final int minimumDecimals,
+    final RoundingMode roundingMode,
+    final char zeroDigit,
+    final char decimalSeparator,
+    final String negativePrefix,
+    final String nan,
+    final String infinity
+  ) {
+    if (maximumDecimals < 0 || maximumDecimals >= POWERS_OF_TEN.length || minimumDecimals > maximumDecimals) {
+      throw new IllegalArgumentException("Unsupported number of decimals: " + minimumDecimals + ".." + maximumDecimals);
+    }
+    this.maximumDecimals = maximumDecimals;
+    this.minimumDecimals = minimumDecimals;
+    this.roundingMode = roundingMode;
+    this.zeroDigit = zeroDigit;
+    this.decimalSeparator = decimalSeparator;
+    this.negativePrefix = negativePrefix;
+    this.nan = nan;
+    this.infinity = infinity;
+  }
+
+  private static FixedPointFormat localized(
+    final int maximumDecimals,
+    final int minimumDecimals,
+    final RoundingMode roundingMode,
+    final boolean decimalFormat
+  ) {
+    final DecimalFormat format = new DecimalFormat("0.00");
+    final DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+    return new FixedPointFormat(
+      maximumDecimals,
+      minimumDecimals,
+      roundingMode,
+      symbols.getZeroDigit(),
+      symbols.getDecimalSeparator(),
+      // Formatter always uses an ASCII minus and spells out non-finite values
+      decimalFormat ? format.getNegativePrefix() : "-",
+      decimalFormat ? symbols.getNaN() : "NaN",
+      decimalFormat ? symbols.getInfinity() : "Infinity"
+    );
+  }
+
+  /**
+   * Format a value.
+   *
+   * @param value value
+   * @return formatted value, valid until the next call on this thread
+   */
+  public CharSequence format(final double value) {
+    final StringBuilder buffer = BUFFER.get();
+    buffer.setLength(0);
+    if (Double.isNaN(value)) {
+      return buffer.append(this.nan);
+    }
+    // The sign is kept for negative values which round to zero, and for negative zero
+    final long bits = Double.doubleToRawLongBits(value);
+    if (bits < 0) {
+      buffer.append(this.negativePrefix);
+    }
+    if (Double.isInfinite(value)) {
+      return buffer.append(this.infinity);
+    }
+
+    final int biasedExponent = (int) (bits >>> 52 & 0x7FF);
+    final long fraction = bits & 0xFFFFFFFFFFFFFL;
+    final long mantissa = biasedExponent == 0 ? fraction : fraction | 1L << 52;
+    // value = mantissa * 2^-shift
+    final int shift = 1075 - Math.max(biasedExponent, 1);
+    if (Math.abs(value) >= FAST_PATH_LIMIT) {
+      this.appendSlow(buffer, Math.abs(value));
+      return buffer;
+    }
+
+    final long scale = POWERS_OF_TEN[this.maximumDecimals];
+    final long scaled = mantissa * scale;
+    long unscaled;
+    if (shift >= 64) {
+      // scaled < 2^63 <= half a unit, so always rounds down
+      unscaled = 0L;
+    } else {
+      unscaled = scaled >>> shift;
+      final long remainder = scaled & (1L << shift) - 1;
+      final long half = 1L << shift - 1;
+      if (remainder > half || remainder == half && (this.roundingMode == RoundingMode.HALF_UP || (unscaled & 1L) != 0L)) {
+        unscaled++;
+      }
+    }
+    this.appendInteger(buffer, unscaled / scale);
+    this.appendFraction(buffer, unscaled % scale);
+    return buffer;
+  }
+
+  /**
+   * Format an integer value.
+   *
+   * @param value value
+   * @return formatted value, valid until the next call on this thread
+   */
+  public CharSequence format(final long value) {
+    final StringBuilder buffer = BUFFER.get();
+    buffer.setLength(0);
+    if (value < 0L) {
+      buffer.append(this.negativePrefix);
+    }
+    if (value == Long.MIN_VALUE) {
+      // Not representable as a positive long
+      this.appendInteger(buffer, -(value / 10L));
+      buffer.append((char) (this.zeroDigit + 8));
+    } else {
+      this.appendInteger(buffer, Math.abs(value));
+    }
+    this.appendFraction(buffer, 0L);
+    return buffer;
+  }
+
+  private void appendInteger(final StringBuilder buffer, final long value) {
+    final int start = buffer.length();
+    long remaining = value;
+    do {
+      buffer.append((char) (this.zeroDigit + (int) (remaining % 10L)));
+      remaining /= 10L;
+    } while (remaining != 0L);
+    reverse(buffer, start, buffer.length() - 1);
+  }
+
+  private void appendFraction(final StringBuilder buffer, final long fraction) {
+    int decimals = this.maximumDecimals;
+    long digits = fraction;
+    while (decimals > this.minimumDecimals && digits % 10L == 0L) {
+      digits /= 10L;
+      decimals--;
+    }
+    if (decimals == 0) {
+      return;
+    }
+    buffer.append(this.decimalSeparator);
+    final int start = buffer.length();
+    for (int i = 0; i < decimals; i++) {
+      buffer.append((char) (this.zeroDigit + (int) (digits % 10L)));
+      digits /= 10L;
+    }
+    reverse(buffer, start, buffer.length() - 1);
+  }
+
+  private void appendSlow(final StringBuilder buffer, final double magnitude) {
+    // DecimalFormat and Formatter round the shortest decimal representation rather than the
+    // exact value, which only differs once a double's precision nears the number of decimals
+    final BigDecimal shortest = BigDecimal.valueOf(magnitude);
+    BigDecimal rounded = shortest.setScale(this.maximumDecimals, this.roundingMode);
+    if (this.roundingMode == RoundingMode.HALF_EVEN
+      && shortest.subtract(rounded).abs().scaleByPowerOfTen(this.maximumDecimals + 1).compareTo(FIVE) == 0) {
+      // DecimalFormat settles ties in the shortest representation using the exact value
+      rounded = new BigDecimal(magnitude).setScale(this.maximumDecimals, this.roundingMode);
+    }
+    final String plain = rounded.toPlainString();
+    final int point = plain.indexOf('.');
+    final int integerEnd = point == -1 ? plain.length() : point;
+    for (int i = 0; i < integerEnd; i++) {
+      buffer.append((char) (this.zeroDigit + plain.charAt(i) - '0'));
+    }
+    long fraction = 0L;
+    for (int i = integerEnd + 1; i < plain.length(); i++) {
+      fraction = fraction * 10L + plain.charAt(i) - '0';
+    }
+    this.appendFraction(buffer, fraction);
+  }
+
+  private static void reverse(final StringBuilder buffer, final int from, final int to) {
+    for (int i = from, j = to; i < j; i++, j--) {
+      final char c = buffer.charAt(i);
+      buffer.setCharAt(i, buffer.charAt(j));
+      buffer.setCharAt(j, c);
+    }
+  }
+}
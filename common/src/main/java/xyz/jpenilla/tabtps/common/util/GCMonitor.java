@@ -0,0 +1,297 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.util;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * Records garbage collections reported through {@link GarbageCollectionNotificationInfo} notifications.
+ *
+ * <p>The notification listener only performs a handful of atomic writes into a fixed size ring, so it
+ * never blocks the JMX notification thread. Readers scan the ring without locking and skip entries
+ * that are overwritten while being read.</p>
+ */
+@DefaultQualifier(NonNull.class)
+public final class GCMonitor {
+  private static final int CAPACITY = 256;
+  private static final int MASK = CAPACITY - 1;
+  private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+  private final List<Collector> collectors = new ArrayList<>();
+  private final Set<String> heapPools = new HashSet<>();
+  private final NotificationListener listener = this::handleNotification;
+
+  // Ring of recent collections, one array per field. A slot is valid while seqs[slot] equals its sequence number.
+  private final AtomicLong writeSequence = new AtomicLong();
+  private final AtomicLongArray seqs = new AtomicLongArray(CAPACITY);
+  private final AtomicLongArray times = new AtomicLongArray(CAPACITY);
+  private final AtomicLongArray collectorIndexes = new AtomicLongArray(CAPACITY);
+  private final AtomicLongArray durations = new AtomicLongArray(CAPACITY);
+  private final AtomicLongArray allocated = new AtomicLongArray(CAPACITY);
+  private final AtomicLongArray intervals = new AtomicLongArray(CAPACITY); // milliseconds
+
+  private final AtomicLong lastUsedAfter = new AtomicLong(-1L);
+  // Collection end time in milliseconds since JVM start, notifications may be delivered in bursts
+  private final AtomicLong lastCollectionEnd = new AtomicLong(ManagementFactory.getRuntimeMXBean().getUptime());
+
+  public GCMonitor() {
+    for (int i = 0; i < CAPACITY; i++) {
+      this.seqs.set(i, -1L);
+    }
+    for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        this.heapPools.add(pool.getName());
+      }
+    }
+    for (final GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+      if (bean instanceof NotificationEmitter) {
+        final Collector collector = new Collector(this.collectors.size(), bean.getName());
+        this.collectors.add(collector);
+        ((NotificationEmitter) bean).addNotificationListener(this.listener, null, collector);
+      }
+    }
+  }
+
+  public void shutdown() {
+    for (final GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+      if (bean instanceof NotificationEmitter) {
+        try {
+          ((NotificationEmitter) bean).removeNotificationListener(this.listener);
+        } catch (final ListenerNotFoundException ignored) {
+        }
+      }
+    }
+  }
+
+  private void handleNotification(final Notification notification, final Object handback) {
+    if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+      return;
+    }
+    final long now = System.nanoTime();
+    final Collector collector = (Collector) handback;
+    final GcInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData()).getGcInfo();
+    final long usedBefore = this.heapUsed(info.getMemoryUsageBeforeGc());
+    final long usedAfter = this.heapUsed(info.getMemoryUsageAfterGc());
+
+    // Whatever the heap grew by since the previous collection finished was allocated in between
+    final long previousUsedAfter = this.lastUsedAfter.getAndSet(usedAfter);
+    final long allocatedBytes = previousUsedAfter < 0 ? 0L : Math.max(0L, usedBefore - previousUsedAfter);
+    final long interval = Math.max(0L, info.getEndTime() - this.lastCollectionEnd.getAndSet(info.getEndTime()));
+
+    collector.count.incrementAndGet();
+    collector.time.addAndGet(info.getDuration());
+    collector.reclaimed.addAndGet(Math.max(0L, usedBefore - usedAfter));
+
+    final long seq = this.writeSequence.getAndIncrement();
+    final int slot = (int) (seq & MASK);
+    this.seqs.set(slot, -1L);
+    this.times.set(slot, now);
+    this.collectorIndexes.set(slot, collector.index);
+    this.durations.set(slot, info.getDuration());
+    this.allocated.set(slot, allocatedBytes);
+    this.intervals.set(slot, interval);
+    this.seqs.set(slot, seq);
+  }
+
+  private long heapUsed(final Map<String, MemoryUsage> usage) {
+    long used = 0L;
+    for (final Map.Entry<String, MemoryUsage> entry : usage.entrySet()) {
+      if (this.heapPools.contains(entry.getKey())) {
+        used += entry.getValue().getUsed();
+      }
+    }
+    return used;
+  }
+
+  /**
+   * Get a summary of recent collections.
+   *
+   * @return statistics snapshot
+   */
+  public Statistics statistics() {
+    final long now = System.nanoTime();
+    final long newest = this.writeSequence.get() - 1;
+    long pauseTime = 0L;
+    long lastPause = -1L;
+    long windowAllocated = 0L;
+    long windowInterval = 0L;
+    for (long seq = newest; seq >= 0 && seq > newest - CAPACITY; seq--) {
+      final int slot = (int) (seq & MASK);
+      if (this.seqs.get(slot) != seq) {
+        continue;
+      }
+      final long time = this.times.get(slot);
+      final int collector = (int) this.collectorIndexes.get(slot);
+      final long duration = this.durations.get(slot);
+      final long allocatedBytes = this.allocated.get(slot);
+      final long interval = this.intervals.get(slot);
+      if (this.seqs.get(slot) != seq) {
+        // Overwritten while reading
+        continue;
+      }
+      final boolean pause = this.collectors.get(collector).pause;
+      if (pause && lastPause < 0) {
+        lastPause = duration;
+      }
+      if (now - time <= WINDOW_NANOS) {
+        if (pause) {
+          pauseTime += duration;
+        }
+        windowAllocated += allocatedBytes;
+        windowInterval += interval;
+      } else {
+        if (windowInterval == 0) {
+          // No collections in the window, so use the most recent one for the allocation rate
+          windowAllocated = allocatedBytes;
+          windowInterval = interval;
+        }
+        if (lastPause >= 0) {
+          break;
+        }
+      }
+    }
+    final double allocationRate = windowInterval == 0 ? 0 : windowAllocated / (windowInterval / 1000.0D);
+    return new Statistics(pauseTime, Math.max(0L, lastPause), allocationRate);
+  }
+
+  /**
+   * Get per-collector totals since startup.
+   *
+   * @return collector statistics
+   */
+  public List<CollectorStatistics> collectors() {
+    final List<CollectorStatistics> list = new ArrayList<>(this.collectors.size());
+    for (final Collector collector : this.collectors) {
+      list.add(new CollectorStatistics(collector.name, collector.count.get(), collector.time.get(), collector.reclaimed.get()));
+    }
+    return Collections.unmodifiableList(list);
+  }
+
+  private static final class Collector {
+    final int index;
+    final String name;
+    // Concurrent collectors report cycle durations rather than stop-the-world pauses
+    final boolean pause;
+    final AtomicLong count = new AtomicLong();
+    final AtomicLong time = new AtomicLong();
+    final AtomicLong reclaimed = new AtomicLong();
+
+    Collector(final int index, final String name) {
+      this.index = index;
+      this.name = name;
+      this.pause = !name.contains("Cycles") && !name.contains("Concurrent");
+    }
+  }
+
+  public static final class Statistics {
+    private final long pauseMillisPerMinute;
+    private final long lastPauseMillis;
+    private final double allocationRate;
+
+    Statistics(final long pauseMillisPerMinute, final long lastPauseMillis, final double allocationRate) {
+      this.pauseMillisPerMinute = pauseMillisPerMinute;
+      this.lastPauseMillis = lastPauseMillis;
+      this.allocationRate = allocationRate;
+    }
+
+    /**
+     * Total time spent in collection pauses during the last minute.
+     *
+     * @return pause time in milliseconds
+     */
+    public long pauseMillisPerMinute() {
+      return this.pauseMillisPerMinute;
+    }
+
+    /**
+     * Duration of the most recent collection pause.
+     *
+     * @return pause time in milliseconds, or 0 if none was recorded
+     */
+    public long lastPauseMillis() {
+      return this.lastPauseMillis;
+    }
+
+    /**
+     * Heap allocation rate, derived from heap usage before and after recent collections.
+     *
+     * @return bytes per second
+     */
+    public double allocationRate() {
+      return this.allocationRate;
+    }
+  }
+
+  public static final class CollectorStatistics {
+    private final String name;
+    private final long count;
+    private final long timeMillis;
+    private final long reclaimedBytes;
+
+    CollectorStatistics(final String name, final long count, final long timeMillis, final long reclaimedBytes) {
+      this.name = name;
+      this.count = count;
+      this.timeMillis = timeMillis;
+      this.reclaimedBytes = reclaimedBytes;
+    }
+
+    public String name() {
+      return this.name;
+    }
+
+    public long count() {
+      return this.count;
+    }
+
+    public long timeMillis() {
+      return this.timeMillis;
+    }
+
+    public long reclaimedBytes() {
+      return this.reclaimedBytes;
+    }
+  }
+}
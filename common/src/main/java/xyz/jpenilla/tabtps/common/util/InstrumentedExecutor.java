@@ -0,0 +1,373 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.util;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * A named {@link ScheduledExecutorService} which records how long tasks wait past their due time
+ * before they start, and how long they run.
+ *
+ * <p>Instances are created for one of three backends: a sized pool of platform threads, a single
+ * timer thread which dispatches every task onto a new virtual thread, or an executor supplied by
+ * the caller, which is left running on {@link #shutdown()}.</p>
+ */
+@DefaultQualifier(NonNull.class)
+public final class InstrumentedExecutor extends AbstractExecutorService implements ScheduledExecutorService {
+  private final String name;
+  private final String backend;
+  private final ScheduledExecutorService delegate;
+  private final int parallelism;
+  private final IntSupplier queued;
+  private final boolean owned;
+  private final AtomicInteger active = new AtomicInteger();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder latencyNanos = new LongAdder();
+  private final LongAdder runNanos = new LongAdder();
+  private volatile boolean shutdown = false;
+
+  private InstrumentedExecutor(
+    final String name,
+    final String backend,
+    final ScheduledExecutorService delegate,
+    final int parallelism,
+    final IntSupplier queued,
+    final boolean owned
+  ) {
+    this.name = name;
+    this.backend = backend;
+    this.delegate = delegate;
+    this.parallelism = parallelism;
+    this.queued = queued;
+    this.owned = owned;
+  }
+
+  /**
+   * Create an executor backed by a pool of platform threads.
+   *
+   * @param name    executor name, used for thread names
+   * @param threads number of threads
+   * @return the executor
+   */
+  public static InstrumentedExecutor platformThreads(final String name, final int threads) {
+    final ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(threads, threadFactory(name));
+    pool.setRemoveOnCancelPolicy(true);
+    return new InstrumentedExecutor(name, "platform", pool, threads, () -> dueTasks(pool), true);
+  }
+
+  /**
+   * Create an executor which runs every task on a new virtual thread, dispatched from a single
+   * timer thread.
+   *
+   * <p>Its queue depth is reported as -1: tasks waiting for a carrier thread are queued in the
+   * JDK's scheduler, which does not expose them.</p>
+   *
+   * @param name executor name, used for thread names
+   * @return the executor, or {@code null} if virtual threads are not available on this runtime
+   */
+  public static @Nullable InstrumentedExecutor virtualThreads(final String name) {
+    final @Nullable VirtualThreadExecutor executor = VirtualThreadExecutor.create(name);
+    if (executor == null) {
+      return null;
+    }
+    return new InstrumentedExecutor(name, "virtual", executor, Runtime.getRuntime().availableProcessors(), () -> -1, true);
+  }
+
+  /**
+   * Instrument an executor supplied by the caller. It is not shut down by {@link #shutdown()}.
+   *
+   * @param name        executor name
+   * @param executor    executor
+   * @param parallelism how many tasks the executor runs at once, if it is not a thread pool
+   * @return the executor
+   */
+  public static InstrumentedExecutor provided(final String name, final ScheduledExecutorService executor, final int parallelism) {
+    if (executor instanceof ScheduledThreadPoolExecutor) {
+      final ScheduledThreadPoolExecutor pool = (ScheduledThreadPoolExecutor) executor;
+      return new InstrumentedExecutor(name, "provided", pool, Math.max(1, pool.getCorePoolSize()), () -> dueTasks(pool), false);
+    }
+    return new InstrumentedExecutor(name, "provided", executor, Math.max(1, parallelism), () -> -1, false);
+  }
+
+  /**
+   * Create a thread factory for daemon threads named after an executor.
+   *
+   * @param name executor name
+   * @return thread factory
+   */
+  public static ThreadFactory threadFactory(final String name) {
+    final AtomicInteger count = new AtomicInteger();
+    return runnable -> {
+      final Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  private static int dueTasks(final ScheduledThreadPoolExecutor pool) {
+    int due = 0;
+    for (final Runnable task : pool.getQueue()) {
+      if (task instanceof Delayed && ((Delayed) task).getDelay(TimeUnit.NANOSECONDS) <= 0L) {
+        due++;
+      }
+    }
+    return due;
+  }
+
+  public String name() {
+    return this.name;
+  }
+
+  /**
+   * Get the kind of executor backing this one, {@code platform}, {@code virtual} or {@code provided}.
+   *
+   * @return backend name
+   */
+  public String backend() {
+    return this.backend;
+  }
+
+  /**
+   * Get how many tasks may run at once. For virtual threads this is the number of carrier threads.
+   *
+   * @return parallelism
+   */
+  public int parallelism() {
+    return this.parallelism;
+  }
+
+  public int activeTasks() {
+    return this.active.get();
+  }
+
+  /**
+   * Get the number of tasks which are due but have not started yet.
+   *
+   * @return queue depth, or -1 if the backend does not expose its queue
+   */
+  public int queuedTasks() {
+    return this.queued.getAsInt();
+  }
+
+  public long completedTasks() {
+    return this.completed.sum();
+  }
+
+  public long failedTasks() {
+    return this.failed.sum();
+  }
+
+  /**
+   * Get the total time tasks have spent waiting past their due time before starting.
+   *
+   * @return total latency in nanoseconds
+   */
+  public long totalLatencyNanos() {
+    return this.latencyNanos.sum();
+  }
+
+  /**
+   * Get the total time tasks have spent running.
+   *
+   * @return total run time in nanoseconds
+   */
+  public long totalRunNanos() {
+    return this.runNanos.sum();
+  }
+
+  @Override
+  public void execute(final Runnable command) {
+    this.ensureRunning();
+    final long due = System.nanoTime();
+    this.delegate.execute(() -> this.run(command, due));
+  }
+
+  @Override
+  public ScheduledFuture<?> schedule(final Runnable command, final long delay, final TimeUnit unit) {
+    this.ensureRunning();
+    final long due = System.nanoTime() + unit.toNanos(delay);
+    return this.delegate.schedule(() -> this.run(command, due), delay, unit);
+  }
+
+  @Override
+  public <V> ScheduledFuture<V> schedule(final Callable<V> callable, final long delay, final TimeUnit unit) {
+    this.ensureRunning();
+    final long due = System.nanoTime() + unit.toNanos(delay);
+    return this.delegate.schedule(() -> this.call(callable, due), delay, unit);
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleAtFixedRate(final Runnable command, final long initialDelay, final long period, final TimeUnit unit) {
+    this.ensureRunning();
+    final Periodic task = new Periodic(command, System.nanoTime() + unit.toNanos(initialDelay), unit.toNanos(period));
+    return this.delegate.scheduleAtFixedRate(task, initialDelay, period, unit);
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleWithFixedDelay(final Runnable command, final long initialDelay, final long delay, final TimeUnit unit) {
+    this.ensureRunning();
+    final Periodic task = new Periodic(command, System.nanoTime() + unit.toNanos(initialDelay), -unit.toNanos(delay));
+    return this.delegate.scheduleWithFixedDelay(task, initialDelay, delay, unit);
+  }
+
+  private void ensureRunning() {
+    if (this.shutdown) {
+      throw new RejectedExecutionException("Executor '" + this.name + "' has been shut down");
+    }
+  }
+
+  private void run(final Runnable task, final long due) {
+    final long start = this.begin(due);
+    boolean success = false;
+    try {
+      task.run();
+      success = true;
+    } finally {
+      this.end(start, success);
+    }
+  }
+
+  private <V> V call(final Callable<V> task, final long due) throws Exception {
+    final long start = this.begin(due);
+    boolean success = false;
+    try {
+      final V result = task.call();
+      success = true;
+      return result;
+    } finally {
+      this.end(start, success);
+    }
+  }
+
+  private long begin(final long due) {
+    final long start = System.nanoTime();
+    this.latencyNanos.add(Math.max(0L, start - due));
+    this.active.incrementAndGet();
+    return start;
+  }
+
+  private long end(final long start, final boolean success) {
+    final long end = System.nanoTime();
+    this.active.decrementAndGet();
+    this.runNanos.add(end - start);
+    if (success) {
+      this.completed.increment();
+    } else {
+      this.failed.increment();
+    }
+    return end;
+  }
+
+  @Override
+  public void shutdown() {
+    this.shutdown = true;
+    if (this.owned) {
+      this.delegate.shutdown();
+    }
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    this.shutdown = true;
+    if (this.owned) {
+      return this.delegate.shutdownNow();
+    }
+    return Collections.emptyList();
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return this.shutdown;
+  }
+
+  @Override
+  public boolean isTerminated() {
+    if (this.owned) {
+      return this.delegate.isTerminated();
+    }
+    return this.shutdown && this.active.get() == 0;
+  }
+
+  @Override
+  public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+    if (this.owned) {
+      return this.delegate.awaitTermination(timeout, unit);
+    }
+    // The caller owns the executor, so only wait for our own tasks to finish
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    while (!this.isTerminated()) {
+      if (System.nanoTime() - deadline >= 0L) {
+        return false;
+      }
+      Thread.sleep(10L);
+    }
+    return true;
+  }
+
+  /**
+   * Tracks the due time of a periodic task across runs. Periods are positive for fixed rate and
+   * negative for fixed delay tasks, like in {@link ScheduledThreadPoolExecutor}.
+   */
+  private final class Periodic implements Runnable {
+    private final Runnable task;
+    private final long period;
+    private long due;
+
+    Periodic(final Runnable task, final long due, final long period) {
+      this.task = task;
+      this.due = due;
+      this.period = period;
+    }
+
+    @Override
+    public void run() {
+      final long start = InstrumentedExecutor.this.begin(this.due);
+      boolean success = false;
+      try {
+        this.task.run();
+        success = true;
+      } finally {
+        final long end = InstrumentedExecutor.this.end(start, success);
+        this.due = this.period > 0L ? this.due + this.period : end - this.period;
+      }
+    }
+  }
+}
@@ -0,0 +1,244 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+import xyz.jpenilla.tabtps.common.config.PluginSettings;
+
+/**
+ * Samples the server thread's stack while a tick runs over a threshold.
+ *
+ * <p>Platforms call {@link #tickStarted()} and {@link #tickEnded()} from the server thread, which only
+ * costs a couple of volatile writes. The watchdog thread sleeps until the current tick's deadline,
+ * so nothing is sampled while ticks are healthy. Between ticks it parks until the next tick start
+ * wakes it, and the thread is only started once the first tick starts, so it costs nothing on
+ * platforms without tick hooks or while the server is not ticking.</p>
+ */
+@DefaultQualifier(NonNull.class)
+public final class LagSpikeWatchdog {
+  private static final int MAX_SAMPLES = 2000;
+
+  private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+  private final Supplier<@Nullable Thread> serverThread;
+  private final Deque<Report> reports = new ArrayDeque<>();
+
+  // Written by the server thread only
+  private volatile long tickStartTime;
+  private volatile long currentTick;
+  private volatile long tickEndTime;
+  private volatile long endedTick;
+
+  private volatile long thresholdNanos;
+  private volatile long intervalNanos;
+  private volatile int reportsKept;
+  private volatile boolean enabled;
+  private volatile @Nullable Thread thread;
+  // Whether the next tick start has to wake the watchdog thread, or start it
+  private volatile boolean idle = true;
+  private int nextReportId = 1;
+
+  public LagSpikeWatchdog(final Supplier<@Nullable Thread> serverThread, final PluginSettings.@NonNull LagSpikes settings) {
+    this.serverThread = serverThread;
+    this.configure(settings);
+  }
+
+  public void tickStarted() {
+    this.tickStartTime = System.nanoTime();
+    this.currentTick = this.currentTick + 1;
+    if (this.idle) {
+      this.idle = false;
+      final @Nullable Thread thread = this.thread;
+      if (thread != null) {
+        LockSupport.unpark(thread);
+      } else {
+        this.start();
+      }
+    }
+  }
+
+  public void tickEnded() {
+    this.tickEndTime = System.nanoTime();
+    this.endedTick = this.currentTick;
+  }
+
+  public synchronized void configure(final PluginSettings.@NonNull LagSpikes settings) {
+    this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, settings.thresholdMillis()));
+    this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, settings.sampleIntervalMillis()));
+    this.reportsKept = Math.max(1, settings.reportsKept());
+    synchronized (this.reports) {
+      while (this.reports.size() > this.reportsKept) {
+        this.reports.removeLast();
+      }
+    }
+    this.enabled = settings.enabled();
+    if (!settings.enabled()) {
+      this.shutdown();
+    } else if (this.currentTick != 0) {
+      // Otherwise the first tick starts the thread, which never happens without tick hooks
+      this.start();
+    }
+  }
+
+  private synchronized void start() {
+    if (this.enabled && this.thread == null) {
+      final Thread thread = new Thread(this::run, "TabTPS-Lag-Spike-Watchdog");
+      thread.setDaemon(true);
+      this.thread = thread;
+      thread.start();
+    }
+  }
+
+  public synchronized void shutdown() {
+    final @Nullable Thread thread = this.thread;
+    if (thread != null) {
+      this.thread = null;
+      LockSupport.unpark(thread);
+    }
+  }
+
+  /**
+   * Get the most recent spike reports.
+   *
+   * @return reports, newest first
+   */
+  public List<Report> reports() {
+    synchronized (this.reports) {
+      return Collections.unmodifiableList(new ArrayList<>(this.reports));
+    }
+  }
+
+  private void run() {
+    final Thread self = Thread.currentThread();
+    while (this.thread == self) {
+      final long tick = this.currentTick;
+      final long start = this.tickStartTime;
+      if (tick != this.currentTick) {
+        // Raced with the start of a new tick
+        continue;
+      }
+      if (tick == 0 || this.endedTick == tick) {
+        // Between ticks, wait for tickStarted() to wake this thread
+        this.idle = true;
+        // A tick which started before the flag was set would not wake it
+        if (this.currentTick == tick) {
+          LockSupport.park(this);
+        }
+        continue;
+      }
+      final long remaining = start + this.thresholdNanos - System.nanoTime();
+      if (remaining > 0) {
+        LockSupport.parkNanos(this, remaining);
+        continue;
+      }
+      this.captureSpike(tick, start);
+    }
+  }
+
+  private void captureSpike(final long tick, final long start) {
+    final @Nullable Thread server = this.serverThread.get();
+    if (server == null) {
+      this.awaitTickEnd(tick);
+      return;
+    }
+    final StackTrie trie = new StackTrie();
+    final long threadId = server.getId();
+    while (this.endedTick != tick && this.currentTick == tick && trie.samples() < MAX_SAMPLES && this.thread == Thread.currentThread()) {
+      final @Nullable ThreadInfo info = this.threads.getThreadInfo(threadId, Integer.MAX_VALUE);
+      if (info == null) {
+        break;
+      }
+      // The tick may have finished while the stack was being captured
+      if (this.endedTick == tick) {
+        break;
+      }
+      trie.add(info.getStackTrace());
+      LockSupport.parkNanos(this, this.intervalNanos);
+    }
+    this.awaitTickEnd(tick);
+    if (trie.samples() == 0) {
+      return;
+    }
+    final long duration = this.endedTick == tick ? this.tickEndTime - start : System.nanoTime() - start;
+    synchronized (this.reports) {
+      this.reports.addFirst(new Report(this.nextReportId++, System.currentTimeMillis(), duration, trie));
+      while (this.reports.size() > this.reportsKept) {
+        this.reports.removeLast();
+      }
+    }
+  }
+
+  private void awaitTickEnd(final long tick) {
+    while (this.endedTick != tick && this.currentTick == tick && this.thread == Thread.currentThread()) {
+      LockSupport.parkNanos(this, this.intervalNanos);
+    }
+  }
+
+  public static final class Report {
+    private final int id;
+    private final long timestamp;
+    private final long durationNanos;
+    private final StackTrie samples;
+
+    Report(final int id, final long timestamp, final long durationNanos, final StackTrie samples) {
+      this.id = id;
+      this.timestamp = timestamp;
+      this.durationNanos = durationNanos;
+      this.samples = samples;
+    }
+
+    public int id() {
+      return this.id;
+    }
+
+    /**
+     * When the report was captured.
+     *
+     * @return epoch milliseconds
+     */
+    public long timestamp() {
+      return this.timestamp;
+    }
+
+    public long durationNanos() {
+      return this.durationNanos;
+    }
+
+    public StackTrie samples() {
+      return this.samples;
+    }
+  }
+}
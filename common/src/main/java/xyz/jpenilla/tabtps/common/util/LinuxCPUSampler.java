@@ -0,0 +1,235 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.util;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Locale;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Reads process and system CPU usage straight from {@code /proc/self/stat} and {@code /proc/stat}.
+ *
+ * <p>Both files are kept open and re-read into a reused buffer, so sampling does not allocate.
+ * Not thread safe; intended to be sampled from a single thread.</p>
+ */
+final class LinuxCPUSampler {
+  private static final int BUFFER_SIZE = 4096;
+  // Fields of /proc/self/stat after the command name; utime is field 14 and stime field 15, the state is field 3
+  private static final int FIELDS_BEFORE_UTIME = 14 - 3;
+
+  private final RandomAccessFile processStat;
+  private final RandomAccessFile systemStat;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+
+  private long previousProcessTicks = -1L;
+  private long previousTotalTicks = -1L;
+  private long previousIdleTicks = -1L;
+  private double processCpuLoad = Double.NaN;
+  private double systemCpuLoad = Double.NaN;
+
+  // Parse state for the system stat line
+  private long totalTicks;
+  private long idleTicks;
+
+  private LinuxCPUSampler(final RandomAccessFile processStat, final RandomAccessFile systemStat) {
+    this.processStat = processStat;
+    this.systemStat = systemStat;
+  }
+
+  /**
+   * Create a sampler if running on Linux with a readable procfs.
+   *
+   * @return the sampler, or {@code null} if unsupported
+   */
+  static @Nullable LinuxCPUSampler create() {
+    if (!System.getProperty("os.name", "").toLowerCase(Locale.ROOT).startsWith("linux")) {
+      return null;
+    }
+    final RandomAccessFile processStat;
+    final RandomAccessFile systemStat;
+    try {
+      processStat = new RandomAccessFile("/proc/self/stat", "r");
+    } catch (final IOException ex) {
+      return null;
+    }
+    try {
+      systemStat = new RandomAccessFile("/proc/stat", "r");
+    } catch (final IOException ex) {
+      closeQuietly(processStat);
+      return null;
+    }
+    final LinuxCPUSampler sampler = new LinuxCPUSampler(processStat, systemStat);
+    if (!sampler.sample()) {
+      sampler.close();
+      return null;
+    }
+    return sampler;
+  }
+
+  /**
+   * Take a sample, updating {@link #processCpuLoad()} and {@link #systemCpuLoad()}.
+   *
+   * @return whether the sample was read successfully
+   */
+  boolean sample() {
+    final long processTicks;
+    try {
+      processTicks = this.parseProcessTicks(this.read(this.processStat));
+      if (processTicks < 0 || !this.parseSystemTicks(this.read(this.systemStat))) {
+        return false;
+      }
+    } catch (final IOException ex) {
+      return false;
+    }
+    if (this.previousTotalTicks >= 0) {
+      final long total = this.totalTicks - this.previousTotalTicks;
+      if (total > 0) {
+        // Clamped since the two files are not read at exactly the same instant
+        this.processCpuLoad = Math.min(100.0D, (processTicks - this.previousProcessTicks) * 100.0D / total);
+        this.systemCpuLoad = (total - (this.idleTicks - this.previousIdleTicks)) * 100.0D / total;
+      }
+    }
+    this.previousProcessTicks = processTicks;
+    this.previousTotalTicks = this.totalTicks;
+    this.previousIdleTicks = this.idleTicks;
+    return true;
+  }
+
+  /**
+   * CPU usage of this process between the last two samples, in percent of total system capacity.
+   *
+   * @return process CPU load, or {@link Double#NaN} before two samples were taken
+   */
+  double processCpuLoad() {
+    return this.processCpuLoad;
+  }
+
+  /**
+   * CPU usage of the whole system between the last two samples, in percent.
+   *
+   * @return system CPU load, or {@link Double#NaN} before two samples were taken
+   */
+  double systemCpuLoad() {
+    return this.systemCpuLoad;
+  }
+
+  void close() {
+    closeQuietly(this.processStat);
+    closeQuietly(this.systemStat);
+  }
+
+  private int read(final RandomAccessFile file) throws IOException {
+    file.seek(0L);
+    int length = 0;
+    while (length < this.buffer.length) {
+      final int read = file.read(this.buffer, length, this.buffer.length - length);
+      if (read < 0) {
+        break;
+      }
+      length += read;
+    }
+    return length;
+  }
+
+  private long parseProcessTicks(final int length) {
+    // The command name may contain spaces and parentheses, so fields are counted from the last ')'
+    int index = length - 1;
+    while (index >= 0 && this.buffer[index] != ')') {
+      index--;
+    }
+    if (index < 0) {
+      return -1L;
+    }
+    index += 2;
+    for (int field = 0; field < FIELDS_BEFORE_UTIME; field++) {
+      index = this.skipField(index, length) + 1;
+    }
+    final long utime = this.parseLong(index, length);
+    index = this.skipField(index, length) + 1;
+    final long stime = this.parseLong(index, length);
+    if (utime < 0 || stime < 0) {
+      return -1L;
+    }
+    return utime + stime;
+  }
+
+  private boolean parseSystemTicks(final int length) {
+    // cpu  user nice system idle iowait irq softirq steal guest guest_nice
+    // guest time is already counted in user and nice, so only the first 8 columns are summed
+    if (length < 4 || this.buffer[0] != 'c' || this.buffer[1] != 'p' || this.buffer[2] != 'u' || this.buffer[3] != ' ') {
+      return false;
+    }
+    int index = 3;
+    long total = 0L;
+    long idle = 0L;
+    for (int column = 0; column < 8; column++) {
+      while (index < length && this.buffer[index] == ' ') {
+        index++;
+      }
+      final long value = this.parseLong(index, length);
+      if (value < 0) {
+        // Older kernels report fewer columns
+        if (column < 4) {
+          return false;
+        }
+        break;
+      }
+      total += value;
+      if (column == 3 || column == 4) {
+        idle += value;
+      }
+      index = this.skipField(index, length);
+    }
+    this.totalTicks = total;
+    this.idleTicks = idle;
+    return true;
+  }
+
+  private int skipField(final int start, final int length) {
+    int index = start;
+    while (index < length && this.buffer[index] != ' ' && this.buffer[index] != '\n') {
+      index++;
+    }
+    return index;
+  }
+
+  private long parseLong(final int start, final int length) {
+    if (start >= length || this.buffer[start] < '0' || this.buffer[start] > '9') {
+      return -1L;
+    }
+    long value = 0L;
+    for (int index = start; index < length && this.buffer[index] >= '0' && this.buffer[index] <= '9'; index++) {
+      value = value * 10L + (this.buffer[index] - '0');
+    }
+    return value;
+  }
+
+  private static void closeQuietly(final RandomAccessFile file) {
+    try {
+      file.close();
+    } catch (final IOException ignored) {
+    }
+  }
+}
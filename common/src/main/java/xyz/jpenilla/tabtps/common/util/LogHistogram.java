@@ -0,0 +1,119 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.util;
+
+/**
+ * Compact log-linear histogram of durations, in the style of HdrHistogram.
+ *
+ * <p>Durations are recorded at microsecond resolution into buckets which split each power of two
+ * into {@value #SUB_BUCKET_COUNT} linear sub-buckets, bounding the relative error of reported
+ * values to 1/{@value #SUB_BUCKET_COUNT}. Recording and removing values is constant time and
+ * does not allocate. Values must only be recorded from a single thread.</p>
+ */
+public final class LogHistogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int MAX_EXPONENT = 31;
+  private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+  private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+  private final int[] counts = new int[BUCKET_COUNT];
+
+  /**
+   * Record a duration.
+   *
+   * @param nanos duration in nanoseconds
+   */
+  public void record(final long nanos) {
+    this.counts[bucket(nanos)]++;
+  }
+
+  /**
+   * Remove a previously recorded duration.
+   *
+   * @param nanos duration in nanoseconds
+   */
+  public void remove(final long nanos) {
+    this.counts[bucket(nanos)]--;
+  }
+
+  public void clear() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      this.counts[i] = 0;
+    }
+  }
+
+  /**
+   * Get the duration which the given percentage of recorded durations are less than or equal to.
+   *
+   * <p>The result is the highest value equivalent to the bucket the percentile falls into.</p>
+   *
+   * @param percentile percentile, from 0 to 100
+   * @return duration in nanoseconds, or {@code 0} when nothing is recorded
+   */
+  public long valueAtPercentile(final double percentile) {
+    long total = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      total += Math.max(0, this.counts[i]);
+    }
+    if (total == 0) {
+      return 0L;
+    }
+    final double clamped = Math.min(100.0D, Math.max(0.0D, percentile));
+    final long rank = Math.max(1L, (long) Math.ceil(clamped / 100.0D * total));
+    long seen = 0;
+    int last = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      final int count = this.counts[i];
+      if (count <= 0) {
+        continue;
+      }
+      last = i;
+      seen += count;
+      if (seen >= rank) {
+        break;
+      }
+    }
+    return highestEquivalentValue(last) * 1000L;
+  }
+
+  static int bucket(final long nanos) {
+    final long micros = Math.min(MAX_VALUE, Math.max(0L, nanos / 1000L));
+    if (micros < SUB_BUCKET_COUNT) {
+      return (int) micros;
+    }
+    final int exponent = 63 - Long.numberOfLeadingZeros(micros);
+    final int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  static long highestEquivalentValue(final int bucket) {
+    if (bucket < SUB_BUCKET_COUNT) {
+      return bucket;
+    }
+    final int shift = bucket / SUB_BUCKET_COUNT - 1;
+    final long lowest = (long) (SUB_BUCKET_COUNT + bucket % SUB_BUCKET_COUNT) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+}
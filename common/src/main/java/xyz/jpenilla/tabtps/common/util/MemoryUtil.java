@@ -25,8 +25,6 @@ package xyz.jpenilla.tabtps.common.util;
 
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryUsage;
-import java.text.CharacterIterator;
-import java.text.StringCharacterIterator;
 import java.util.stream.IntStream;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextComponent;
@@ -46,6 +44,8 @@ import static net.kyori.adventure.text.format.TextColor.color;
 import static net.kyori.adventure.text.format.TextDecoration.ITALIC;
 
 public final class MemoryUtil {
+  private static final String[] BINARY_UNITS = {"KiB", "MiB", "GiB", "TiB", "PiB", "EiB"};
+
   private MemoryUtil() {
   }
 
@@ -141,20 +141,20 @@ public final class MemoryUtil {
     final long absB = bytes == Long.MIN_VALUE ? Long.MAX_VALUE : Math.abs(bytes);
     if (absB < 1024) {
       return Components.ofChildren(
-        Components.gradient(String.valueOf(bytes), BLUE, AQUA),
+        Components.gradient(FixedPointFormat.INTEGER.format(bytes), BLUE, AQUA),
         text("B", GRAY)
       );
     }
     long value = absB;
-    final CharacterIterator ci = new StringCharacterIterator("KMGTPE");
+    int unit = 0;
     for (int i = 40; i >= 0 && absB > 0xfffccccccccccccL >> i; i -= 10) {
       value >>= 10;
-      ci.next();
+      unit++;
     }
     value *= Long.signum(bytes);
     return Components.ofChildren(
-      Components.gradient(String.format("%.1f", value / 1024.0), BLUE, AQUA),
-      text(String.format("%ciB", ci.current()), GRAY)
+      Components.gradient(FixedPointFormat.ONE_DECIMAL.format(value / 1024.0), BLUE, AQUA),
+      text(BINARY_UNITS[unit], GRAY)
     );
   }
 }
@@ -23,13 +23,14 @@
  */
 package xyz.jpenilla.tabtps.common.util;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import org.checkerframework.checker.nullness.qual.NonNull;
-
 /**
  * Based on the MIT licensed Paper-Server patch "Further improve server tick loop".
  *
+ * <p>Samples are kept as primitives and the running total is maintained with
+ * compensated (Neumaier) summation, so adding a sample does not allocate. The
+ * total is rebuilt from the samples each time the window wraps around to keep
+ * rounding error from accumulating over long uptimes.</p>
+ *
  * @author Daniel Ennis/Aikar
  */
 public final class RollingAverage {
@@ -37,44 +38,60 @@ public final class RollingAverage {
   public static final int SAMPLE_INTERVAL = 20;
   public static final long SEC_IN_NANO = 1000000000;
   public static final int TICK_TIME = (int) SEC_IN_NANO / SAMPLE_INTERVAL;
-  public static final BigDecimal TPS_BASE = new BigDecimal("1E9").multiply(new BigDecimal(SAMPLE_INTERVAL));
+  public static final double TPS_BASE = 1.0E9D * SAMPLE_INTERVAL;
 
   private final int size;
-  private final BigDecimal[] samples;
+  private final double[] samples;
   private final long[] times;
   private long time;
-  private BigDecimal total;
+  private double total;
+  private double compensation;
   private int index = 0;
 
   public RollingAverage(final int size) {
     this.size = size;
-    this.samples = new BigDecimal[size];
+    this.samples = new double[size];
     this.times = new long[size];
     this.time = size * SEC_IN_NANO;
-    this.total = dec(TPS).multiply(dec(SEC_IN_NANO)).multiply(dec(size));
     for (int i = 0; i < size; i++) {
-      this.samples[i] = dec(TPS);
+      this.samples[i] = TPS;
       this.times[i] = SEC_IN_NANO;
     }
+    this.rebuildTotal();
   }
 
-  private static @NonNull BigDecimal dec(final long t) {
-    return new BigDecimal(t);
-  }
-
-  public void add(final @NonNull BigDecimal x, final long t) {
+  public void add(final double x, final long t) {
     this.time -= this.times[this.index];
-    this.total = this.total.subtract(this.samples[this.index].multiply(dec(this.times[this.index])));
+    this.accumulate(-(this.samples[this.index] * this.times[this.index]));
     this.samples[this.index] = x;
     this.times[this.index] = t;
     this.time += t;
-    this.total = this.total.add(x.multiply(dec(t)));
+    this.accumulate(x * t);
     if (++this.index == this.size) {
       this.index = 0;
+      this.rebuildTotal();
     }
   }
 
   public double average() {
-    return this.total.divide(dec(this.time), 30, RoundingMode.HALF_UP).doubleValue();
+    return (this.total + this.compensation) / this.time;
+  }
+
+  private void accumulate(final double value) {
+    final double sum = this.total + value;
+    if (Math.abs(this.total) >= Math.abs(value)) {
+      this.compensation += (this.total - sum) + value;
+    } else {
+      this.compensation += (value - sum) + this.total;
+    }
+    this.total = sum;
+  }
+
+  private void rebuildTotal() {
+    this.total = 0;
+    this.compensation = 0;
+    for (int i = 0; i < this.size; i++) {
+      this.accumulate(this.samples[i] * this.times[i]);
+    }
   }
 }
@@ -0,0 +1,169 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * On-demand sampling profiler for the server thread.
+ *
+ * <p>Samples are aggregated into a {@link StackTrie} on a dedicated thread, so a sample only costs
+ * the stack capture itself; repeated stacks reuse existing trie nodes and interned frame names.</p>
+ */
+@DefaultQualifier(NonNull.class)
+public final class SamplingProfiler {
+  private final Supplier<@Nullable Thread> serverThread;
+  private @Nullable Session session;
+
+  public SamplingProfiler(final Supplier<@Nullable Thread> serverThread) {
+    this.serverThread = serverThread;
+  }
+
+  /**
+   * Start profiling.
+   *
+   * @param intervalMillis milliseconds between samples
+   * @param durationSeconds seconds to profile for before stopping automatically
+   * @return future completed with the profile once profiling stops
+   * @throws IllegalStateException if the profiler is already running or the server thread is unknown
+   */
+  public synchronized CompletableFuture<Profile> start(final int intervalMillis, final int durationSeconds) {
+    if (this.session != null) {
+      throw new IllegalStateException("Profiler is already running");
+    }
+    final @Nullable Thread target = this.serverThread.get();
+    if (target == null) {
+      throw new IllegalStateException("Server thread is not available");
+    }
+    final Session session = new Session(
+      target,
+      TimeUnit.MILLISECONDS.toNanos(intervalMillis),
+      TimeUnit.SECONDS.toNanos(durationSeconds)
+    );
+    this.session = session;
+    final Thread thread = new Thread(session, "TabTPS-Profiler");
+    thread.setDaemon(true);
+    session.thread = thread;
+    thread.start();
+    return session.future;
+  }
+
+  /**
+   * Stop profiling.
+   *
+   * @return future completed with the profile, or {@code null} if the profiler was not running
+   */
+  public synchronized @Nullable CompletableFuture<Profile> stop() {
+    final @Nullable Session session = this.session;
+    if (session == null) {
+      return null;
+    }
+    session.stopped = true;
+    LockSupport.unpark(session.thread);
+    return session.future;
+  }
+
+  public synchronized boolean running() {
+    return this.session != null;
+  }
+
+  public void shutdown() {
+    this.stop();
+  }
+
+  private synchronized void finished(final Session session) {
+    if (this.session == session) {
+      this.session = null;
+    }
+  }
+
+  private final class Session implements Runnable {
+    final CompletableFuture<Profile> future = new CompletableFuture<>();
+    final StackTrie samples = new StackTrie();
+    final Thread target;
+    final long intervalNanos;
+    final long durationNanos;
+    @Nullable Thread thread;
+    volatile boolean stopped;
+
+    Session(final Thread target, final long intervalNanos, final long durationNanos) {
+      this.target = target;
+      this.intervalNanos = intervalNanos;
+      this.durationNanos = durationNanos;
+    }
+
+    @Override
+    public void run() {
+      final long start = System.nanoTime();
+      final long end = start + this.durationNanos;
+      long next = start;
+      try {
+        while (!this.stopped && this.target.isAlive()) {
+          this.samples.add(this.target.getStackTrace());
+          // Schedule against a fixed rate so slow captures do not skew the sample distribution
+          next += this.intervalNanos;
+          final long now = System.nanoTime();
+          if (next - end >= 0) {
+            break;
+          }
+          if (next - now > 0) {
+            LockSupport.parkNanos(this, next - now);
+          } else {
+            next = now;
+          }
+        }
+      } catch (final Throwable thr) {
+        SamplingProfiler.this.finished(this);
+        this.future.completeExceptionally(thr);
+        return;
+      }
+      SamplingProfiler.this.finished(this);
+      this.future.complete(new Profile(this.samples, System.nanoTime() - start));
+    }
+  }
+
+  public static final class Profile {
+    private final StackTrie samples;
+    private final long durationNanos;
+
+    Profile(final StackTrie samples, final long durationNanos) {
+      this.samples = samples;
+      this.durationNanos = durationNanos;
+    }
+
+    public StackTrie samples() {
+      return this.samples;
+    }
+
+    public long durationNanos() {
+      return this.durationNanos;
+    }
+  }
+}
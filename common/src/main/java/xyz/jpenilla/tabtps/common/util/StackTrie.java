@@ -0,0 +1,192 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+import org.incendo.cloud.type.tuple.Pair;
+
+/**
+ * Aggregates stack samples into a trie of frames, outermost frame first (collapsed stacks).
+ *
+ * <p>Frame names are interned per trie, so repeated samples of the same code do not allocate new
+ * strings. Not thread safe.</p>
+ */
+@DefaultQualifier(NonNull.class)
+public final class StackTrie {
+  private final Map<StackTraceElement, String> frameNames = new HashMap<>();
+  private final Map<String, String> interned = new HashMap<>();
+  private final Node root = new Node("");
+
+  /**
+   * Add a sample.
+   *
+   * @param stack stack trace, innermost frame first as returned by {@link Thread#getStackTrace()}
+   */
+  public void add(final StackTraceElement[] stack) {
+    Node node = this.root;
+    node.samples++;
+    for (int i = stack.length - 1; i >= 0; i--) {
+      node = node.child(this.frameName(stack[i]));
+      node.samples++;
+    }
+    node.self++;
+  }
+
+  private String frameName(final StackTraceElement element) {
+    final @Nullable String cached = this.frameNames.get(element);
+    if (cached != null) {
+      return cached;
+    }
+    // Different lines of the same method share one name instance
+    final String name = this.interned.computeIfAbsent(element.getClassName() + "." + element.getMethodName(), key -> key);
+    this.frameNames.put(element, name);
+    return name;
+  }
+
+  public int samples() {
+    return this.root.samples;
+  }
+
+  /**
+   * Follow the child with the most samples from the root.
+   *
+   * @return frames on the heaviest path paired with their sample counts, outermost first
+   */
+  public List<Pair<String, Integer>> hottestPath() {
+    final List<Pair<String, Integer>> path = new ArrayList<>();
+    @Nullable Node node = this.root.heaviestChild();
+    while (node != null) {
+      path.add(Pair.of(node.frame, node.samples));
+      node = node.heaviestChild();
+    }
+    return path;
+  }
+
+  /**
+   * Get the frames which were most often on top of the stack.
+   *
+   * @param limit maximum number of frames
+   * @return frames paired with their self sample counts, most samples first
+   */
+  public List<Pair<String, Integer>> topSelfFrames(final int limit) {
+    final Map<String, int[]> self = new HashMap<>();
+    this.root.collectSelf(self);
+    final List<Pair<String, Integer>> frames = new ArrayList<>(self.size());
+    for (final Map.Entry<String, int[]> entry : self.entrySet()) {
+      frames.add(Pair.of(entry.getKey(), entry.getValue()[0]));
+    }
+    frames.sort((a, b) -> Integer.compare(b.second(), a.second()));
+    return Collections.unmodifiableList(frames.subList(0, Math.min(limit, frames.size())));
+  }
+
+  /**
+   * Write the trie in the collapsed stack format used by flame graph tools, one
+   * {@code frame;frame;frame count} line per distinct stack.
+   *
+   * @param writer writer
+   * @throws IOException if an I/O error occurs
+   */
+  public void writeCollapsed(final Writer writer) throws IOException {
+    if (this.root.children == null) {
+      return;
+    }
+    final StringBuilder path = new StringBuilder();
+    for (final Node child : this.root.children.values()) {
+      child.writeCollapsed(writer, path);
+    }
+  }
+
+  private static final class Node {
+    final String frame;
+    int samples;
+    int self;
+    @Nullable Map<String, Node> children;
+
+    Node(final String frame) {
+      this.frame = frame;
+    }
+
+    Node child(final String frame) {
+      if (this.children == null) {
+        this.children = new HashMap<>();
+      }
+      @Nullable Node child = this.children.get(frame);
+      if (child == null) {
+        child = new Node(frame);
+        this.children.put(frame, child);
+      }
+      return child;
+    }
+
+    @Nullable Node heaviestChild() {
+      if (this.children == null) {
+        return null;
+      }
+      @Nullable Node heaviest = null;
+      for (final Node child : this.children.values()) {
+        if (heaviest == null || child.samples > heaviest.samples) {
+          heaviest = child;
+        }
+      }
+      return heaviest;
+    }
+
+    void writeCollapsed(final Writer writer, final StringBuilder path) throws IOException {
+      final int length = path.length();
+      if (length > 0) {
+        path.append(';');
+      }
+      path.append(this.frame);
+      if (this.self > 0) {
+        writer.append(path).append(' ').append(Integer.toString(this.self)).append('\n');
+      }
+      if (this.children != null) {
+        for (final Node child : this.children.values()) {
+          child.writeCollapsed(writer, path);
+        }
+      }
+      path.setLength(length);
+    }
+
+    void collectSelf(final Map<String, int[]> self) {
+      if (this.self > 0) {
+        self.computeIfAbsent(this.frame, frame -> new int[1])[0] += this.self;
+      }
+      if (this.children != null) {
+        for (final Node child : this.children.values()) {
+          child.collectSelf(self);
+        }
+      }
+    }
+  }
+}
@@ -23,13 +23,11 @@
  */
 package xyz.jpenilla.tabtps.common.util;
 
-import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.LongSummaryStatistics;
-import java.util.function.LongPredicate;
-import java.util.stream.LongStream;
+import java.util.Map;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.TextColor;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -44,16 +42,9 @@ import static net.kyori.adventure.text.format.NamedTextColor.WHITE;
 import static xyz.jpenilla.tabtps.common.util.Components.gradient;
 
 public final class TPSUtil {
-  private static final DecimalFormat FORMAT = new DecimalFormat("0.00");
-  private static final LongPredicate NOT_ZERO = l -> l != 0;
-
   private TPSUtil() {
   }
 
-  private static @NonNull String formatDouble(final double value) {
-    return FORMAT.format(value);
-  }
-
   public static @NonNull Component coloredTps(final double tps, final Theme.@NonNull Colors colors) {
     final TextColor color1;
     final TextColor color2;
@@ -67,7 +58,7 @@ public final class TPSUtil {
       color1 = colors.lowPerformance();
       color2 = colors.lowPerformanceSecondary();
     }
-    return gradient(formatDouble(tps), color1, color2);
+    return gradient(FixedPointFormat.TWO_DECIMALS.format(tps), color1, color2);
   }
 
   public static double toMilliseconds(final long time) {
@@ -79,22 +70,55 @@ public final class TPSUtil {
   }
 
   public static @NonNull Component coloredMspt(final double mspt, final Theme.@NonNull Colors colors) {
+    return coloredMillis(mspt, 25.0D, 40.0D, colors);
+  }
+
+  /**
+   * Color the time spent in GC pauses over the last minute by the share of wall time it takes,
+   * with up to 1% considered good and up to 5% medium.
+   *
+   * @param pauseMillisPerMinute milliseconds paused per minute
+   * @param colors               colors
+   * @return colored time
+   */
+  public static @NonNull Component coloredGcPerMinute(final double pauseMillisPerMinute, final Theme.@NonNull Colors colors) {
+    return coloredMillis(pauseMillisPerMinute, 600.0D, 3000.0D, colors);
+  }
+
+  /**
+   * Color a single GC pause against the tick budget, with pauses up to 20ms considered good and
+   * pauses which still fit in a 50ms tick medium.
+   *
+   * @param pauseMillis pause duration in milliseconds
+   * @param colors      colors
+   * @return colored time
+   */
+  public static @NonNull Component coloredGcPause(final double pauseMillis, final Theme.@NonNull Colors colors) {
+    return coloredMillis(pauseMillis, 20.0D, 50.0D, colors);
+  }
+
+  private static @NonNull Component coloredMillis(
+    final double millis,
+    final double goodMax,
+    final double mediumMax,
+    final Theme.@NonNull Colors colors
+  ) {
     final TextColor color1;
     final TextColor color2;
-    if (mspt <= 25.0) {
+    if (millis <= goodMax) {
       color1 = colors.goodPerformance();
       color2 = colors.goodPerformanceSecondary();
-    } else if (mspt <= 40) {
+    } else if (millis <= mediumMax) {
       color1 = colors.mediumPerformance();
       color2 = colors.mediumPerformanceSecondary();
     } else {
       color1 = colors.lowPerformance();
       color2 = colors.lowPerformanceSecondary();
     }
-    return gradient(formatDouble(mspt), color1, color2);
+    return gradient(FixedPointFormat.TWO_DECIMALS.format(millis), color1, color2);
   }
 
-  public static @NonNull List<Component> formatTickTimes(final @NonNull List<Pair<String, long[]>> times) {
+  public static @NonNull List<Component> formatTickTimes(final @NonNull List<Pair<String, TickTimes>> times) {
     final Component header = text()
       .color(GRAY)
       .append(
@@ -112,9 +136,9 @@ public final class TPSUtil {
     final List<Component> output = new ArrayList<>();
     output.add(header);
 
-    final Iterator<Pair<String, long[]>> iterator = times.iterator();
+    final Iterator<Pair<String, TickTimes>> iterator = times.iterator();
     while (iterator.hasNext()) {
-      final Pair<String, long[]> pair = iterator.next();
+      final Pair<String, TickTimes> pair = iterator.next();
       final String branch = iterator.hasNext() ? "├─" : "└─";
       output.add(formatStatistics(
         branch,
@@ -122,22 +146,97 @@ public final class TPSUtil {
         pair.second()
       ));
     }
+
+    output.add(text()
+      .color(GRAY)
+      .append(
+        Messages.LABEL_MSPT,
+        text(" - ", WHITE),
+        text("p50"),
+        text(", ", WHITE),
+        text("p95"),
+        text(", ", WHITE),
+        text("p99"),
+        text(", ", WHITE),
+        Messages.LABEL_MAXIMUM
+      )
+      .hoverEvent(Messages.COMMAND_TICKINFO_TEXT_MSPT_PERCENTILES_HOVER.styled(GRAY))
+      .build());
+
+    final Iterator<Pair<String, TickTimes>> percentiles = times.iterator();
+    while (percentiles.hasNext()) {
+      final Pair<String, TickTimes> pair = percentiles.next();
+      final String branch = percentiles.hasNext() ? "├─" : "└─";
+      output.add(formatPercentiles(
+        branch,
+        text(pair.first()),
+        pair.second()
+      ));
+    }
+    return output;
+  }
+
+  public static @NonNull List<Component> formatWorldTickTimes(final @NonNull Map<String, TickTimes> worlds) {
+    if (worlds.isEmpty()) {
+      return Collections.emptyList();
+    }
+    final List<Component> output = new ArrayList<>();
+    output.add(text()
+      .color(GRAY)
+      .append(
+        Messages.LABEL_WORLD_MSPT,
+        text(" - ", WHITE),
+        Messages.LABEL_AVERAGE,
+        text(", ", WHITE),
+        Messages.LABEL_MINIMUM,
+        text(", ", WHITE),
+        Messages.LABEL_MAXIMUM
+      )
+      .hoverEvent(Messages.COMMAND_TICKINFO_TEXT_WORLD_MSPT_HOVER.styled(GRAY))
+      .build());
+
+    final Iterator<Map.Entry<String, TickTimes>> iterator = worlds.entrySet().iterator();
+    while (iterator.hasNext()) {
+      final Map.Entry<String, TickTimes> entry = iterator.next();
+      final String branch = iterator.hasNext() ? "├─" : "└─";
+      output.add(formatStatistics(
+        branch,
+        text(entry.getKey()),
+        entry.getValue()
+      ));
+    }
     return output;
   }
 
-  private static @NonNull Component formatStatistics(final @NonNull String branch, final @NonNull Component time, final long @NonNull [] times) {
-    final LongSummaryStatistics statistics = LongStream.of(times).filter(NOT_ZERO).summaryStatistics();
+  private static @NonNull Component formatStatistics(final @NonNull String branch, final @NonNull Component time, final @NonNull TickTimes times) {
+    return Components.ofChildren(
+      space(),
+      text(branch, WHITE),
+      space(),
+      time.color(GRAY),
+      text(" - ", WHITE),
+      TPSUtil.coloredMspt(TPSUtil.toMilliseconds(times.average()), Theme.DEFAULT.colorScheme()),
+      text(", ", WHITE),
+      TPSUtil.coloredMspt(TPSUtil.toMilliseconds(times.min()), Theme.DEFAULT.colorScheme()),
+      text(", ", WHITE),
+      TPSUtil.coloredMspt(TPSUtil.toMilliseconds(times.max()), Theme.DEFAULT.colorScheme())
+    );
+  }
+
+  private static @NonNull Component formatPercentiles(final @NonNull String branch, final @NonNull Component time, final @NonNull TickTimes times) {
     return Components.ofChildren(
       space(),
       text(branch, WHITE),
       space(),
       time.color(GRAY),
       text(" - ", WHITE),
-      TPSUtil.coloredMspt(TPSUtil.toMilliseconds(statistics.getAverage()), Theme.DEFAULT.colorScheme()),
+      TPSUtil.coloredMspt(TPSUtil.toMilliseconds(times.percentile(50)), Theme.DEFAULT.colorScheme()),
+      text(", ", WHITE),
+      TPSUtil.coloredMspt(TPSUtil.toMilliseconds(times.percentile(95)), Theme.DEFAULT.colorScheme()),
       text(", ", WHITE),
-      TPSUtil.coloredMspt(TPSUtil.toMilliseconds(statistics.getMin()), Theme.DEFAULT.colorScheme()),
+      TPSUtil.coloredMspt(TPSUtil.toMilliseconds(times.percentile(99)), Theme.DEFAULT.colorScheme()),
       text(", ", WHITE),
-      TPSUtil.coloredMspt(TPSUtil.toMilliseconds(statistics.getMax()), Theme.DEFAULT.colorScheme())
+      TPSUtil.coloredMspt(TPSUtil.toMilliseconds(times.max()), Theme.DEFAULT.colorScheme())
     );
   }
 
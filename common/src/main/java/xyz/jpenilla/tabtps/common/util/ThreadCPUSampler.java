@@ -0,0 +1,150 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Samples CPU time of the server thread and of the server's worker pools using {@link ThreadMXBean}.
+ *
+ * <p>Loads are reported in percent of a single core, so a saturated server thread reads close to
+ * 100 regardless of how many cores the machine has. Not thread safe; intended to be sampled from a
+ * single thread.</p>
+ */
+final class ThreadCPUSampler {
+  private static final String WORKER_THREAD_PREFIX = "Worker-";
+  private static final int RESCAN_INTERVAL = 20;
+
+  private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+  private final Supplier<@Nullable Thread> serverThread;
+
+  private long previousSampleNanos = -1L;
+  private long serverThreadId = -1L;
+  private long serverThreadTime = -1L;
+  private long[] workerIds = new long[0];
+  private long[] workerTimes = new long[0];
+  private int samplesUntilRescan = 0;
+
+  private double serverThreadCpuLoad = Double.NaN;
+  private double workerThreadsCpuLoad = Double.NaN;
+
+  ThreadCPUSampler(final Supplier<@Nullable Thread> serverThread) {
+    this.serverThread = serverThread;
+  }
+
+  static boolean supported() {
+    final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    return threads.isThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled();
+  }
+
+  void sample() {
+    final long now = System.nanoTime();
+    final long elapsed = now - this.previousSampleNanos;
+    final boolean hasPrevious = this.previousSampleNanos >= 0 && elapsed > 0;
+    this.previousSampleNanos = now;
+
+    this.sampleServerThread(hasPrevious, elapsed);
+
+    if (--this.samplesUntilRescan <= 0) {
+      this.samplesUntilRescan = RESCAN_INTERVAL;
+      this.rescanWorkers();
+    }
+    long workerTime = 0L;
+    for (int i = 0; i < this.workerIds.length; i++) {
+      final long time = this.threads.getThreadCpuTime(this.workerIds[i]);
+      if (time >= 0 && this.workerTimes[i] >= 0) {
+        workerTime += time - this.workerTimes[i];
+      }
+      this.workerTimes[i] = time;
+    }
+    if (hasPrevious) {
+      this.workerThreadsCpuLoad = workerTime * 100.0D / elapsed;
+    }
+  }
+
+  private void sampleServerThread(final boolean hasPrevious, final long elapsed) {
+    final @Nullable Thread thread = this.serverThread.get();
+    if (thread == null) {
+      this.serverThreadId = -1L;
+      this.serverThreadCpuLoad = Double.NaN;
+      return;
+    }
+    final long id = thread.getId();
+    final long time = this.threads.getThreadCpuTime(id);
+    if (hasPrevious && id == this.serverThreadId && time >= 0 && this.serverThreadTime >= 0) {
+      this.serverThreadCpuLoad = (time - this.serverThreadTime) * 100.0D / elapsed;
+    }
+    this.serverThreadId = id;
+    this.serverThreadTime = time;
+  }
+
+  private void rescanWorkers() {
+    final long[] ids = this.threads.getAllThreadIds();
+    final ThreadInfo[] infos = this.threads.getThreadInfo(ids);
+    long[] found = new long[ids.length];
+    int count = 0;
+    for (final ThreadInfo info : infos) {
+      if (info != null && info.getThreadName().startsWith(WORKER_THREAD_PREFIX)) {
+        found[count++] = info.getThreadId();
+      }
+    }
+    found = Arrays.copyOf(found, count);
+    final long[] times = new long[count];
+    for (int i = 0; i < count; i++) {
+      // Carry over the previous reading for threads we already track, so the next delta stays exact
+      times[i] = -1L;
+      for (int j = 0; j < this.workerIds.length; j++) {
+        if (this.workerIds[j] == found[i]) {
+          times[i] = this.workerTimes[j];
+          break;
+        }
+      }
+    }
+    this.workerIds = found;
+    this.workerTimes = times;
+  }
+
+  /**
+   * CPU usage of the server thread between the last two samples, in percent of one core.
+   *
+   * @return server thread CPU load, or {@link Double#NaN} if unknown
+   */
+  double serverThreadCpuLoad() {
+    return this.serverThreadCpuLoad;
+  }
+
+  /**
+   * Combined CPU usage of the server's worker threads between the last two samples, in percent of one core.
+   *
+   * @return worker threads CPU load, or {@link Double#NaN} if unknown
+   */
+  double workerThreadsCpuLoad() {
+    return this.workerThreadsCpuLoad;
+  }
+}
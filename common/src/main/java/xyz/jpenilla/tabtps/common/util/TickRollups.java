@@ -0,0 +1,313 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.util;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * Aggregates tick durations into 1 second, 1 minute and 1 hour resolution tiers.
+ *
+ * <p>Every tier is a ring of fixed size primitive arrays holding the count, sum, minimum, maximum
+ * and a coarse log-scale sketch of the durations in each slot, so memory use is bounded at around
+ * 140KiB no matter how long the server runs. Slots are keyed by wall clock time, so queries can
+ * target past windows such as "an hour around 03:00" for as long as the coarsest tier retains them.
+ * Queries use the finest tier which still covers the requested window.</p>
+ *
+ * <p>Only the server thread records, and queries read optimistically and retry if a tick was
+ * recorded while they were reading, so a slow query never holds up the server thread.</p>
+ */
+@DefaultQualifier(NonNull.class)
+public final class TickRollups {
+  // 3 buckets per power of two starting at 1ms, relative error of about 26%
+  private static final int SKETCH_BUCKETS = 32;
+  private static final double BUCKETS_PER_DOUBLING = 3.0D;
+  // Smallest duration in nanoseconds which falls into each bucket
+  private static final long[] BUCKET_LOWER_BOUNDS = new long[SKETCH_BUCKETS];
+  // First bucket holding durations of each bit length, so a bucket is found in a few comparisons
+  private static final int[] BUCKETS_BY_BIT_LENGTH = new int[Long.SIZE + 1];
+
+  static {
+    for (int bucket = 1; bucket < SKETCH_BUCKETS; bucket++) {
+      BUCKET_LOWER_BOUNDS[bucket] = (long) Math.ceil(1.0E6D * Math.pow(2.0D, (bucket - 1) / BUCKETS_PER_DOUBLING));
+    }
+    for (int bitLength = 1; bitLength <= Long.SIZE; bitLength++) {
+      BUCKETS_BY_BIT_LENGTH[bitLength] = scanBucket(1L << (bitLength - 1), 0);
+    }
+  }
+
+  private final StampedLock lock = new StampedLock();
+  // Rollups are kept in memory, so they only go back to when this process started recording
+  private volatile long firstRecordedSecond = -1L;
+
+  private final Tier[] tiers = {
+    new Tier(1, 120),
+    new Tier(60, 120),
+    new Tier(60 * 60, 24 * 28)
+  };
+
+  /**
+   * Record a tick duration. Called from the server thread at the end of each tick.
+   *
+   * @param durationNanos tick duration in nanoseconds
+   */
+  public void record(final long durationNanos) {
+    final long second = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+    final double millis = TPSUtil.toMilliseconds(durationNanos);
+    final int bucket = bucket(durationNanos);
+    if (this.firstRecordedSecond == -1L) {
+      this.firstRecordedSecond = second;
+    }
+    // Queries never take the lock, so this is never contended
+    final long stamp = this.lock.writeLock();
+    try {
+      for (final Tier tier : this.tiers) {
+        tier.record(second, millis, bucket);
+      }
+    } finally {
+      this.lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Aggregate the ticks which ended in the given window.
+   *
+   * @param fromSecond start of the window, inclusive, in epoch seconds
+   * @param toSecond end of the window, exclusive, in epoch seconds
+   * @return statistics, which may be empty if no tier retains the window
+   */
+  public Statistics query(final long fromSecond, final long toSecond) {
+    final long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+    Tier tier = this.tiers[this.tiers.length - 1];
+    for (final Tier candidate : this.tiers) {
+      if (candidate.covers(now, fromSecond)) {
+        tier = candidate;
+        break;
+      }
+    }
+    while (true) {
+      final long stamp = this.lock.tryOptimisticRead();
+      if (stamp != 0L) {
+        final Statistics statistics = new Statistics();
+        tier.aggregate(fromSecond, toSecond, statistics);
+        statistics.fromSecond = Math.max(fromSecond / tier.unitSeconds * tier.unitSeconds, this.firstRecordedSecond);
+        statistics.toSecond = ((toSecond - 1) / tier.unitSeconds + 1) * tier.unitSeconds;
+        if (this.lock.validate(stamp)) {
+          return statistics;
+        }
+      }
+      // A tick is being recorded, which only takes a moment
+      Thread.yield();
+    }
+  }
+
+  /**
+   * Aggregate the ticks which ended in the given number of seconds before now.
+   *
+   * @param seconds window length
+   * @return statistics
+   */
+  public Statistics recent(final long seconds) {
+    final long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+    return this.query(now - seconds + 1, now + 1);
+  }
+
+  static int bucket(final long durationNanos) {
+    if (durationNanos < BUCKET_LOWER_BOUNDS[1]) {
+      return 0;
+    }
+    return scanBucket(durationNanos, BUCKETS_BY_BIT_LENGTH[Long.SIZE - Long.numberOfLeadingZeros(durationNanos)]);
+  }
+
+  private static int scanBucket(final long durationNanos, final int from) {
+    int bucket = from;
+    while (bucket < SKETCH_BUCKETS - 1 && durationNanos >= BUCKET_LOWER_BOUNDS[bucket + 1]) {
+      bucket++;
+    }
+    return bucket;
+  }
+
+  static double bucketUpperBound(final int bucket) {
+    return Math.pow(2.0D, bucket / BUCKETS_PER_DOUBLING);
+  }
+
+  private static final class Tier {
+    final int unitSeconds;
+    final int slots;
+    final long[] keys;
+    final int[] counts;
+    final double[] sums;
+    final double[] mins;
+    final double[] maxes;
+    final int[] sketches;
+
+    Tier(final int unitSeconds, final int slots) {
+      this.unitSeconds = unitSeconds;
+      this.slots = slots;
+      this.keys = new long[slots];
+      Arrays.fill(this.keys, -1L);
+      this.counts = new int[slots];
+      this.sums = new double[slots];
+      this.mins = new double[slots];
+      this.maxes = new double[slots];
+      this.sketches = new int[slots * SKETCH_BUCKETS];
+    }
+
+    void record(final long second, final double millis, final int bucket) {
+      final long key = second / this.unitSeconds;
+      final int slot = (int) (key % this.slots);
+      if (this.keys[slot] != key) {
+        this.keys[slot] = key;
+        this.counts[slot] = 0;
+        this.sums[slot] = 0.0D;
+        this.mins[slot] = Double.POSITIVE_INFINITY;
+        this.maxes[slot] = Double.NEGATIVE_INFINITY;
+        Arrays.fill(this.sketches, slot * SKETCH_BUCKETS, (slot + 1) * SKETCH_BUCKETS, 0);
+      }
+      this.counts[slot]++;
+      this.sums[slot] += millis;
+      this.mins[slot] = Math.min(this.mins[slot], millis);
+      this.maxes[slot] = Math.max(this.maxes[slot], millis);
+      this.sketches[slot * SKETCH_BUCKETS + bucket]++;
+    }
+
+    boolean covers(final long now, final long fromSecond) {
+      return now / this.unitSeconds - fromSecond / this.unitSeconds < this.slots;
+    }
+
+    void aggregate(final long fromSecond, final long toSecond, final Statistics statistics) {
+      // Slots partially overlapping the window are included whole
+      final long fromKey = fromSecond / this.unitSeconds;
+      final long toKey = (toSecond - 1) / this.unitSeconds;
+      for (int slot = 0; slot < this.slots; slot++) {
+        final long key = this.keys[slot];
+        if (key < fromKey || key > toKey || this.counts[slot] == 0) {
+          continue;
+        }
+        statistics.count += this.counts[slot];
+        statistics.sum += this.sums[slot];
+        statistics.min = Math.min(statistics.min, this.mins[slot]);
+        statistics.max = Math.max(statistics.max, this.maxes[slot]);
+        for (int i = 0; i < SKETCH_BUCKETS; i++) {
+          statistics.sketch[i] += this.sketches[slot * SKETCH_BUCKETS + i];
+        }
+      }
+    }
+  }
+
+  /**
+   * Tick duration statistics for a window, in milliseconds.
+   */
+  public static final class Statistics {
+    private final long[] sketch = new long[SKETCH_BUCKETS];
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private long fromSecond;
+    private long toSecond;
+
+    public long count() {
+      return this.count;
+    }
+
+    public double sum() {
+      return this.sum;
+    }
+
+    public double average() {
+      return this.count == 0 ? Double.NaN : this.sum / this.count;
+    }
+
+    public double min() {
+      return this.count == 0 ? Double.NaN : this.min;
+    }
+
+    public double max() {
+      return this.count == 0 ? Double.NaN : this.max;
+    }
+
+    /**
+     * Get the start of the span these statistics cover. This is earlier than the queried window
+     * when it starts partway through a slot, since such slots are included whole, and later when
+     * recording started after the window began.
+     *
+     * @return start of the covered span, inclusive, in epoch seconds
+     */
+    public long fromSecond() {
+      return this.fromSecond;
+    }
+
+    /**
+     * Get the end of the span these statistics cover. This is later than the queried window
+     * when it ends partway through a slot, since such slots are included whole.
+     *
+     * @return end of the covered span, exclusive, in epoch seconds
+     */
+    public long toSecond() {
+      return this.toSecond;
+    }
+
+    /**
+     * Check whether these statistics include every tick of the given window, meaning recording
+     * had started by the time the window began.
+     *
+     * @param fromSecond start of the window, inclusive, in epoch seconds
+     * @param toSecond end of the window, exclusive, in epoch seconds
+     * @return whether the window is covered
+     */
+    public boolean covers(final long fromSecond, final long toSecond) {
+      return this.count > 0 && this.fromSecond <= fromSecond && this.toSecond >= toSecond;
+    }
+
+    /**
+     * Get the approximate duration which the given percentage of ticks completed within.
+     *
+     * <p>The result is the upper bound of the sketch bucket the percentile falls into, clamped to
+     * the exact minimum and maximum. The last bucket has no upper bound, so percentiles falling
+     * into it are the exact maximum.</p>
+     *
+     * @param percentile percentile, from 0 to 100
+     * @return duration in milliseconds, or {@link Double#NaN} when empty
+     */
+    public double percentile(final double percentile) {
+      if (this.count == 0) {
+        return Double.NaN;
+      }
+      final double clamped = Math.min(100.0D, Math.max(0.0D, percentile));
+      final long rank = Math.max(1L, (long) Math.ceil(clamped / 100.0D * this.count));
+      long seen = 0;
+      for (int i = 0; i < SKETCH_BUCKETS; i++) {
+        seen += this.sketch[i];
+        if (seen >= rank) {
+          return i == SKETCH_BUCKETS - 1 ? this.max : Math.max(this.min, Math.min(this.max, bucketUpperBound(i)));
+        }
+      }
+      return this.max;
+    }
+  }
+}
@@ -23,23 +23,233 @@
  */
 package xyz.jpenilla.tabtps.common.util;
 
+import java.util.Arrays;
+
 /**
  * Based on the MIT licensed Paper-Server patch "Add tick times API and /mspt command".
  *
+ * <p>Statistics are maintained incrementally as samples are added, so reading the average,
+ * minimum or maximum is constant time and does not allocate. Samples are also recorded into a
+ * {@link LogHistogram} for percentiles. Zero samples are treated as
+ * missing and are excluded from the statistics. Samples must only be added from a single
+ * thread, but statistics may be read from any thread.</p>
+ *
  * @author William Blake Galbreath/BillyGalbreath
  */
 public final class TickTimes {
+  private static final long NONE = Long.MIN_VALUE;
+
   private final long[] times;
+  private final MonotonicDeque minimums;
+  private final MonotonicDeque maximums;
+  private final LogHistogram histogram = new LogHistogram();
+  private long newest = NONE;
+  private long sum;
+  private int count;
+
+  private volatile long publishedSum;
+  private volatile int publishedCount;
+  private volatile long publishedMin;
+  private volatile long publishedMax;
 
   public TickTimes(final int length) {
     this.times = new long[length];
+    this.minimums = new MonotonicDeque(length, false);
+    this.maximums = new MonotonicDeque(length, true);
+  }
+
+  /**
+   * Create a new {@link TickTimes} holding a copy of the given samples.
+   *
+   * @param times samples
+   * @return new tick times
+   */
+  public static TickTimes copyOf(final long[] times) {
+    final TickTimes tickTimes = new TickTimes(times.length);
+    for (int i = 0; i < times.length; i++) {
+      tickTimes.add(i, times[i]);
+    }
+    return tickTimes;
   }
 
   public void add(final int index, final long time) {
-    this.times[index % this.times.length] = time;
+    if (this.newest == NONE || index <= this.newest || index - this.newest > this.times.length) {
+      // First sample, the tick counter went backwards, or everything in the window is stale
+      this.clear();
+    } else {
+      // Ticks which were skipped no longer have a sample
+      for (long seq = this.newest + 1; seq < index; seq++) {
+        this.record(seq, 0L);
+      }
+    }
+    this.record(index, time);
+    this.publish();
+  }
+
+  private void record(final long seq, final long time) {
+    final int slot = (int) Math.floorMod(seq, (long) this.times.length);
+    final long old = this.times[slot];
+    this.times[slot] = time;
+    this.sum += time - old;
+    if (old != 0L) {
+      this.count--;
+      this.histogram.remove(old);
+    }
+    if (time != 0L) {
+      this.count++;
+      this.histogram.record(time);
+    }
+    final long oldestInWindow = seq - this.times.length + 1;
+    this.minimums.add(seq, time, oldestInWindow);
+    this.maximums.add(seq, time, oldestInWindow);
+    this.newest = seq;
+  }
+
+  private void clear() {
+    Arrays.fill(this.times, 0L);
+    this.sum = 0L;
+    this.count = 0;
+    this.minimums.clear();
+    this.maximums.clear();
+    this.histogram.clear();
+  }
+
+  private void publish() {
+    this.publishedSum = this.sum;
+    this.publishedCount = this.count;
+    this.publishedMin = this.minimums.peek();
+    this.publishedMax = this.maximums.peek();
   }
 
   public long[] times() {
     return this.times.clone();
   }
+
+  /**
+   * Get the number of ticks this window covers.
+   *
+   * @return window length
+   */
+  public int length() {
+    return this.times.length;
+  }
+
+  /**
+   * Get the sum of all samples in the window.
+   *
+   * @return sum, in nanoseconds
+   */
+  public long sum() {
+    return this.publishedSum;
+  }
+
+  /**
+   * Get the number of non-zero samples in the window.
+   *
+   * @return sample count
+   */
+  public int count() {
+    return this.publishedCount;
+  }
+
+  /**
+   * Get the average of the non-zero samples in the window.
+   *
+   * @return average, in nanoseconds, or {@code 0} when there are no samples
+   */
+  public double average() {
+    final int count = this.publishedCount;
+    return count == 0 ? 0.0D : this.publishedSum / (double) count;
+  }
+
+  /**
+   * Get the smallest non-zero sample in the window.
+   *
+   * @return minimum, in nanoseconds, or {@code 0} when there are no samples
+   */
+  public long min() {
+    return this.publishedMin;
+  }
+
+  /**
+   * Get the largest sample in the window.
+   *
+   * @return maximum, in nanoseconds, or {@code 0} when there are no samples
+   */
+  public long max() {
+    return this.publishedMax;
+  }
+
+  /**
+   * Get the duration which the given percentage of non-zero samples in the window are less than or equal to.
+   *
+   * <p>The result is approximate, see {@link LogHistogram}, but always lies between {@link #min()} and {@link #max()}.</p>
+   *
+   * @param percentile percentile, from 0 to 100
+   * @return duration, in nanoseconds, or {@code 0} when there are no samples
+   */
+  public long percentile(final double percentile) {
+    final long max = this.max();
+    if (max == 0L) {
+      return 0L;
+    }
+    return Math.max(this.min(), Math.min(max, this.histogram.valueAtPercentile(percentile)));
+  }
+
+  /**
+   * Sliding window minimum or maximum, holding only the samples which may still become the extreme.
+   */
+  private static final class MonotonicDeque {
+    private final long[] sequences;
+    private final long[] values;
+    private final boolean maximum;
+    private int head;
+    private int size;
+
+    MonotonicDeque(final int capacity, final boolean maximum) {
+      this.sequences = new long[capacity];
+      this.values = new long[capacity];
+      this.maximum = maximum;
+    }
+
+    void add(final long seq, final long value, final long oldestInWindow) {
+      while (this.size > 0 && this.sequences[this.head] < oldestInWindow) {
+        this.head = this.next(this.head);
+        this.size--;
+      }
+      if (value == 0L) {
+        return;
+      }
+      while (this.size > 0) {
+        final long tail = this.values[this.index(this.size - 1)];
+        if (this.maximum ? tail <= value : tail >= value) {
+          this.size--;
+        } else {
+          break;
+        }
+      }
+      final int index = this.index(this.size);
+      this.sequences[index] = seq;
+      this.values[index] = value;
+      this.size++;
+    }
+
+    long peek() {
+      return this.size == 0 ? 0L : this.values[this.head];
+    }
+
+    void clear() {
+      this.head = 0;
+      this.size = 0;
+    }
+
+    private int index(final int offset) {
+      final int index = this.head + offset;
+      return index >= this.values.length ? index - this.values.length : index;
+    }
+
+    private int next(final int index) {
+      return index + 1 == this.values.length ? 0 : index + 1;
+    }
+  }
 }
@@ -0,0 +1,217 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.util;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * Runs every task on a new virtual thread. Delayed and periodic tasks wait on a single shared
+ * timer thread, which only hands them off when they are due.
+ *
+ * <p>Virtual threads are looked up reflectively, since TabTPS still runs on Java 8.</p>
+ *
+ * <p>Since no thread is reused, thread-local caches such as the buffers of
+ * {@link FixedPointFormat} and {@link Components} are created again for every task. Display
+ * updates therefore allocate more than on a platform thread pool, in exchange for not needing a
+ * pool sized to the workload.</p>
+ */
+@DefaultQualifier(NonNull.class)
+final class VirtualThreadExecutor extends AbstractExecutorService implements ScheduledExecutorService {
+  private final ScheduledThreadPoolExecutor timer;
+  private final ExecutorService threads;
+
+  private VirtualThreadExecutor(final ScheduledThreadPoolExecutor timer, final ExecutorService threads) {
+    this.timer = timer;
+    this.threads = threads;
+  }
+
+  static @Nullable VirtualThreadExecutor create(final String name) {
+    final ExecutorService threads;
+    try {
+      final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      builderClass.getMethod("name", String.class, long.class).invoke(builder, name + "-", 1L);
+      final ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+      final Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      threads = (ExecutorService) newExecutor.invoke(null, factory);
+    } catch (final ReflectiveOperationException ex) {
+      return null;
+    }
+    final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, InstrumentedExecutor.threadFactory(name + "-Timer"));
+    timer.setRemoveOnCancelPolicy(true);
+    timer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    return new VirtualThreadExecutor(timer, threads);
+  }
+
+  @Override
+  public void execute(final Runnable command) {
+    this.threads.execute(command);
+  }
+
+  @Override
+  public ScheduledFuture<?> schedule(final Runnable command, final long delay, final TimeUnit unit) {
+    return this.schedule(Executors.callable(command), delay, unit);
+  }
+
+  @Override
+  public <V> ScheduledFuture<V> schedule(final Callable<V> callable, final long delay, final TimeUnit unit) {
+    final Dispatched<V> task = new Dispatched<>(callable, 0L);
+    task.arm(System.nanoTime() + unit.toNanos(delay));
+    return task;
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleAtFixedRate(final Runnable command, final long initialDelay, final long period, final TimeUnit unit) {
+    if (period <= 0L) {
+      throw new IllegalArgumentException("period must be positive");
+    }
+    final Dispatched<Object> task = new Dispatched<>(Executors.callable(command), unit.toNanos(period));
+    task.arm(System.nanoTime() + unit.toNanos(initialDelay));
+    return task;
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleWithFixedDelay(final Runnable command, final long initialDelay, final long delay, final TimeUnit unit) {
+    if (delay <= 0L) {
+      throw new IllegalArgumentException("delay must be positive");
+    }
+    final Dispatched<Object> task = new Dispatched<>(Executors.callable(command), -unit.toNanos(delay));
+    task.arm(System.nanoTime() + unit.toNanos(initialDelay));
+    return task;
+  }
+
+  @Override
+  public void shutdown() {
+    this.timer.shutdown();
+    this.threads.shutdown();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    final List<Runnable> pending = new ArrayList<>(this.timer.shutdownNow());
+    pending.addAll(this.threads.shutdownNow());
+    return pending;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return this.timer.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return this.timer.isTerminated() && this.threads.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    return this.timer.awaitTermination(timeout, unit)
+      && this.threads.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * A task which waits on the timer until it is due, then runs on a virtual thread. Periodic
+   * tasks arm the timer again after each run, so runs never overlap. Periods are positive for
+   * fixed rate and negative for fixed delay tasks, like in {@link ScheduledThreadPoolExecutor}.
+   */
+  private final class Dispatched<V> extends FutureTask<V> implements ScheduledFuture<V> {
+    private final long period;
+    private volatile long due;
+    private @Nullable ScheduledFuture<?> pending;
+
+    Dispatched(final Callable<V> callable, final long period) {
+      super(callable);
+      this.period = period;
+    }
+
+    synchronized void arm(final long due) {
+      if (this.isDone()) {
+        return;
+      }
+      this.due = due;
+      try {
+        this.pending = VirtualThreadExecutor.this.timer.schedule(this::dispatch, due - System.nanoTime(), TimeUnit.NANOSECONDS);
+      } catch (final RejectedExecutionException ex) {
+        this.cancel(false);
+      }
+    }
+
+    private void dispatch() {
+      try {
+        VirtualThreadExecutor.this.threads.execute(this);
+      } catch (final RejectedExecutionException ex) {
+        this.cancel(false);
+      }
+    }
+
+    @Override
+    public void run() {
+      if (this.period == 0L) {
+        super.run();
+      } else if (this.runAndReset()) {
+        this.arm(this.period > 0L ? this.due + this.period : System.nanoTime() - this.period);
+      }
+    }
+
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+      final boolean cancelled = super.cancel(mayInterruptIfRunning);
+      synchronized (this) {
+        if (this.pending != null) {
+          this.pending.cancel(false);
+          this.pending = null;
+        }
+      }
+      return cancelled;
+    }
+
+    @Override
+    public long getDelay(final TimeUnit unit) {
+      return unit.convert(this.due - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(final Delayed other) {
+      return Long.compare(this.getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+    }
+  }
+}
@@ -0,0 +1,362 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.service;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.text.Component;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.incendo.cloud.CommandManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.helpers.NOPLogger;
+import xyz.jpenilla.tabtps.common.TabTPS;
+import xyz.jpenilla.tabtps.common.TabTPSPlatform;
+import xyz.jpenilla.tabtps.common.User;
+import xyz.jpenilla.tabtps.common.command.Commander;
+import xyz.jpenilla.tabtps.common.display.DisplayHandler;
+import xyz.jpenilla.tabtps.common.display.DisplayMailbox;
+import xyz.jpenilla.tabtps.common.display.task.ActionBarDisplayTask;
+import xyz.jpenilla.tabtps.common.display.task.BossBarDisplayTask;
+import xyz.jpenilla.tabtps.common.display.task.TabDisplayTask;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks how queued display updates are sent in batched mode, including updates queued while
+ * stopping a removed or replaced user's displays, such as hiding a boss bar.
+ */
+class UserServiceTest {
+  @TempDir
+  Path dataDirectory;
+
+  private TestUserService service;
+  private final List<String> sent = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    this.service = new TestPlatform(this.dataDirectory).userService;
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.service.shutdown();
+  }
+
+  @Test
+  void queuedUpdatesWaitForTickEnd() {
+    final TestUser user = this.service.join(new TestPlayer(UUID.randomUUID()));
+    user.updateDisplay(DisplayMailbox.Slot.ACTION_BAR, () -> this.sent.add("action bar"));
+    assertTrue(this.sent.isEmpty());
+
+    this.service.sendQueuedDisplayUpdates();
+    assertEquals(Collections.singletonList("action bar"), this.sent);
+  }
+
+  @Test
+  void flushingIsSuspendedForEveryUserWhileDraining() {
+    final TestUser first = this.service.join(new TestPlayer(UUID.randomUUID()));
+    final TestUser second = this.service.join(new TestPlayer(UUID.randomUUID()));
+    // Like a shared boss bar change, which writes to every viewer from one user's mailbox
+    first.updateDisplay(DisplayMailbox.Slot.ACTION_BAR, () -> this.sent.add("suspended: " + this.service.flushSuspended(second)));
+
+    this.service.sendQueuedDisplayUpdates();
+
+    assertEquals(Collections.singletonList("suspended: true"), this.sent);
+    assertFalse(this.service.flushSuspended(first));
+    assertFalse(this.service.flushSuspended(second));
+  }
+
+  @Test
+  void reloadSendsUpdatesQueuedForRemovedUsers() {
+    final TestPlayer player = new TestPlayer(UUID.randomUUID());
+    final TestUser user = this.service.join(player);
+    user.updateDisplay(DisplayMailbox.Slot.ACTION_BAR, () -> this.sent.add("hide"));
+
+    this.service.reload();
+
+    assertEquals(Collections.singletonList("hide"), this.sent);
+    assertNotSame(user, this.service.user(player.uuid));
+    this.service.sendQueuedDisplayUpdates();
+    assertEquals(Collections.singletonList("hide"), this.sent);
+  }
+
+  @Test
+  void replaceSendsUpdatesQueuedForReplacedUser() {
+    final TestPlayer player = new TestPlayer(UUID.randomUUID());
+    final TestUser user = this.service.join(player);
+    user.updateDisplay(DisplayMailbox.Slot.ACTION_BAR, () -> this.sent.add("hide"));
+
+    final TestPlayer respawned = new TestPlayer(player.uuid);
+    this.service.replacePlayer(respawned);
+
+    assertEquals(Collections.singletonList("hide"), this.sent);
+    final TestUser replacement = this.service.user(player.uuid);
+    assertNotSame(user, replacement);
+    assertTrue(replacement.state().mailbox().isEmpty());
+  }
+
+  @Test
+  void quitSendsUpdatesQueuedForRemovedUser() {
+    final TestPlayer player = new TestPlayer(UUID.randomUUID());
+    final TestUser user = this.service.join(player);
+    user.updateDisplay(DisplayMailbox.Slot.ACTION_BAR, () -> this.sent.add("hide"));
+
+    this.service.handleQuit(player);
+
+    assertEquals(Collections.singletonList("hide"), this.sent);
+  }
+
+  private static final class TestPlayer {
+    private final UUID uuid;
+
+    TestPlayer(final UUID uuid) {
+      this.uuid = uuid;
+    }
+  }
+
+  private static final class TestUserService extends UserService<TestPlayer, TestUser> {
+    private final List<TestPlayer> players = new ArrayList<>();
+    private final Set<UUID> suspendedFlushing = new HashSet<>();
+
+    TestUserService(final TabTPSPlatform<TestPlayer, TestUser> platform) {
+      super(platform);
+    }
+
+    TestUser join(final TestPlayer player) {
+      this.players.add(player);
+      return this.user(player);
+    }
+
+    @Override
+    protected UUID uuid(final TestPlayer base) {
+      return base.uuid;
+    }
+
+    @Override
+    protected TestUser create(final TestPlayer base) {
+      return new TestUser(base);
+    }
+
+    @Override
+    protected Collection<TestPlayer> platformPlayers() {
+      return this.players;
+    }
+
+    @Override
+    public boolean batchesDisplayUpdates() {
+      return true;
+    }
+
+    @Override
+    protected void suspendFlushing(final TestUser user) {
+      this.suspendedFlushing.add(user.uuid());
+    }
+
+    @Override
+    protected void resumeFlushing(final TestUser user) {
+      this.suspendedFlushing.remove(user.uuid());
+    }
+
+    boolean flushSuspended(final TestUser user) {
+      return this.suspendedFlushing.contains(user.uuid());
+    }
+  }
+
+  private static final class TestUser implements User<TestPlayer> {
+    private final TestPlayer base;
+    private final TestState state = new TestState();
+
+    TestUser(final TestPlayer base) {
+      this.base = base;
+    }
+
+    @Override
+    public UUID uuid() {
+      return this.base.uuid;
+    }
+
+    @Override
+    public Component displayName() {
+      return Component.empty();
+    }
+
+    @Override
+    public boolean online() {
+      return true;
+    }
+
+    @Override
+    public int ping() {
+      return 0;
+    }
+
+    @Override
+    public String world() {
+      return "world";
+    }
+
+    @Override
+    public TestPlayer base() {
+      return this.base;
+    }
+
+    @Override
+    public State state() {
+      return this.state;
+    }
+
+    @Override
+    public boolean hasPermission(final @NonNull String permissionString) {
+      return false;
+    }
+
+    @Override
+    public @NonNull Audience audience() {
+      return Audience.empty();
+    }
+  }
+
+  /**
+   * State without displays, which always queues updates like batched mode does.
+   */
+  private static final class TestState implements User.State {
+    private final DisplayMailbox mailbox = new DisplayMailbox();
+
+    @Override
+    public void populate(final User.State from) {
+    }
+
+    @Override
+    public DisplayHandler<TabDisplayTask> tab() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public DisplayHandler<ActionBarDisplayTask> actionBar() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public DisplayHandler<BossBarDisplayTask> bossBar() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<DisplayHandler<?>> displays() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public void updateDisplay(final Object slot, final Runnable update) {
+      this.mailbox.post(slot, update);
+    }
+
+    @Override
+    public DisplayMailbox mailbox() {
+      return this.mailbox;
+    }
+
+    @Override
+    public void markDirty() {
+    }
+
+    @Override
+    public boolean shouldSave() {
+      return false;
+    }
+  }
+
+  private static final class TestPlatform implements TabTPSPlatform<TestPlayer, TestUser> {
+    private final Path dataDirectory;
+    private final TestUserService userService;
+
+    TestPlatform(final Path dataDirectory) {
+      this.dataDirectory = dataDirectory;
+      this.userService = new TestUserService(this);
+    }
+
+    @Override
+    public @NonNull UserService<TestPlayer, TestUser> userService() {
+      return this.userService;
+    }
+
+    @Override
+    public @NonNull Path dataDirectory() {
+      return this.dataDirectory;
+    }
+
+    @Override
+    public @NonNull TabTPS tabTPS() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public @NonNull TickTimeService tickTimeService() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int maxPlayers() {
+      return 0;
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+    @Override
+    public void onReload() {
+    }
+
+    @Override
+    public @NonNull Logger logger() {
+      return NOPLogger.NOP_LOGGER;
+    }
+
+    @Override
+    public @Nullable Thread serverThread() {
+      return null;
+    }
+
+    @Override
+    public @NonNull CommandManager<Commander> commandManager() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
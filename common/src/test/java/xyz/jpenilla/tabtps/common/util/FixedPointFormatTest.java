@@ -0,0 +1,192 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.util;
+
+import java.text.DecimalFormat;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FixedPointFormatTest {
+  private static final int RANDOM_SAMPLES = 200_000;
+  private static final double[] TWO_DECIMAL_EDGE_CASES = {
+    0.0D,
+    -0.0D,
+    Double.NaN,
+    Double.POSITIVE_INFINITY,
+    Double.NEGATIVE_INFINITY,
+    Double.MIN_VALUE,
+    -Double.MIN_VALUE,
+    Double.MIN_NORMAL,
+    Double.MAX_VALUE,
+    -Double.MAX_VALUE,
+    // Exact binary ties, which round to even
+    0.125D,
+    0.375D,
+    2.5D,
+    -0.125D,
+    -0.375D,
+    1024.625D,
+    // Decimal ties which are not exact in binary
+    0.005D,
+    0.015D,
+    0.025D,
+    1.005D,
+    2.675D,
+    -2.675D,
+    // Negative values which round to zero keep their sign
+    -0.001D,
+    -0.004999D,
+    // Around the fast path limit and beyond the precision of a double
+    99_999_999_999.995D,
+    100_000_000_000.005D,
+    123_456_789_012.345D,
+    1.0E15D + 0.125D,
+    4_503_599_627_370_496.5D,
+    1.0E20D,
+    -1.0E20D,
+    1.0E300D
+  };
+
+  @Test
+  void twoDecimalsEdgeCases() {
+    final DecimalFormat expected = new DecimalFormat("0.00");
+    for (final double value : TWO_DECIMAL_EDGE_CASES) {
+      assertFormats(expected.format(value), FixedPointFormat.TWO_DECIMALS.format(value), value);
+    }
+  }
+
+  @Test
+  void twoDecimalsTies() {
+    final DecimalFormat expected = new DecimalFormat("0.00");
+    // Every multiple of 0.005 up to 100, half of which are ties in decimal
+    for (int i = -20_000; i <= 20_000; i++) {
+      final double value = i * 0.005D;
+      assertFormats(expected.format(value), FixedPointFormat.TWO_DECIMALS.format(value), value);
+    }
+    // Every multiple of 1/8 up to 1000, which are exact binary ties
+    for (int i = -8_000; i <= 8_000; i++) {
+      final double value = i / 8.0D;
+      assertFormats(expected.format(value), FixedPointFormat.TWO_DECIMALS.format(value), value);
+    }
+  }
+
+  @Test
+  void twoDecimalsRandom() {
+    final DecimalFormat expected = new DecimalFormat("0.00");
+    final SplittableRandom random = new SplittableRandom(0x7AB7B5L);
+    for (int i = 0; i < RANDOM_SAMPLES; i++) {
+      // Magnitudes from 1e-4 to 1e16, covering both the fast and the slow path
+      final double value = (random.nextBoolean() ? 1.0D : -1.0D) * Math.pow(10.0D, random.nextDouble(-4.0D, 16.0D));
+      assertFormats(expected.format(value), FixedPointFormat.TWO_DECIMALS.format(value), value);
+    }
+    for (int i = 0; i < RANDOM_SAMPLES / 10; i++) {
+      // Arbitrary bit patterns, including subnormals and huge values
+      final double value = Double.longBitsToDouble(random.nextLong());
+      assertFormats(expected.format(value), FixedPointFormat.TWO_DECIMALS.format(value), value);
+    }
+  }
+
+  @Test
+  void oneDecimalMatchesByteCounts() {
+    final long[] edgeCases = {
+      1024L,
+      1025L,
+      1536L,
+      1587L,
+      1024L * 1024L - 1L,
+      1024L * 1024L,
+      0xfffccccccccccccL >> 40,
+      (0xfffccccccccccccL >> 40) + 1L,
+      0xfffccccccccccccL,
+      0xfffccccccccccccL + 1L,
+      Long.MAX_VALUE,
+      -1024L,
+      -1587L,
+      Long.MIN_VALUE
+    };
+    for (final long bytes : edgeCases) {
+      assertByteCount(bytes);
+    }
+    final SplittableRandom random = new SplittableRandom(0xB17E5L);
+    for (int i = 0; i < RANDOM_SAMPLES; i++) {
+      // Byte counts of every magnitude, from a KiB up to the EiB range
+      assertByteCount(random.nextLong(1024L, Long.MAX_VALUE) >>> random.nextInt(54));
+    }
+  }
+
+  @Test
+  void compactMatchesRoundedValues() {
+    final SplittableRandom random = new SplittableRandom(0xC0DEL);
+    for (int i = 0; i < RANDOM_SAMPLES; i++) {
+      // CPU loads and history percentages are rounded to two decimals before formatting
+      final double percent = Math.round(random.nextDouble(-1.0D, 6_400.0D) * 100.0D) / 100.0D;
+      assertFormats(String.valueOf(percent), FixedPointFormat.COMPACT.format(percent), percent);
+      // Average player counts are rounded to one decimal
+      final double players = Math.round(random.nextDouble(0.0D, 100_000.0D) * 10.0D) / 10.0D;
+      assertFormats(String.valueOf(players), FixedPointFormat.COMPACT.format(players), players);
+    }
+    // Up to the point where Double.toString switches to scientific notation
+    for (final double value : new double[] {0.0D, -0.0D, 0.01D, 0.1D, 1.0D, 9_999_999.99D, -9_999_999.99D}) {
+      assertFormats(String.valueOf(value), FixedPointFormat.COMPACT.format(value), value);
+    }
+  }
+
+  @Test
+  void integerMatchesStringValueOf() {
+    final long[] edgeCases = {0L, 1L, -1L, 9L, 10L, -10L, 1023L, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1L};
+    for (final long value : edgeCases) {
+      assertEquals(String.valueOf(value), FixedPointFormat.INTEGER.format(value).toString(), "value " + value);
+    }
+    final SplittableRandom random = new SplittableRandom(0x1A7L);
+    for (int i = 0; i < RANDOM_SAMPLES; i++) {
+      final long value = random.nextLong() >> random.nextInt(64);
+      assertEquals(String.valueOf(value), FixedPointFormat.INTEGER.format(value).toString(), "value " + value);
+    }
+  }
+
+  /**
+   * Compare against the value and format which {@link MemoryUtil#humanReadableByteCountBin(long)}
+   * used before it was changed to {@link FixedPointFormat#ONE_DECIMAL}.
+   *
+   * @param bytes byte count, at least a KiB in magnitude
+   */
+  private static void assertByteCount(final long bytes) {
+    final long absB = bytes == Long.MIN_VALUE ? Long.MAX_VALUE : Math.abs(bytes);
+    long value = absB;
+    for (int i = 40; i >= 0 && absB > 0xfffccccccccccccL >> i; i -= 10) {
+      value >>= 10;
+    }
+    value *= Long.signum(bytes);
+    final double kibibytes = value / 1024.0;
+    assertFormats(String.format("%.1f", kibibytes), FixedPointFormat.ONE_DECIMAL.format(kibibytes), kibibytes);
+  }
+
+  private static void assertFormats(final String expected, final CharSequence actual, final double value) {
+    if (!expected.contentEquals(actual)) {
+      assertEquals(expected, actual.toString(), "value " + value);
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.util;
+
+import java.text.DecimalFormat;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RollingAverageTest {
+  // Window sizes used by the server mixins: 5s, 1m, 5m and 15m
+  private static final int[] WINDOWS = {5, 60, 300, 900};
+  private static final long[] EDGE_CASE_DIFFS = {
+    RollingAverage.SEC_IN_NANO,
+    RollingAverage.SEC_IN_NANO - 1,
+    RollingAverage.SEC_IN_NANO + 1,
+    // 1/3, 1/7 and 2/3 of a second, whose TPS does not terminate in decimal
+    333_333_333L,
+    142_857_143L,
+    666_666_667L,
+    1L,
+    7L,
+    // Long pauses, such as a world save or a debugger breakpoint
+    60L * RollingAverage.SEC_IN_NANO,
+    3_600L * RollingAverage.SEC_IN_NANO
+  };
+
+  @Test
+  void initialAverage() {
+    for (final int size : WINDOWS) {
+      assertParity(new BigDecimalRollingAverage(size), new RollingAverage(size));
+    }
+  }
+
+  @Test
+  void steadyTicks() {
+    for (final int size : WINDOWS) {
+      final BigDecimalRollingAverage expected = new BigDecimalRollingAverage(size);
+      final RollingAverage actual = new RollingAverage(size);
+      for (int i = 0; i < size * 3; i++) {
+        add(expected, actual, RollingAverage.SEC_IN_NANO);
+        assertParity(expected, actual);
+      }
+    }
+  }
+
+  @Test
+  void edgeCaseSamples() {
+    for (final int size : WINDOWS) {
+      for (final long diff : EDGE_CASE_DIFFS) {
+        final BigDecimalRollingAverage expected = new BigDecimalRollingAverage(size);
+        final RollingAverage actual = new RollingAverage(size);
+        // Fill the window with the edge case, then let regular samples push it back out
+        for (int i = 0; i < size + 1; i++) {
+          add(expected, actual, diff);
+          assertParity(expected, actual);
+        }
+        for (int i = 0; i < size + 1; i++) {
+          add(expected, actual, RollingAverage.SEC_IN_NANO + i % 3 - 1);
+          assertParity(expected, actual);
+        }
+      }
+    }
+  }
+
+  @Test
+  void alternatingMagnitudes() {
+    // Mixing 1ns samples with hour long ones maximizes cancellation in the running total
+    for (final int size : WINDOWS) {
+      final BigDecimalRollingAverage expected = new BigDecimalRollingAverage(size);
+      final RollingAverage actual = new RollingAverage(size);
+      for (int i = 0; i < size * 4; i++) {
+        add(expected, actual, i % 2 == 0 ? 1L : 3_600L * RollingAverage.SEC_IN_NANO);
+        assertParity(expected, actual);
+      }
+    }
+  }
+
+  @Test
+  void randomizedLongUptime() {
+    final SplittableRandom random = new SplittableRandom(0x7AB7_B5L);
+    for (final int size : WINDOWS) {
+      final BigDecimalRollingAverage expected = new BigDecimalRollingAverage(size);
+      final RollingAverage actual = new RollingAverage(size);
+      for (int i = 0; i < 50_000; i++) {
+        final long diff;
+        if (random.nextInt(100) == 0) {
+          diff = random.nextLong(RollingAverage.SEC_IN_NANO, 30L * RollingAverage.SEC_IN_NANO);
+        } else {
+          diff = random.nextLong(RollingAverage.SEC_IN_NANO - 50_000_000L, RollingAverage.SEC_IN_NANO + 50_000_000L);
+        }
+        add(expected, actual, diff);
+        assertParity(expected, actual);
+      }
+    }
+  }
+
+  private static void add(final BigDecimalRollingAverage expected, final RollingAverage actual, final long diff) {
+    expected.add(BigDecimalRollingAverage.tps(diff), diff);
+    actual.add(RollingAverage.TPS_BASE / diff, diff);
+  }
+
+  private static void assertParity(final BigDecimalRollingAverage expected, final RollingAverage actual) {
+    final double expectedAverage = expected.average();
+    final double actualAverage = actual.average();
+    assertEquals(expectedAverage, actualAverage, Math.ulp(expectedAverage) * 8);
+    // TPS is displayed with two decimals, which must never round differently
+    final DecimalFormat format = new DecimalFormat("0.00");
+    assertEquals(format.format(expectedAverage), format.format(actualAverage));
+  }
+}
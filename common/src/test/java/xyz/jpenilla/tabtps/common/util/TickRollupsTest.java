@@ -0,0 +1,173 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.common.util;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TickRollupsTest {
+  private static final int SKETCH_BUCKETS = 32;
+  private static final long MILLISECOND = 1_000_000L;
+
+  @Test
+  void bucketBoundaries() {
+    for (int bucket = 1; bucket < SKETCH_BUCKETS; bucket++) {
+      final long lowerBound = (long) Math.ceil(1.0E6D * Math.pow(2.0D, (bucket - 1) / 3.0D));
+      assertEquals(bucket, TickRollups.bucket(lowerBound), "lower bound of bucket " + bucket);
+      assertEquals(bucket - 1, TickRollups.bucket(lowerBound - 1L), "below bucket " + bucket);
+      for (long duration = lowerBound - 2L; duration <= lowerBound + 1L; duration++) {
+        assertEquals(logBucket(duration), TickRollups.bucket(duration), "duration " + duration);
+      }
+    }
+  }
+
+  @Test
+  void bucketExtremes() {
+    final long[] durations = {0L, 1L, MILLISECOND - 1L, MILLISECOND, Long.MAX_VALUE, -1L, Long.MIN_VALUE};
+    for (final long duration : durations) {
+      final int bucket = TickRollups.bucket(duration);
+      assertTrue(bucket >= 0 && bucket < SKETCH_BUCKETS, "duration " + duration + " bucket " + bucket);
+      if (duration >= 0L) {
+        assertEquals(logBucket(duration), bucket, "duration " + duration);
+      }
+    }
+  }
+
+  @Test
+  void bucketMatchesLogFormula() {
+    final SplittableRandom random = new SplittableRandom(0x5EC0DL);
+    for (int i = 0; i < 20_000_000; i++) {
+      // Durations of every magnitude from 1ns to about an hour, weighted towards typical ticks
+      final long duration = i % 2 == 0
+        ? random.nextLong(1L, 200L * MILLISECOND)
+        : random.nextLong(1L, 1L << 42) >>> random.nextInt(42);
+      final int expected = logBucket(duration);
+      final int actual = TickRollups.bucket(duration);
+      if (expected != actual) {
+        assertEquals(expected, actual, "duration " + duration);
+      }
+    }
+  }
+
+  @Test
+  void querySelectsFinestCoveringTier() {
+    final TickRollups rollups = new TickRollups();
+    rollups.record(2L * MILLISECOND);
+    final long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+
+    // The 1 second tier keeps 2 minutes
+    final TickRollups.Statistics seconds = rollups.query(now - 60L, now + 1L);
+    assertEquals(1L, seconds.count());
+    assertEquals(now + 1L, seconds.toSecond());
+
+    // The 1 minute tier keeps 2 hours, and includes the partial minute at the end whole
+    final TickRollups.Statistics minutes = rollups.query(now - 3_600L, now + 1L);
+    assertEquals(1L, minutes.count());
+    assertEquals((now / 60L + 1L) * 60L, minutes.toSecond());
+
+    // The 1 hour tier keeps 4 weeks
+    final TickRollups.Statistics hours = rollups.query(now - 86_400L, now + 1L);
+    assertEquals(1L, hours.count());
+    assertEquals((now / 3_600L + 1L) * 3_600L, hours.toSecond());
+
+    // Older windows fall back to the coarsest tier, which no longer holds them
+    final TickRollups.Statistics expired = rollups.query(now - 60L * 86_400L, now - 59L * 86_400L);
+    assertEquals(0L, expired.count());
+  }
+
+  @Test
+  void coverageStartsAtFirstRecord() {
+    final TickRollups rollups = new TickRollups();
+    rollups.record(2L * MILLISECOND);
+    final long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+
+    assertTrue(rollups.recent(1L).covers(now, now + 1L));
+    // Recording started within the last second, so a window starting an hour ago is not covered
+    final TickRollups.Statistics hour = rollups.query(now - 3_600L, now + 1L);
+    assertTrue(hour.fromSecond() >= now - 1L);
+    assertFalse(hour.covers(now - 3_600L, now + 1L));
+  }
+
+  @Test
+  void percentileIsClamped() {
+    final TickRollups rollups = new TickRollups();
+    assertTrue(Double.isNaN(rollups.recent(60L).percentile(50.0D)));
+
+    for (int i = 0; i < 99; i++) {
+      rollups.record(3L * MILLISECOND / 2L);
+    }
+    rollups.record(40L * MILLISECOND);
+    final TickRollups.Statistics statistics = rollups.recent(60L);
+    assertEquals(100L, statistics.count());
+    assertEquals(1.5D, statistics.min(), 1.0E-9D);
+    assertEquals(40.0D, statistics.max(), 1.0E-9D);
+
+    // Bucket upper bounds never leave the exact range
+    assertEquals(Math.pow(2.0D, 2.0D / 3.0D), statistics.percentile(50.0D), 1.0E-9D);
+    assertEquals(40.0D, statistics.percentile(100.0D), 1.0E-9D);
+    // Out of range percentiles are clamped to 0 and 100
+    assertEquals(statistics.percentile(0.0D), statistics.percentile(-5.0D), 0.0D);
+    assertEquals(statistics.percentile(100.0D), statistics.percentile(150.0D), 0.0D);
+  }
+
+  @Test
+  void percentileOfSingleValueIsExact() {
+    final TickRollups rollups = new TickRollups();
+    rollups.record(3L * MILLISECOND);
+    final TickRollups.Statistics statistics = rollups.recent(60L);
+    for (final double percentile : new double[] {0.0D, 50.0D, 99.0D, 100.0D}) {
+      assertEquals(3.0D, statistics.percentile(percentile), 1.0E-9D);
+    }
+  }
+
+  @Test
+  void percentileInOpenEndedBucketIsMaximum() {
+    final TickRollups rollups = new TickRollups();
+    // Beyond the last bucket's lower bound of about 1 second
+    rollups.record(2L * MILLISECOND);
+    rollups.record(10_000L * MILLISECOND);
+    final TickRollups.Statistics statistics = rollups.recent(60L);
+    assertEquals(10_000.0D, statistics.percentile(100.0D), 1.0E-9D);
+  }
+
+  /**
+   * The bucket formula used before buckets were looked up by bit length.
+   *
+   * @param durationNanos duration
+   * @return bucket
+   */
+  private static int logBucket(final long durationNanos) {
+    final double millis = TPSUtil.toMilliseconds(durationNanos);
+    if (millis < 1.0D) {
+      return 0;
+    }
+    final int bucket = 1 + (int) (Math.log(millis) / Math.log(2.0D) * 3.0D);
+    return Math.min(SKETCH_BUCKETS - 1, bucket);
+  }
+}
@@ -34,6 +34,7 @@ import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Entity;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.incendo.cloud.SenderMapper;
 import org.incendo.cloud.execution.ExecutionCoordinator;
 import org.incendo.cloud.fabric.FabricServerCommandManager;
@@ -175,6 +176,12 @@ public final class TabTPSFabric implements ModInitializer, TabTPSPlatform<Server
     return this.logger;
   }
 
+  @Override
+  public @Nullable Thread serverThread() {
+    final @Nullable MinecraftServer server = this.server;
+    return server == null ? null : server.getRunningThread();
+  }
+
   @Override
   public @NonNull FabricServerCommandManager<Commander> commandManager() {
     return this.commandManager;
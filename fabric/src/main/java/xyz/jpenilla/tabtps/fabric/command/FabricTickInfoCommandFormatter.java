@@ -44,9 +44,9 @@ public final class FabricTickInfoCommandFormatter implements TickInfoCommand.For
   public @NonNull List<Component> formatTickTimes() {
     final MinecraftServerAccess server = (MinecraftServerAccess) this.tabTPSFabric.server();
     return TPSUtil.formatTickTimes(ImmutableList.of(
-      Pair.of("5s", server.tickTimes5s().times()),
-      Pair.of("10s", server.tickTimes10s().times()),
-      Pair.of("60s", server.tickTimes60s().times())
+      Pair.of("5s", server.tickTimes5s()),
+      Pair.of("10s", server.tickTimes10s()),
+      Pair.of("60s", server.tickTimes60s())
     ));
   }
 }
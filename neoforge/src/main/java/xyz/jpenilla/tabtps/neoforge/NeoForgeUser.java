@@ -31,6 +31,8 @@ import net.minecraft.server.level.ServerPlayer;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.framework.qual.DefaultQualifier;
 import xyz.jpenilla.tabtps.common.AbstractUser;
+import xyz.jpenilla.tabtps.common.util.TickTimes;
+import xyz.jpenilla.tabtps.neoforge.access.ServerLevelAccess;
 
 @DefaultQualifier(NonNull.class)
 public final class NeoForgeUser extends AbstractUser<ServerPlayer> {
@@ -60,6 +62,16 @@ public final class NeoForgeUser extends AbstractUser<ServerPlayer> {
     return this.base().connection.latency();
   }
 
+  @Override
+  public String world() {
+    return this.base().serverLevel().dimension().location().toString();
+  }
+
+  @Override
+  public TickTimes worldTickTimes() {
+    return ((ServerLevelAccess) this.base().serverLevel()).levelTickTimes();
+  }
+
   @Override
   public boolean hasPermission(final String permissionString) {
     return this.audience().get(PermissionChecker.POINTER)
@@ -226,6 +226,12 @@ public final class TabTPSNeoForge implements TabTPSPlatform<ServerPlayer, NeoFor
     return this.logger;
   }
 
+  @Override
+  public @Nullable Thread serverThread() {
+    final @Nullable MinecraftServer server = this.server;
+    return server == null ? null : server.getRunningThread();
+  }
+
   @Override
   public @NonNull NeoForgeServerCommandManager<Commander> commandManager() {
     return this.commandManager;
@@ -44,9 +44,9 @@ public final class NeoForgeTickInfoCommandFormatter implements TickInfoCommand.F
   public @NonNull List<Component> formatTickTimes() {
     final MinecraftServerAccess server = (MinecraftServerAccess) this.tabTPSNeoForge.server();
     return TPSUtil.formatTickTimes(ImmutableList.of(
-      Pair.of("5s", server.tickTimes5s().times()),
-      Pair.of("10s", server.tickTimes10s().times()),
-      Pair.of("60s", server.tickTimes60s().times())
+      Pair.of("5s", server.tickTimes5s()),
+      Pair.of("10s", server.tickTimes10s()),
+      Pair.of("60s", server.tickTimes60s())
     ));
   }
 }
@@ -24,12 +24,12 @@
 package xyz.jpenilla.tabtps.neoforge.mixin;
 
 import com.llamalad7.mixinextras.sugar.Local;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.BooleanSupplier;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
 import org.checkerframework.checker.nullness.qual.NonNull;
-import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Implements;
 import org.spongepowered.asm.mixin.Interface;
 import org.spongepowered.asm.mixin.Mixin;
@@ -43,7 +43,9 @@ import xyz.jpenilla.tabtps.common.util.RollingAverage;
 import xyz.jpenilla.tabtps.common.util.TPSUtil;
 import xyz.jpenilla.tabtps.common.util.TickTimes;
 import xyz.jpenilla.tabtps.common.util.TickingState;
+import xyz.jpenilla.tabtps.neoforge.TabTPSNeoForge;
 import xyz.jpenilla.tabtps.neoforge.access.MinecraftServerAccess;
+import xyz.jpenilla.tabtps.neoforge.access.ServerLevelAccess;
 
 /**
  * Adds TPS and tick time rolling averages.
@@ -74,7 +76,20 @@ abstract class MinecraftServerMixin implements MinecraftServerAccess {
   private TickingState tickingState = TickingState.NOT_TICKING;
 
   @Shadow private int tickCount;
-  @Shadow @Final private long[] tickTimesNanos;
+
+  @Shadow
+  public abstract Iterable<ServerLevel> getAllLevels();
+
+  @Inject(method = "tickServer", at = @At("HEAD"))
+  private void injectTickStart(final BooleanSupplier keepTicking, final CallbackInfo ci) {
+    TabTPSNeoForge.get().tabTPS().lagSpikeWatchdog().tickStarted();
+  }
+
+  @Inject(method = "tickServer", at = @At("RETURN"))
+  private void injectTickEnd(final BooleanSupplier keepTicking, final CallbackInfo ci) {
+    TabTPSNeoForge.get().userService().sendQueuedDisplayUpdates();
+    TabTPSNeoForge.get().tabTPS().lagSpikeWatchdog().tickEnded();
+  }
 
   @Inject(
     method = "tickServer",
@@ -94,6 +109,7 @@ abstract class MinecraftServerMixin implements MinecraftServerAccess {
     this.tickTimes5s.add(this.tickCount, tickDurationNanos);
     this.tickTimes10s.add(this.tickCount, tickDurationNanos);
     this.tickTimes60s.add(this.tickCount, tickDurationNanos);
+    TabTPSNeoForge.get().tabTPS().tickRollups().record(tickDurationNanos);
 
     if (this.tickCount % RollingAverage.SAMPLE_INTERVAL == 0) {
       if (this.tickingState == TickingState.NOT_TICKING) {
@@ -105,7 +121,7 @@ abstract class MinecraftServerMixin implements MinecraftServerAccess {
       this.previousTime = tickStartTimeNanos;
       // Start measuring on the second tick
       if (this.tickingState == TickingState.TICKING) {
-        final BigDecimal currentTps = RollingAverage.TPS_BASE.divide(new BigDecimal(diff), 30, RoundingMode.HALF_UP);
+        final double currentTps = RollingAverage.TPS_BASE / diff;
         this.tps5s.add(currentTps, diff);
         this.tps1m.add(currentTps, diff);
         this.tps5m.add(currentTps, diff);
@@ -115,7 +131,27 @@ abstract class MinecraftServerMixin implements MinecraftServerAccess {
   }
 
   public double tabtps$averageMspt() {
-    return TPSUtil.toMilliseconds(TPSUtil.average(this.tickTimesNanos));
+    return TPSUtil.toMilliseconds(this.tickTimes5s.sum() / (double) this.tickTimes5s.length());
+  }
+
+  public double tabtps$msptPercentile(final double percentile) {
+    return TPSUtil.toMilliseconds(this.tickTimes5s.percentile(percentile));
+  }
+
+  public double tabtps$minMspt() {
+    return TPSUtil.toMilliseconds(this.tickTimes5s.min());
+  }
+
+  public double tabtps$maxMspt() {
+    return TPSUtil.toMilliseconds(this.tickTimes5s.max());
+  }
+
+  public @NonNull Map<String, TickTimes> tabtps$worldTickTimes() {
+    final Map<String, TickTimes> times = new LinkedHashMap<>();
+    for (final ServerLevel level : this.getAllLevels()) {
+      times.put(level.dimension().location().toString(), ((ServerLevelAccess) level).levelTickTimes());
+    }
+    return times;
   }
 
   public double @NonNull [] tabtps$recentTps() {
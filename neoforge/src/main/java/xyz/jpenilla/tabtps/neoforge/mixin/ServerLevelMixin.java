@@ -0,0 +1,62 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.neoforge.mixin;
+
+import java.util.function.BooleanSupplier;
+import net.minecraft.server.level.ServerLevel;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import xyz.jpenilla.tabtps.common.util.TickTimes;
+import xyz.jpenilla.tabtps.neoforge.access.ServerLevelAccess;
+
+/**
+ * Times each level's tick.
+ */
+@Mixin(ServerLevel.class)
+abstract class ServerLevelMixin implements ServerLevelAccess {
+  @Unique
+  private final TickTimes levelTickTimes = new TickTimes(100);
+  @Unique
+  private long tickStartTimeNanos;
+
+  @Inject(method = "tick", at = @At("HEAD"))
+  private void injectTickStart(final BooleanSupplier keepTicking, final CallbackInfo ci) {
+    this.tickStartTimeNanos = System.nanoTime();
+  }
+
+  @Inject(method = "tick", at = @At("RETURN"))
+  private void injectTickEnd(final BooleanSupplier keepTicking, final CallbackInfo ci) {
+    final ServerLevel level = (ServerLevel) (Object) this;
+    this.levelTickTimes.add(level.getServer().getTickCount(), System.nanoTime() - this.tickStartTimeNanos);
+  }
+
+  @Override
+  public @NonNull TickTimes levelTickTimes() {
+    return this.levelTickTimes;
+  }
+}
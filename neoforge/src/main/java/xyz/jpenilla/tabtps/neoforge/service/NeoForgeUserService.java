@@ -27,6 +27,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.UUID;
 import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.network.ServerGamePacketListenerImpl;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.framework.qual.DefaultQualifier;
 import xyz.jpenilla.tabtps.common.service.UserService;
@@ -56,4 +57,23 @@ public final class NeoForgeUserService extends UserService<ServerPlayer, NeoForg
   protected Collection<ServerPlayer> platformPlayers() {
     return Collections.unmodifiableCollection(this.tabTPSNeoForge.server().getPlayerList().getPlayers());
   }
+
+  @Override
+  public boolean batchesDisplayUpdates() {
+    return true;
+  }
+
+  @Override
+  protected void suspendFlushing(final NeoForgeUser user) {
+    this.connection(user).suspendFlushing();
+  }
+
+  @Override
+  protected void resumeFlushing(final NeoForgeUser user) {
+    this.connection(user).resumeFlushing();
+  }
+
+  private ServerGamePacketListenerImpl connection(final NeoForgeUser user) {
+    return user.base().connection;
+  }
 }
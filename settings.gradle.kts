@@ -47,6 +47,7 @@ listOf(
   "sponge",
   "fabric",
   "neoforge",
+  "benchmarks",
 ).forEach { module ->
   include("tabtps-$module")
   project(":tabtps-$module").projectDir = file(module)
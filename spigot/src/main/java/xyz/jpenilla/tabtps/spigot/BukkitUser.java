@@ -76,6 +76,11 @@ public final class BukkitUser extends AbstractUser<Player> {
       : this.base().spigot().getPing();
   }
 
+  @Override
+  public String world() {
+    return this.base().getWorld().getName();
+  }
+
   @Override
   public Audience audience() {
     if (this.audience == null) {
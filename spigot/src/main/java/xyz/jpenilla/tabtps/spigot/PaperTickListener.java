@@ -0,0 +1,55 @@
+/*
+ * This file is part of TabTPS, licensed under the MIT License.
+ *
+ * Copyright (c) 2020-2024 Jason Penilla
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.jpenilla.tabtps.spigot;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import com.destroystokyo.paper.event.server.ServerTickStartEvent;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import xyz.jpenilla.tabtps.spigot.service.PaperTickTimeService;
+
+public final class PaperTickListener implements Listener {
+  private final TabTPSPlugin plugin;
+  private final PaperTickTimeService tickTimeService;
+
+  public PaperTickListener(final @NonNull TabTPSPlugin plugin, final @NonNull PaperTickTimeService tickTimeService) {
+    this.plugin = plugin;
+    this.tickTimeService = tickTimeService;
+  }
+
+  @EventHandler(priority = EventPriority.LOWEST)
+  public void onTickStart(final @NonNull ServerTickStartEvent e) {
+    this.plugin.tabTPS().lagSpikeWatchdog().tickStarted();
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onTickEnd(final @NonNull ServerTickEndEvent e) {
+    this.plugin.tabTPS().lagSpikeWatchdog().tickEnded();
+    final long durationNanos = (long) (e.getTickDuration() * 1.0E6D);
+    this.tickTimeService.tickEnded(e.getTickNumber(), durationNanos);
+    this.plugin.tabTPS().tickRollups().record(durationNanos);
+  }
+}
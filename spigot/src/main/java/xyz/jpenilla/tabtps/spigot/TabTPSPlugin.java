@@ -57,11 +57,13 @@ public final class TabTPSPlugin extends PluginBase implements TabTPSPlatform<Pla
   private UserService<Player, BukkitUser> userService;
   private TickTimeService tickTimeService;
   private Logger logger;
+  private Thread serverThread;
 
   @Override
   public void enable() {
     PaperLib.suggestPaper(this, Level.WARNING);
     this.logger = LoggerFactory.getLogger(this.getLogger().getName());
+    this.serverThread = Thread.currentThread();
     if (this.craftBukkit()) {
       this.getServer().getPluginManager().disablePlugin(this);
       return;
@@ -79,6 +81,9 @@ public final class TabTPSPlugin extends PluginBase implements TabTPSPlatform<Pla
     this.registerCommands();
 
     this.getServer().getPluginManager().registerEvents(new JoinQuitListener(this), this);
+    if (PaperLib.getMinecraftVersion() >= 16 && PaperLib.isPaper()) {
+      this.getServer().getPluginManager().registerEvents(new PaperTickListener(this, (PaperTickTimeService) this.tickTimeService), this);
+    }
 
     if (this.tabTPS.configManager().pluginSettings().updateChecker()) {
       this.getServer().getScheduler().runTaskAsynchronously(this, () ->
@@ -180,6 +185,11 @@ public final class TabTPSPlugin extends PluginBase implements TabTPSPlatform<Pla
     return this.logger;
   }
 
+  @Override
+  public @NonNull Thread serverThread() {
+    return this.serverThread;
+  }
+
   private boolean craftBukkit() {
     if (!PaperLib.isSpigot()) {
       this.logger.error("==========================================");
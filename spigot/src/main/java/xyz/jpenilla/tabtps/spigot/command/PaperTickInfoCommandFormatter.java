@@ -25,7 +25,8 @@ package xyz.jpenilla.tabtps.spigot.command;
 
 import com.google.common.collect.ImmutableList;
 import java.lang.invoke.MethodHandle;
-import java.lang.reflect.Field;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.List;
 import java.util.Objects;
 import net.kyori.adventure.text.Component;
@@ -34,6 +35,8 @@ import org.incendo.cloud.type.tuple.Pair;
 import xyz.jpenilla.pluginbase.legacy.Crafty;
 import xyz.jpenilla.tabtps.common.command.commands.TickInfoCommand;
 import xyz.jpenilla.tabtps.common.util.TPSUtil;
+import xyz.jpenilla.tabtps.common.util.TickTimes;
+import xyz.jpenilla.tabtps.spigot.util.SpigotReflection;
 
 public final class PaperTickInfoCommandFormatter implements TickInfoCommand.Formatter {
   private final Class<?> _MinecraftServer = Crafty.needNMSClassOrElse(
@@ -46,38 +49,44 @@ public final class PaperTickInfoCommandFormatter implements TickInfoCommand.Form
   );
 
   private final MethodHandle _getServer = Objects.requireNonNull(Crafty.findStaticMethod(this._MinecraftServer, "getServer", this._MinecraftServer));
-  private final MethodHandle _getTimes = Objects.requireNonNull(Crafty.findMethod(this._MinecraftServer_TickTimes, "getTimes", long[].class));
+  private final MethodHandle _getTimes = Objects.requireNonNull(Crafty.findMethod(this._MinecraftServer_TickTimes, "getTimes", long[].class))
+    .asType(MethodType.methodType(long[].class, Object.class));
 
-  private final Field _tickTimes5s;
-  private final Field _tickTimes10s;
-  private final Field _tickTimes60s;
+  // (Object server) -> long[], composed once instead of binding getTimes on every call
+  private final MethodHandle _times5s;
+  private final MethodHandle _times10s;
+  private final MethodHandle _times60s;
+  private final Object minecraftServer;
 
   public PaperTickInfoCommandFormatter() {
     try {
-      this._tickTimes5s = Crafty.needField(this._MinecraftServer, "tickTimes5s");
-      this._tickTimes10s = Crafty.needField(this._MinecraftServer, "tickTimes10s");
-      this._tickTimes60s = Crafty.needField(this._MinecraftServer, "tickTimes60s");
-    } catch (final NoSuchFieldException e) {
-      throw new IllegalStateException("Failed to initialize formatter", e);
+      this._times5s = this.times("tickTimes5s");
+      this._times10s = this.times("tickTimes10s");
+      this._times60s = this.times("tickTimes60s");
+      this.minecraftServer = Objects.requireNonNull((Object) this._getServer.invoke());
+    } catch (final Throwable throwable) {
+      throw new IllegalStateException("Failed to initialize formatter", throwable);
     }
   }
 
+  private @NonNull MethodHandle times(final @NonNull String fieldName) throws NoSuchFieldException {
+    return MethodHandles.filterReturnValue(
+      SpigotReflection.getter(Crafty.needField(this._MinecraftServer, fieldName), Object.class),
+      this._getTimes
+    );
+  }
+
   @Override
   public @NonNull List<Component> formatTickTimes() {
     try {
-      final Object minecraftServer = this._getServer.invoke();
-      final Object tickTimes5s = this._tickTimes5s.get(minecraftServer);
-      final Object tickTimes10s = this._tickTimes10s.get(minecraftServer);
-      final Object tickTimes60s = this._tickTimes60s.get(minecraftServer);
-
-      final long[] times5s = (long[]) this._getTimes.bindTo(tickTimes5s).invoke();
-      final long[] times10s = (long[]) this._getTimes.bindTo(tickTimes10s).invoke();
-      final long[] times60s = (long[]) this._getTimes.bindTo(tickTimes60s).invoke();
+      final long[] times5s = (long[]) this._times5s.invokeExact(this.minecraftServer);
+      final long[] times10s = (long[]) this._times10s.invokeExact(this.minecraftServer);
+      final long[] times60s = (long[]) this._times60s.invokeExact(this.minecraftServer);
 
       return TPSUtil.formatTickTimes(ImmutableList.of(
-        Pair.of("5s", times5s),
-        Pair.of("10s", times10s),
-        Pair.of("60s", times60s)
+        Pair.of("5s", TickTimes.copyOf(times5s)),
+        Pair.of("10s", TickTimes.copyOf(times10s)),
+        Pair.of("60s", TickTimes.copyOf(times60s))
       ));
     } catch (final Throwable throwable) {
       throw new IllegalStateException("Failed to retrieve tick time statistics", throwable);
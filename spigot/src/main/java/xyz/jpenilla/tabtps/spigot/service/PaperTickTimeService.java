@@ -26,8 +26,23 @@ package xyz.jpenilla.tabtps.spigot.service;
 import org.bukkit.Bukkit;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import xyz.jpenilla.tabtps.common.service.TickTimeService;
+import xyz.jpenilla.tabtps.common.util.TPSUtil;
+import xyz.jpenilla.tabtps.common.util.TickTimes;
 
 public final class PaperTickTimeService implements TickTimeService {
+  // Fed from the tick end event, so percentiles are read without copying Paper's tick times
+  private final TickTimes tickTimes5s = new TickTimes(100);
+
+  /**
+   * Record a tick duration. Called from the server thread at the end of each tick.
+   *
+   * @param tick          tick number
+   * @param durationNanos tick duration in nanoseconds
+   */
+  public void tickEnded(final int tick, final long durationNanos) {
+    this.tickTimes5s.add(tick, durationNanos);
+  }
+
   @Override
   public double averageMspt() {
     return Bukkit.getAverageTickTime();
@@ -37,4 +52,19 @@ public final class PaperTickTimeService implements TickTimeService {
   public double @NonNull [] recentTps() {
     return Bukkit.getTPS();
   }
+
+  @Override
+  public double msptPercentile(final double percentile) {
+    return TPSUtil.toMilliseconds(this.tickTimes5s.percentile(percentile));
+  }
+
+  @Override
+  public double minMspt() {
+    return TPSUtil.toMilliseconds(this.tickTimes5s.min());
+  }
+
+  @Override
+  public double maxMspt() {
+    return TPSUtil.toMilliseconds(this.tickTimes5s.max());
+  }
 }
@@ -23,12 +23,21 @@
  */
 package xyz.jpenilla.tabtps.spigot.service;
 
+import java.util.concurrent.TimeUnit;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import xyz.jpenilla.tabtps.common.service.TickTimeService;
+import xyz.jpenilla.tabtps.common.util.TPSUtil;
+import xyz.jpenilla.tabtps.common.util.TickTimes;
 
 import static xyz.jpenilla.tabtps.spigot.util.SpigotReflection.spigotReflection;
 
 public final class SpigotTickTimeService implements TickTimeService {
+  private static final long REFRESH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50L);
+
+  private @Nullable TickTimes recentTickTimes;
+  private int nextSample;
+  private long refreshedAt;
   @Override
   public double averageMspt() {
     return spigotReflection().averageTickTime();
@@ -38,4 +47,45 @@ public final class SpigotTickTimeService implements TickTimeService {
   public double @NonNull [] recentTps() {
     return spigotReflection().recentTps();
   }
+
+  @Override
+  public double msptPercentile(final double percentile) {
+    return TPSUtil.toMilliseconds(this.recentTickTimes().percentile(percentile));
+  }
+
+  @Override
+  public double minMspt() {
+    return TPSUtil.toMilliseconds(this.recentTickTimes().min());
+  }
+
+  @Override
+  public double maxMspt() {
+    return TPSUtil.toMilliseconds(this.recentTickTimes().max());
+  }
+
+  /**
+   * Get the server's recent tick times. Spigot has no tick hook, so they are read from the server
+   * at most once per tick, into the same {@link TickTimes} every time.
+   *
+   * @return recent tick times
+   */
+  private synchronized TickTimes recentTickTimes() {
+    final long now = System.nanoTime();
+    @Nullable TickTimes tickTimes = this.recentTickTimes;
+    if (tickTimes != null && now - this.refreshedAt < REFRESH_INTERVAL_NANOS) {
+      return tickTimes;
+    }
+    final long[] times = spigotReflection().recentTickTimes();
+    if (tickTimes == null || tickTimes.length() != times.length) {
+      tickTimes = new TickTimes(times.length);
+      this.recentTickTimes = tickTimes;
+    }
+    // Adding the whole window as the next samples replaces every previous sample. Should the
+    // sample number wrap around, the window is cleared and refilled
+    for (final long time : times) {
+      tickTimes.add(this.nextSample++, time);
+    }
+    this.refreshedAt = now;
+    return tickTimes;
+  }
 }
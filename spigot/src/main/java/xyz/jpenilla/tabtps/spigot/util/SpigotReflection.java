@@ -25,8 +25,9 @@ package xyz.jpenilla.tabtps.spigot.util;
 
 import io.papermc.lib.PaperLib;
 import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
-import java.util.Arrays;
 import java.util.Objects;
 import org.bukkit.entity.Player;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -58,13 +59,28 @@ public final class SpigotReflection {
     "net.minecraft.server.level.ServerPlayer"
   );
 
+  // Handles are adapted to erased types once so call sites can use invokeExact,
+  // which avoids the argument array and boxing of invoke/invokeWithArguments
   private static final MethodHandle CraftPlayer_getHandle_method = needMethod(CraftPlayer_class, "getHandle", ServerPlayer_class);
   private static final MethodHandle MinecraftServer_getServer_method = needStaticMethod(MinecraftServer_class, "getServer", MinecraftServer_class);
 
-  private static final @Nullable Field ServerPlayer_latency_field = pingField();
-  private static final Field MinecraftServer_recentTps_field = needField(MinecraftServer_class, "recentTps"); // Spigot added field
+  private static final @Nullable MethodHandle CraftPlayer_latency_getter = pingGetter();
+  private static final MethodHandle MinecraftServer_recentTps_getter = getter(needField(MinecraftServer_class, "recentTps"), double[].class); // Spigot added field
+  private static final MethodHandle MinecraftServer_recentTickTimes_getter = getter(tickTimesField(), long[].class);
 
-  private final Field MinecraftServer_recentTickTimes_field = tickTimesField();
+  private final Object server;
+
+  private SpigotReflection() {
+    try {
+      // The server instance never changes once plugins are enabled
+      this.server = Objects.requireNonNull(
+        (Object) MinecraftServer_getServer_method.invoke(),
+        "MinecraftServer#getServer returned null"
+      );
+    } catch (final Throwable throwable) {
+      throw new IllegalStateException("Failed to get server instance", throwable);
+    }
+  }
 
   private static @NonNull Field tickTimesField() {
     final String tickTimes;
@@ -93,43 +109,49 @@ public final class SpigotReflection {
     return needField(MinecraftServer_class, tickTimes);
   }
 
-  private static @Nullable Field pingField() {
-    final @Nullable Field mojang = findField(ServerPlayer_class, "latency");
-    if (mojang != null) {
-      return mojang;
+  private static @Nullable MethodHandle pingGetter() {
+    @Nullable Field field = findField(ServerPlayer_class, "latency");
+    if (field == null) {
+      field = findField(ServerPlayer_class, "ping");
     }
-    final @Nullable Field spigotNamedOld = findField(ServerPlayer_class, "ping");
-    return spigotNamedOld;
+    if (field == null) {
+      return null;
+    }
+    // (Object craftPlayer) -> int, reading the field from the handle returned by getHandle
+    return MethodHandles.filterReturnValue(
+      CraftPlayer_getHandle_method.asType(MethodType.methodType(Object.class, Object.class)),
+      getter(field, int.class)
+    );
   }
 
   public int ping(final @NonNull Player player) {
-    if (ServerPlayer_latency_field == null) {
-      throw new IllegalStateException("ServerPlayer_latency_field is null");
+    if (CraftPlayer_latency_getter == null) {
+      throw new IllegalStateException("CraftPlayer_latency_getter is null");
     }
-    final Object nmsPlayer = invokeOrThrow(CraftPlayer_getHandle_method, player);
     try {
-      return ServerPlayer_latency_field.getInt(nmsPlayer);
-    } catch (final IllegalAccessException e) {
-      throw new IllegalStateException(String.format("Failed to get ping for player: '%s'", player.getName()), e);
+      return (int) CraftPlayer_latency_getter.invokeExact((Object) player);
+    } catch (final Throwable throwable) {
+      throw new IllegalStateException(String.format("Failed to get ping for player: '%s'", player.getName()), throwable);
     }
   }
 
   public double averageTickTime() {
-    final Object server = invokeOrThrow(MinecraftServer_getServer_method);
+    return TPSUtil.toMilliseconds(TPSUtil.average(this.recentTickTimes()));
+  }
+
+  public long @NonNull [] recentTickTimes() {
     try {
-      final long[] recentMspt = (long[]) this.MinecraftServer_recentTickTimes_field.get(server);
-      return TPSUtil.toMilliseconds(TPSUtil.average(recentMspt));
-    } catch (final IllegalAccessException e) {
-      throw new IllegalStateException("Failed to get server mspt", e);
+      return (long[]) MinecraftServer_recentTickTimes_getter.invokeExact(this.server);
+    } catch (final Throwable throwable) {
+      throw new IllegalStateException("Failed to get server mspt", throwable);
     }
   }
 
   public double @NonNull [] recentTps() {
-    final Object server = invokeOrThrow(MinecraftServer_getServer_method);
     try {
-      return (double[]) MinecraftServer_recentTps_field.get(server);
-    } catch (final IllegalAccessException e) {
-      throw new IllegalStateException("Failed to get server TPS", e);
+      return (double[]) MinecraftServer_recentTps_getter.invokeExact(this.server);
+    } catch (final Throwable throwable) {
+      throw new IllegalStateException("Failed to get server TPS", throwable);
     }
   }
 
@@ -166,14 +188,20 @@ public final class SpigotReflection {
     }
   }
 
-  private static @Nullable Object invokeOrThrow(final @NonNull MethodHandle methodHandle, final @Nullable Object @NonNull ... params) {
+  /**
+   * Create a getter for an instance field, typed {@code (Object) -> fieldType} for use with
+   * {@link MethodHandle#invokeExact(Object...)}.
+   *
+   * @param field accessible field
+   * @param fieldType field type
+   * @return getter handle
+   */
+  public static @NonNull MethodHandle getter(final @NonNull Field field, final @NonNull Class<?> fieldType) {
     try {
-      if (params.length == 0) {
-        return methodHandle.invoke();
-      }
-      return methodHandle.invokeWithArguments(params);
-    } catch (final Throwable throwable) {
-      throw new IllegalStateException(String.format("Unable to invoke method with args '%s'", Arrays.toString(params)), throwable);
+      return MethodHandles.lookup().unreflectGetter(field)
+        .asType(MethodType.methodType(fieldType, Object.class));
+    } catch (final IllegalAccessException e) {
+      throw new IllegalStateException(String.format("Unable to access field '%s' in class '%s'", field.getName(), field.getDeclaringClass().getCanonicalName()), e);
     }
   }
 }
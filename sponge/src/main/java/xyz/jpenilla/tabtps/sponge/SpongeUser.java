@@ -31,6 +31,8 @@ import org.checkerframework.framework.qual.DefaultQualifier;
 import org.spongepowered.api.entity.living.player.server.ServerPlayer;
 import xyz.jpenilla.tabtps.common.AbstractUser;
 import xyz.jpenilla.tabtps.common.TabTPS;
+import xyz.jpenilla.tabtps.common.util.TickTimes;
+import xyz.jpenilla.tabtps.sponge.access.ServerLevelAccess;
 
 @DefaultQualifier(NonNull.class)
 public final class SpongeUser extends AbstractUser<ServerPlayer> {
@@ -76,6 +78,16 @@ public final class SpongeUser extends AbstractUser<ServerPlayer> {
     throw new RuntimeException("Failed to get ping", err);
   }
 
+  @Override
+  public String world() {
+    return this.base().world().key().asString();
+  }
+
+  @Override
+  public TickTimes worldTickTimes() {
+    return ((ServerLevelAccess) this.base().world()).levelTickTimes();
+  }
+
   @Override
   public Audience audience() {
     return this.base();
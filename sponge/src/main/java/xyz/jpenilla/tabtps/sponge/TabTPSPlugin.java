@@ -28,7 +28,9 @@ import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.TypeLiteral;
 import java.nio.file.Path;
+import net.minecraft.server.MinecraftServer;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.incendo.cloud.CommandManager;
 import org.incendo.cloud.SenderMapper;
 import org.incendo.cloud.execution.ExecutionCoordinator;
@@ -56,6 +58,8 @@ import xyz.jpenilla.tabtps.sponge.service.SpongeUserService;
 
 @Plugin("tabtps")
 public final class TabTPSPlugin implements TabTPSPlatform<ServerPlayer, SpongeUser> {
+  private static TabTPSPlugin instance = null;
+
   private final Injector injector;
   private final PluginContainer pluginContainer;
   private final Path dataDirectory;
@@ -72,6 +76,11 @@ public final class TabTPSPlugin implements TabTPSPlatform<ServerPlayer, SpongeUs
     final @NonNull Injector injector,
     final @NonNull Game game
   ) {
+    if (instance != null) {
+      throw new IllegalStateException("Cannot create a second instance of " + this.getClass().getName());
+    }
+    instance = this;
+
     final CloudInjectionModule<Commander> cloudModule = new CloudInjectionModule<>(
       Commander.class,
       ExecutionCoordinator.simpleCoordinator(),
@@ -108,6 +117,10 @@ public final class TabTPSPlugin implements TabTPSPlatform<ServerPlayer, SpongeUs
     this.logger.info("Done initializing TabTPS.");
   }
 
+  public static @NonNull TabTPSPlugin get() {
+    return instance;
+  }
+
   @Override
   public @NonNull UserService<ServerPlayer, SpongeUser> userService() {
     return this.userService;
@@ -148,6 +161,14 @@ public final class TabTPSPlugin implements TabTPSPlatform<ServerPlayer, SpongeUs
     return this.logger;
   }
 
+  @Override
+  public @Nullable Thread serverThread() {
+    if (!this.game.isServerAvailable()) {
+      return null;
+    }
+    return ((MinecraftServer) this.game.server()).getRunningThread();
+  }
+
   @Override
   public @NonNull CommandManager<Commander> commandManager() {
     return this.commandManager;
@@ -38,9 +38,9 @@ public final class SpongeTickInfoCommandFormatter implements TickInfoCommand.For
   public @NonNull List<Component> formatTickTimes() {
     final MinecraftServerAccess server = (MinecraftServerAccess) Sponge.server();
     return TPSUtil.formatTickTimes(ImmutableList.of(
-      Pair.of("5s", server.tickTimes5s().times()),
-      Pair.of("10s", server.tickTimes10s().times()),
-      Pair.of("60s", server.tickTimes60s().times())
+      Pair.of("5s", server.tickTimes5s()),
+      Pair.of("10s", server.tickTimes10s()),
+      Pair.of("60s", server.tickTimes60s())
     ));
   }
 }
@@ -25,6 +25,7 @@ package xyz.jpenilla.tabtps.sponge.service;
 
 import java.util.Collection;
 import java.util.UUID;
+import net.minecraft.server.network.ServerGamePacketListenerImpl;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.framework.qual.DefaultQualifier;
 import org.spongepowered.api.Sponge;
@@ -56,4 +57,23 @@ public final class SpongeUserService extends UserService<ServerPlayer, SpongeUse
   protected Collection<ServerPlayer> platformPlayers() {
     return Sponge.server().onlinePlayers();
   }
+
+  @Override
+  public boolean batchesDisplayUpdates() {
+    return true;
+  }
+
+  @Override
+  protected void suspendFlushing(final SpongeUser user) {
+    this.connection(user).suspendFlushing();
+  }
+
+  @Override
+  protected void resumeFlushing(final SpongeUser user) {
+    this.connection(user).resumeFlushing();
+  }
+
+  private ServerGamePacketListenerImpl connection(final SpongeUser user) {
+    return ((net.minecraft.server.level.ServerPlayer) user.base()).connection;
+  }
 }